@@ -1,12 +1,12 @@
 package org.checkerframework.checker.index;
 
 import com.sun.source.tree.Tree;
-import java.util.List;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.ExecutableElement;
 import org.checkerframework.dataflow.cfg.node.MethodAccessNode;
 import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -15,58 +15,63 @@ import org.checkerframework.javacutil.TreeUtils;
  */
 public class IndexMethodIdentifier {
 
-    private final ExecutableElement fcnRandom;
-    private final ExecutableElement fcnNextDouble;
-    private final ExecutableElement fcnNextInt;
+    /** The interesting methods. */
+    private enum Role {
+        MATH_MIN,
+        MATH_MAX,
+        MATH_RANDOM,
+        RANDOM_NEXT_DOUBLE,
+        RANDOM_NEXT_INT,
+        STRING_LENGTH
+    }
 
-    private final ExecutableElement stringLength;
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
 
-    private final List<ExecutableElement> mathMinMethods;
-    private final List<ExecutableElement> mathMaxMethods;
+    private final ExecutableElement stringLength;
 
     public IndexMethodIdentifier(ProcessingEnvironment processingEnv) {
-        fcnRandom = TreeUtils.getMethod("java.lang.Math", "random", 0, processingEnv);
-        fcnNextDouble = TreeUtils.getMethod("java.util.Random", "nextDouble", 0, processingEnv);
-        fcnNextInt = TreeUtils.getMethod("java.util.Random", "nextInt", 1, processingEnv);
+        methods = new MethodRoleIndex<>(Role.class, processingEnv);
+        methods.add(
+                Role.MATH_RANDOM, TreeUtils.getMethod("java.lang.Math", "random", 0, processingEnv));
+        methods.add(
+                Role.RANDOM_NEXT_DOUBLE,
+                TreeUtils.getMethod("java.util.Random", "nextDouble", 0, processingEnv));
+        methods.add(
+                Role.RANDOM_NEXT_INT,
+                TreeUtils.getMethod("java.util.Random", "nextInt", 1, processingEnv));
 
         stringLength = TreeUtils.getMethod("java.lang.String", "length", 0, processingEnv);
+        methods.add(Role.STRING_LENGTH, stringLength);
 
-        mathMinMethods = TreeUtils.getMethodList("java.lang.Math", "min", 2, processingEnv);
-        mathMaxMethods = TreeUtils.getMethodList("java.lang.Math", "max", 2, processingEnv);
+        methods.addAll(
+                Role.MATH_MIN, TreeUtils.getMethodList("java.lang.Math", "min", 2, processingEnv));
+        methods.addAll(
+                Role.MATH_MAX, TreeUtils.getMethodList("java.lang.Math", "max", 2, processingEnv));
     }
 
     public boolean isMathMin(Tree methodTree, ProcessingEnvironment processingEnv) {
-        return isInvocationOfOne(methodTree, processingEnv, mathMinMethods);
+        return methods.isInvocation(methodTree, Role.MATH_MIN);
     }
 
     public boolean isMathMax(Tree methodTree, ProcessingEnvironment processingEnv) {
-        return isInvocationOfOne(methodTree, processingEnv, mathMaxMethods);
-    }
-
-    private static boolean isInvocationOfOne(
-            Tree methodTree, ProcessingEnvironment processingEnv, List<ExecutableElement> methods) {
-        for (ExecutableElement minMethod : methods) {
-            if (TreeUtils.isMethodInvocation(methodTree, minMethod, processingEnv)) {
-                return true;
-            }
-        }
-        return false;
+        return methods.isInvocation(methodTree, Role.MATH_MAX);
     }
 
     public boolean isMathRandom(Tree tree, ProcessingEnvironment processingEnv) {
-        return TreeUtils.isMethodInvocation(tree, fcnRandom, processingEnv);
+        return methods.isInvocation(tree, Role.MATH_RANDOM);
     }
 
     public boolean isRandomNextDouble(Tree tree, ProcessingEnvironment processingEnv) {
-        return TreeUtils.isMethodInvocation(tree, fcnNextDouble, processingEnv);
+        return methods.isInvocation(tree, Role.RANDOM_NEXT_DOUBLE);
     }
 
     public boolean isRandomNextInt(Tree tree, ProcessingEnvironment processingEnv) {
-        return TreeUtils.isMethodInvocation(tree, fcnNextInt, processingEnv);
+        return methods.isInvocation(tree, Role.RANDOM_NEXT_INT);
     }
 
     public boolean isStringLength(Tree tree, ProcessingEnvironment processingEnv) {
-        return TreeUtils.isMethodInvocation(tree, stringLength, processingEnv);
+        return methods.isInvocation(tree, Role.STRING_LENGTH);
     }
 
     /** Determines whether the dataflow node is an invocation of String.length() */
@@ -44,7 +44,9 @@ public class OffsetDependentTypesHelper extends DependentTypesHelper {
         }
         try {
             // Standardize individual terms of the expression.
-            equation.standardizeAndViewpointAdaptExpressions(context, localScope, useLocalScope);
+            equation =
+                    equation.standardizeAndViewpointAdaptExpressions(
+                            context, localScope, useLocalScope);
         } catch (FlowExpressionParseUtil.FlowExpressionParseException e) {
             return new DependentTypesError(expression, e).toString();
         }
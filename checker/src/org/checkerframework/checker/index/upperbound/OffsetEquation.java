@@ -2,8 +2,10 @@ package org.checkerframework.checker.index.upperbound;
 
 import com.sun.source.util.TreePath;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.checkerframework.checker.index.IndexUtil;
@@ -18,31 +20,58 @@ import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressio
 import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressionParseException;
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
- * An offset equation is 2 sets of Java expression strings, one set of added terms and one set of
- * subtracted terms, and a single integer constant. The Java expression strings have been
- * standardized and viewpoint-adapted.
+ * An offset equation is a linear combination of Java expression strings plus a single integer
+ * constant. The Java expression strings have been standardized and viewpoint-adapted.
+ *
+ * <p>The terms are stored as a sorted array of the distinct term strings and a parallel array of
+ * their non-zero coefficients. A term that is added twice has coefficient 2, and a subtracted term
+ * has a negative coefficient.
+ *
+ * <p>Offset equations are immutable once they have been created.
  */
 public class OffsetEquation {
+    /** Must be initialized before the constants below, which use it. */
+    private static final String[] NO_TERMS = new String[0];
+
+    /** The coefficients of an equation without terms. */
+    private static final int[] NO_COEFFICIENTS = new int[0];
+
     public static final OffsetEquation ZERO = createOffsetForInt(0);
     public static final OffsetEquation NEG_1 = createOffsetForInt(-1);
     public static final OffsetEquation ONE = createOffsetForInt(1);
 
-    private final List<String> addedTerms;
-    private final List<String> subtractedTerms;
+    /** Size of the cache of parsed equations. */
+    private static final int PARSED_EQUATION_CACHE_SIZE = 500;
+
+    /** Equations created by {@link #createOffsetFromJavaExpression}, keyed by their expression. */
+    private static final Map<String, OffsetEquation> parsedEquations =
+            Collections.synchronizedMap(
+                    CollectionUtils.<String, OffsetEquation>createLRUCache(
+                            PARSED_EQUATION_CACHE_SIZE));
+
+    /** The distinct terms, in ascending order. Never modified; replaced instead. */
+    private String[] terms;
+    /** The coefficient of each term in {@link #terms}. Never modified; replaced instead. */
+    private int[] coefficients;
+
     private int intValue = 0;
     private String error = null;
 
+    /** The result of {@link #toString}, or null if it has not been computed. */
+    private String string = null;
+
     private OffsetEquation() {
-        addedTerms = new ArrayList<>();
-        subtractedTerms = new ArrayList<>();
+        terms = NO_TERMS;
+        coefficients = NO_COEFFICIENTS;
     }
 
     private OffsetEquation(OffsetEquation other) {
-        this.addedTerms = new ArrayList<>(other.addedTerms);
-        this.subtractedTerms = new ArrayList<>(other.subtractedTerms);
+        this.terms = other.terms;
+        this.coefficients = other.coefficients;
         this.error = other.error;
         this.intValue = other.intValue;
     }
@@ -66,26 +95,16 @@ public class OffsetEquation {
 
         OffsetEquation that = (OffsetEquation) o;
 
-        if (intValue != that.intValue) {
-            return false;
-        }
-        if (addedTerms.size() != that.addedTerms.size()
-                || !addedTerms.containsAll(that.addedTerms)
-                || !that.addedTerms.containsAll(addedTerms)) {
-            return false;
-        }
-        if (subtractedTerms.size() != that.subtractedTerms.size()
-                || !subtractedTerms.containsAll(that.subtractedTerms)
-                || !that.subtractedTerms.containsAll(subtractedTerms)) {
-            return false;
-        }
-        return error != null ? error.equals(that.error) : that.error == null;
+        return intValue == that.intValue
+                && Arrays.equals(terms, that.terms)
+                && Arrays.equals(coefficients, that.coefficients)
+                && Objects.equals(error, that.error);
     }
 
     @Override
     public int hashCode() {
-        int result = addedTerms.hashCode();
-        result = 31 * result + subtractedTerms.hashCode();
+        int result = Arrays.hashCode(terms);
+        result = 31 * result + Arrays.hashCode(coefficients);
         result = 31 * result + intValue;
         result = 31 * result + Objects.hashCode(error);
         return result;
@@ -93,13 +112,25 @@ public class OffsetEquation {
 
     @Override
     public String toString() {
-        if (addedTerms.isEmpty() && subtractedTerms.isEmpty()) {
+        if (string == null) {
+            string = computeString();
+        }
+        return string;
+    }
+
+    private String computeString() {
+        if (isInt()) {
             return String.valueOf(intValue);
         }
-        List<String> sortedAdds = new ArrayList<>(addedTerms);
+        List<String> sortedAdds = new ArrayList<>();
+        List<String> sortedSubs = new ArrayList<>();
+        for (int i = 0; i < terms.length; i++) {
+            List<String> sorted = coefficients[i] > 0 ? sortedAdds : sortedSubs;
+            for (int j = Math.abs(coefficients[i]); j > 0; j--) {
+                sorted.add(terms[i]);
+            }
+        }
         Collections.sort(sortedAdds);
-
-        List<String> sortedSubs = new ArrayList<>(subtractedTerms);
         Collections.sort(sortedSubs);
 
         String adds = PluginUtil.join(" + ", sortedAdds);
@@ -135,18 +166,25 @@ public class OffsetEquation {
         boolean simplified = false;
         for (String sequence : sequences) {
             String arrayLen = sequence + ".length";
-            if (addedTerms.contains(arrayLen)) {
-                copy.addedTerms.remove(arrayLen);
+            if (isAddedTerm(arrayLen)) {
+                copy.addTerm(arrayLen, -1);
                 simplified = true;
             }
             String stringLen = sequence + ".length()";
-            if (addedTerms.contains(stringLen)) {
-                copy.addedTerms.remove(stringLen);
+            if (isAddedTerm(stringLen)) {
+                copy.addTerm(stringLen, -1);
                 simplified = true;
             }
         }
         return simplified ? copy : null;
     }
+
+    /** Returns true if the given term is an added term. */
+    private boolean isAddedTerm(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 && coefficients[index] > 0;
+    }
+
     /**
      * Adds or subtracts the other equation to a copy of this one.
      *
@@ -169,21 +207,15 @@ public class OffsetEquation {
 
     private void plus(OffsetEquation eq) {
         addInt(eq.intValue);
-        for (String term : eq.addedTerms) {
-            addTerm('+', term);
-        }
-        for (String term : eq.subtractedTerms) {
-            addTerm('-', term);
+        for (int i = 0; i < eq.terms.length; i++) {
+            addTerm(eq.terms[i], eq.coefficients[i]);
         }
     }
 
     private void minus(OffsetEquation eq) {
         addInt(-1 * eq.intValue);
-        for (String term : eq.addedTerms) {
-            addTerm('-', term);
-        }
-        for (String term : eq.subtractedTerms) {
-            addTerm('+', term);
+        for (int i = 0; i < eq.terms.length; i++) {
+            addTerm(eq.terms[i], -eq.coefficients[i]);
         }
     }
 
@@ -203,7 +235,7 @@ public class OffsetEquation {
      * @return true if this equation is a single int value
      */
     public boolean isInt() {
-        return addedTerms.isEmpty() && subtractedTerms.isEmpty();
+        return terms.length == 0;
     }
 
     /**
@@ -246,35 +278,29 @@ public class OffsetEquation {
     }
 
     /**
-     * Standardizes and viewpoint-adapts the string terms based us the supplied context.
+     * Returns a copy of this equation whose string terms are standardized and viewpoint-adapted
+     * based on the supplied context.
      *
      * @param context FlowExpressionContext
      * @param scope local scope
      * @param useLocalScope whether or not local scope is used
+     * @return a copy of this equation with standardized terms
      * @throws FlowExpressionParseException if any term isn't able to be parsed this exception is
-     *     thrown. If this happens, no string terms are changed.
+     *     thrown
      */
-    public void standardizeAndViewpointAdaptExpressions(
+    public OffsetEquation standardizeAndViewpointAdaptExpressions(
             FlowExpressionContext context, TreePath scope, boolean useLocalScope)
             throws FlowExpressionParseException {
-        List<String> newAddterms = new ArrayList<>();
-        for (String term : addedTerms) {
-            String standardizedTerm =
-                    FlowExpressionParseUtil.parse(term, context, scope, useLocalScope).toString();
-            newAddterms.add(standardizedTerm);
-        }
-
-        List<String> newSubTerms = new ArrayList<>();
-        for (String term : subtractedTerms) {
+        OffsetEquation result = new OffsetEquation();
+        result.intValue = intValue;
+        result.error = error;
+        for (int i = 0; i < terms.length; i++) {
             String standardizedTerm =
-                    FlowExpressionParseUtil.parse(term, context, scope, useLocalScope).toString();
-            newSubTerms.add(standardizedTerm);
+                    FlowExpressionParseUtil.parse(terms[i], context, scope, useLocalScope)
+                            .toString();
+            result.addTerm(standardizedTerm, coefficients[i]);
         }
-
-        addedTerms.clear();
-        addedTerms.addAll(newAddterms);
-        subtractedTerms.clear();
-        subtractedTerms.addAll(newSubTerms);
+        return result;
     }
 
     /**
@@ -286,31 +312,65 @@ public class OffsetEquation {
      * @param term an int value or Java expression to add to this equation
      */
     private void addTerm(char operator, String term) {
+        assert operator == '-' || operator == '+';
         term = term.trim();
         if (isInt(term)) {
             int literal = parseInt(term);
             addInt(operator == '-' ? -1 * literal : literal);
             return;
         }
-        if (operator == '-') {
-            if (addedTerms.contains(term)) {
-                addedTerms.remove(term);
-            } else {
-                subtractedTerms.add(term);
-            }
-        } else if (operator == '+') {
-            if (subtractedTerms.contains(term)) {
-                subtractedTerms.remove(term);
+        addTerm(term, operator == '-' ? -1 : 1);
+    }
+
+    /**
+     * Adds {@code coefficient} times {@code term} to this equation. A term whose coefficient
+     * becomes zero is removed, so that a term that is added and subtracted cancels.
+     *
+     * @param term a Java expression
+     * @param coefficient non-zero number of times to add the term
+     */
+    private void addTerm(String term, int coefficient) {
+        int index = Arrays.binarySearch(terms, term);
+        if (index >= 0) {
+            int newCoefficient = coefficients[index] + coefficient;
+            if (newCoefficient == 0) {
+                String[] newTerms = new String[terms.length - 1];
+                int[] newCoefficients = new int[terms.length - 1];
+                System.arraycopy(terms, 0, newTerms, 0, index);
+                System.arraycopy(coefficients, 0, newCoefficients, 0, index);
+                System.arraycopy(terms, index + 1, newTerms, index, newTerms.length - index);
+                System.arraycopy(
+                        coefficients, index + 1, newCoefficients, index, newTerms.length - index);
+                terms = newTerms;
+                coefficients = newCoefficients;
             } else {
-                addedTerms.add(term);
+                coefficients = coefficients.clone();
+                coefficients[index] = newCoefficient;
             }
         } else {
-            assert false;
+            int insertion = -index - 1;
+            String[] newTerms = new String[terms.length + 1];
+            int[] newCoefficients = new int[terms.length + 1];
+            System.arraycopy(terms, 0, newTerms, 0, insertion);
+            System.arraycopy(coefficients, 0, newCoefficients, 0, insertion);
+            newTerms[insertion] = term;
+            newCoefficients[insertion] = coefficient;
+            System.arraycopy(terms, insertion, newTerms, insertion + 1, terms.length - insertion);
+            System.arraycopy(
+                    coefficients,
+                    insertion,
+                    newCoefficients,
+                    insertion + 1,
+                    terms.length - insertion);
+            terms = newTerms;
+            coefficients = newCoefficients;
         }
+        string = null;
     }
 
     private void addInt(int value) {
         intValue += value;
+        string = null;
     }
 
     /**
@@ -349,6 +409,15 @@ public class OffsetEquation {
      * @return an offset equation created form expressionEquation
      */
     public static OffsetEquation createOffsetFromJavaExpression(String expressionEquation) {
+        OffsetEquation equation = parsedEquations.get(expressionEquation);
+        if (equation == null) {
+            equation = parseJavaExpression(expressionEquation);
+            parsedEquations.put(expressionEquation, equation);
+        }
+        return equation;
+    }
+
+    private static OffsetEquation parseJavaExpression(String expressionEquation) {
         expressionEquation = expressionEquation.trim();
         OffsetEquation equation = new OffsetEquation();
         if (expressionEquation.isEmpty()) {
@@ -389,8 +458,22 @@ public class OffsetEquation {
         return equation;
     }
 
+    /** Returns true if string is empty or matches {@code [-+]?[0-9]+}. */
     private static boolean isInt(String string) {
-        return string.isEmpty() || string.matches("[-+]?[0-9]+");
+        int start = 0;
+        if (!string.isEmpty() && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            if (string.length() == 1) {
+                return false;
+            }
+            start = 1;
+        }
+        for (int i = start; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static int parseInt(String intLiteral) {
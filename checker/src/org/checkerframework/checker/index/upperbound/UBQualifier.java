@@ -219,6 +219,10 @@ public abstract class UBQualifier {
     }
 
     public static class LessThanLengthOf extends UBQualifier {
+        /**
+         * The offsets for each sequence. The sequences are standardized Java expression strings,
+         * which cache their hash codes, so lookups do not parse or build strings.
+         */
         private final Map<String, Set<OffsetEquation>> map;
 
         private LessThanLengthOf(Map<String, Set<OffsetEquation>> map) {
@@ -608,6 +612,8 @@ public abstract class UBQualifier {
                 if (glb == null) {
                     glb = otherglb;
                 } else if (otherglb != null) {
+                    // Don't modify the offsets of this qualifier.
+                    glb = new HashSet<>(glb);
                     glb.addAll(otherglb);
                 }
                 glbMap.put(sequence, simplifyOffsets(glb));
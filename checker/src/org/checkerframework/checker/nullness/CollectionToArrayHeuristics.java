@@ -5,14 +5,15 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.NewArrayTree;
 import com.sun.source.tree.Tree;
 import java.util.Collection;
+import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.TypeKind;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.framework.util.AnnotatedTypes;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -54,24 +55,32 @@ import org.checkerframework.javacutil.TreeUtils;
  * Note: The nullness of the returned array doesn't depend on the passed array nullness.
  */
 public class CollectionToArrayHeuristics {
-    private final ProcessingEnvironment processingEnv;
     private final NullnessAnnotatedTypeFactory atypeFactory;
 
-    private final ExecutableElement collectionToArrayObject;
-    private final ExecutableElement collectionToArrayE;
-    private final ExecutableElement size;
+    /** The methods of {@link Collection} that the heuristics recognize. */
+    private enum Role {
+        /** {@link Collection#toArray()} */
+        TO_ARRAY_OBJECT,
+        /** {@link Collection#toArray(Object[]) Collection.toArray(T[])} */
+        TO_ARRAY_E,
+        /** {@link Collection#size()} */
+        SIZE
+    }
+
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
+
     private final AnnotatedDeclaredType collectionType;
 
     public CollectionToArrayHeuristics(
             ProcessingEnvironment env, NullnessAnnotatedTypeFactory factory) {
-        this.processingEnv = env;
         this.atypeFactory = factory;
 
-        this.collectionToArrayObject =
-                TreeUtils.getMethod(java.util.Collection.class.getName(), "toArray", 0, env);
-        this.collectionToArrayE =
-                TreeUtils.getMethod(java.util.Collection.class.getName(), "toArray", 1, env);
-        this.size = TreeUtils.getMethod(java.util.Collection.class.getName(), "size", 0, env);
+        String collection = java.util.Collection.class.getName();
+        this.methods = new MethodRoleIndex<>(Role.class, env);
+        methods.add(Role.TO_ARRAY_OBJECT, TreeUtils.getMethod(collection, "toArray", 0, env));
+        methods.add(Role.TO_ARRAY_E, TreeUtils.getMethod(collection, "toArray", 1, env));
+        methods.add(Role.SIZE, TreeUtils.getMethod(collection, "size", 0, env));
         this.collectionType =
                 factory.fromElement(env.getElementUtils().getTypeElement("java.util.Collection"));
     }
@@ -87,11 +96,12 @@ public class CollectionToArrayHeuristics {
      * @param method invoked method type
      */
     public void handle(MethodInvocationTree tree, AnnotatedExecutableType method) {
-        if (TreeUtils.isMethodInvocation(tree, collectionToArrayObject, processingEnv)) {
+        Set<Role> roles = methods.getRoles(tree);
+        if (roles.contains(Role.TO_ARRAY_OBJECT)) {
             // simple case of collection.toArray()
             boolean receiver = isNonNullReceiver(tree);
             setComponentNullness(receiver, method.getReturnType());
-        } else if (TreeUtils.isMethodInvocation(tree, collectionToArrayE, processingEnv)) {
+        } else if (roles.contains(Role.TO_ARRAY_E)) {
             assert !tree.getArguments().isEmpty() : tree;
             Tree argument = tree.getArguments().get(0);
             boolean isArrayCreation =
@@ -149,7 +159,7 @@ public class CollectionToArrayHeuristics {
         }
 
         // case 3: size()-length array creation
-        if (TreeUtils.isMethodInvocation(dimension, size, processingEnv)) {
+        if (methods.isInvocation(dimension, Role.SIZE)) {
             MethodInvocationTree invok = (MethodInvocationTree) dimension;
             String invokReceiver = receiver(invok.getMethodSelect());
             return invokReceiver.equals(receiver);
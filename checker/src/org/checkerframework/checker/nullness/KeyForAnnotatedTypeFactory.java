@@ -228,9 +228,8 @@ public class KeyForAnnotatedTypeFactory
     }
 
     protected boolean isInvocationOfMapMethod(MethodInvocationNode n, String methodName) {
-        String invokedMethod = getMethodName(n);
         // First verify if the method name is correct. This is an inexpensive check.
-        if (invokedMethod.equals(methodName)) {
+        if (n.getTarget().getMethod().getSimpleName().contentEquals(methodName)) {
             // Now verify that the receiver of the method invocation is of a type
             // that extends that java.util.Map interface. This is a more expensive check.
             TypeMirror receiverType = types.erasure(n.getTarget().getReceiver().getType());
@@ -241,12 +240,4 @@ public class KeyForAnnotatedTypeFactory
         }
         return false;
     }
-
-    protected String getMethodName(MethodInvocationNode n) {
-        String invokedMethod = n.getTarget().getMethod().toString();
-        int index = invokedMethod.indexOf("(");
-        assert index != -1 : this.getClass() + ": expected method name to contain (";
-        invokedMethod = invokedMethod.substring(0, index);
-        return invokedMethod;
-    }
 }
@@ -1,16 +1,16 @@
 package org.checkerframework.checker.nullness;
 
 import com.sun.source.tree.ExpressionTree;
-import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.VariableTree;
-import javax.lang.model.element.ExecutableElement;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.type.TypeKind;
 import org.checkerframework.checker.nullness.KeyForPropagator.PropagationDirection;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -47,27 +47,29 @@ import org.checkerframework.javacutil.TreeUtils;
  */
 public class KeyForPropagationTreeAnnotator extends TreeAnnotator {
     private final KeyForPropagator keyForPropagator;
-    private final ExecutableElement keySetMethod;
+
+    /** The methods that the annotator recognizes. */
+    private enum Role {
+        /** {@code Map.keySet()} */
+        KEY_SET
+    }
+
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
 
     public KeyForPropagationTreeAnnotator(
             AnnotatedTypeFactory atypeFactory, KeyForPropagator propagationTreeAnnotator) {
         super(atypeFactory);
         this.keyForPropagator = propagationTreeAnnotator;
-        keySetMethod =
-                TreeUtils.getMethod(
-                        java.util.Map.class.getName(),
-                        "keySet",
-                        0,
-                        atypeFactory.getProcessingEnv());
+        ProcessingEnvironment env = atypeFactory.getProcessingEnv();
+        methods = new MethodRoleIndex<>(Role.class, env);
+        methods.add(
+                Role.KEY_SET, TreeUtils.getMethod(java.util.Map.class.getName(), "keySet", 0, env));
     }
 
     /** @return true iff expression is a call to java.util.Map.KeySet */
     public boolean isCallToKeyset(ExpressionTree expression) {
-        if (expression instanceof MethodInvocationTree) {
-            return TreeUtils.isMethodInvocation(
-                    expression, keySetMethod, atypeFactory.getProcessingEnv());
-        }
-        return false;
+        return methods.isInvocation(expression, Role.KEY_SET);
     }
 
     /**
@@ -45,6 +45,10 @@ public class KeyForPropagator {
     // (i.e. not TypeVars, Wildcards, Intersections, or Unions).
     private final AnnotationMirror UNKNOWN_KEYFOR;
 
+    // The merger used by propagate, created on first use and reused for all propagations, so that
+    // its bookkeeping of visited types is not allocated anew each time.
+    private KeyForPropagationMerger merger;
+
     public KeyForPropagator(AnnotationMirror unknownKeyfor) {
         this.UNKNOWN_KEYFOR = unknownKeyfor;
     }
@@ -105,8 +109,9 @@ public class KeyForPropagator {
         Set<Pair<Integer, Integer>> typeParamMappings =
                 TypeArgumentMapper.mapTypeArgumentIndices(subtypeElement, supertypeElement, types);
 
-        KeyForPropagationMerger merger =
-                new KeyForPropagationMerger(typeFactory.getProcessingEnv());
+        if (merger == null) {
+            merger = new KeyForPropagationMerger(typeFactory.getProcessingEnv());
+        }
 
         final List<AnnotatedTypeMirror> subtypeArgs = subtype.getTypeArguments();
         final List<AnnotatedTypeMirror> supertypeArgs = supertype.getTypeArguments();
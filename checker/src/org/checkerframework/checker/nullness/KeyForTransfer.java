@@ -58,7 +58,7 @@ public class KeyForTransfer extends CFAbstractTransfer<KeyForValue, KeyForStore,
 
             AnnotationMirror am = factory.createKeyForAnnotationMirrorWithValue(keyForMaps);
 
-            if (factory.getMethodName(node).equals("containsKey")) {
+            if (node.getTarget().getMethod().getSimpleName().contentEquals("containsKey")) {
                 result.getThenStore().insertValue(keyReceiver, am);
             } else { // method name is "put"
                 result.getThenStore().insertValue(keyReceiver, am);
@@ -32,7 +32,6 @@ import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
-import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
 import org.checkerframework.checker.initialization.InitializationVisitor;
@@ -48,6 +47,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedPrimitiv
 import org.checkerframework.framework.util.QualifierPolymorphism;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypesUtils;
 
@@ -72,11 +72,16 @@ public class NullnessVisitor
     private final AnnotationMirror NONNULL, NULLABLE, MONOTONIC_NONNULL;
     private final TypeMirror stringType;
 
-    /** The element for java.util.Collection.size(). */
-    private final ExecutableElement collectionSize;
+    /** The methods of {@link java.util.Collection} recognized by {@link #isNewArrayInToArray}. */
+    private enum Role {
+        /** {@code Collection.size()} */
+        SIZE,
+        /** {@code Collection.toArray(T[])} */
+        TO_ARRAY
+    }
 
-    /** The element for java.util.Collection.toArray(T). */
-    private final ExecutableElement collectionToArray;
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
 
     public NullnessVisitor(BaseTypeChecker checker, boolean useFbc) {
         super(checker);
@@ -87,10 +92,10 @@ public class NullnessVisitor
         stringType = elements.getTypeElement("java.lang.String").asType();
 
         ProcessingEnvironment env = checker.getProcessingEnvironment();
-        this.collectionSize =
-                TreeUtils.getMethod(java.util.Collection.class.getName(), "size", 0, env);
-        this.collectionToArray =
-                TreeUtils.getMethod(java.util.Collection.class.getName(), "toArray", 1, env);
+        String collection = java.util.Collection.class.getName();
+        this.methods = new MethodRoleIndex<>(Role.class, env);
+        methods.add(Role.SIZE, TreeUtils.getMethod(collection, "size", 0, env));
+        methods.add(Role.TO_ARRAY, TreeUtils.getMethod(collection, "toArray", 1, env));
 
         checkForAnnotatedJdk();
     }
@@ -291,9 +296,8 @@ public class NullnessVisitor
         }
 
         ExpressionTree dim = node.getDimensions().get(0);
-        ProcessingEnvironment env = checker.getProcessingEnvironment();
 
-        if (!TreeUtils.isMethodInvocation(dim, collectionSize, env)) {
+        if (!methods.isInvocation(dim, Role.SIZE)) {
             return false;
         }
 
@@ -308,7 +312,7 @@ public class NullnessVisitor
 
         Tree encl = getCurrentPath().getParentPath().getLeaf();
 
-        if (!TreeUtils.isMethodInvocation(encl, collectionToArray, env)) {
+        if (!methods.isInvocation(encl, Role.TO_ARRAY)) {
             return false;
         }
 
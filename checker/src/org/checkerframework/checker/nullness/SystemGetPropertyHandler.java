@@ -12,6 +12,7 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.ExecutableElement;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -29,6 +30,15 @@ public class SystemGetPropertyHandler {
 
     protected final ExecutableElement systemGetProperty;
 
+    /** The methods that the handler recognizes. */
+    private enum Role {
+        /** {@code System.getProperty(String)} */
+        SYSTEM_GET_PROPERTY
+    }
+
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
+
     // This list is from the Javadoc of System.getProperties.
     Collection<String> systemProperties =
             new HashSet<>(
@@ -69,10 +79,12 @@ public class SystemGetPropertyHandler {
 
         systemGetProperty =
                 TreeUtils.getMethod(java.lang.System.class.getName(), "getProperty", 1, env);
+        methods = new MethodRoleIndex<>(Role.class, env);
+        methods.add(Role.SYSTEM_GET_PROPERTY, systemGetProperty);
     }
 
     public void handle(MethodInvocationTree tree, AnnotatedExecutableType method) {
-        if (TreeUtils.isMethodInvocation(tree, systemGetProperty, env)) {
+        if (methods.isInvocation(tree, Role.SYSTEM_GET_PROPERTY)) {
             List<? extends ExpressionTree> args = tree.getArguments();
             assert args.size() == 1;
             ExpressionTree arg = args.get(0);
@@ -7,6 +7,9 @@ import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -20,7 +23,6 @@ import org.checkerframework.checker.regex.qual.RegexBottom;
 import org.checkerframework.checker.regex.qual.UnknownRegex;
 import org.checkerframework.common.basetype.BaseAnnotatedTypeFactory;
 import org.checkerframework.common.basetype.BaseTypeChecker;
-import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.framework.flow.CFAbstractAnalysis;
 import org.checkerframework.framework.flow.CFAnalysis;
 import org.checkerframework.framework.flow.CFStore;
@@ -40,6 +42,8 @@ import org.checkerframework.framework.util.GraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -73,12 +77,18 @@ import org.checkerframework.javacutil.TreeUtils;
  */
 public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
+    /** The methods that the factory handles specially. */
+    private enum Role {
+        /** {@code Pattern.compile(String)} */
+        PATTERN_COMPILE
+    }
+
     /**
-     * The Pattern.compile method.
+     * The roles of invoked methods.
      *
      * @see java.util.regex.Pattern#compile(String)
      */
-    private final ExecutableElement patternCompile;
+    private final MethodRoleIndex<Role> methods;
 
     /**
      * The value method of the PartialRegex qualifier.
@@ -104,14 +114,37 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     protected final AnnotationMirror REGEX, REGEXBOTTOM, PARTIALREGEX, POLYREGEX;
     protected final ExecutableElement regexValueElement;
 
+    /** The number of Strings whose group count is kept in {@link #groupCountCache}. */
+    private static final int GROUP_COUNT_CACHE_SIZE = 500;
+
+    /** Value stored in {@link #groupCountCache} for a String that is not a regex. */
+    private static final int NOT_A_REGEX = -1;
+
+    /**
+     * Maps a String to its number of groups, or to {@link #NOT_A_REGEX} if it is not a valid
+     * regular expression. The result depends only on the String, so the cache is shared by every
+     * factory in the JVM; it avoids compiling the same literal over and over.
+     */
+    private static final Map<String, Integer> groupCountCache =
+            Collections.synchronizedMap(
+                    CollectionUtils.<String, Integer>createLRUCache(GROUP_COUNT_CACHE_SIZE));
+
+    /**
+     * Maps a group count to the corresponding {@code @Regex} annotation. Annotations are immutable,
+     * so the same instance is handed out to the tree annotator and to {@link RegexTransfer}.
+     */
+    private final Map<Integer, AnnotationMirror> regexAnnotations = new HashMap<>();
+
     // TODO use? private TypeMirror[] legalReferenceTypes;
 
     public RegexAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
 
-        patternCompile =
+        methods = new MethodRoleIndex<>(Role.class, processingEnv);
+        methods.add(
+                Role.PATTERN_COMPILE,
                 TreeUtils.getMethod(
-                        java.util.regex.Pattern.class.getName(), "compile", 1, processingEnv);
+                        java.util.regex.Pattern.class.getName(), "compile", 1, processingEnv));
         partialRegexValue =
                 TreeUtils.getMethod(
                         org.checkerframework.checker.regex.qual.PartialRegex.class.getName(),
@@ -159,11 +192,16 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     /** Returns a new Regex annotation with the given group count. */
     /*package-scope*/ AnnotationMirror createRegexAnnotation(int groupCount) {
-        AnnotationBuilder builder = new AnnotationBuilder(processingEnv, Regex.class);
-        if (groupCount > 0) {
-            builder.setValue("value", groupCount);
+        AnnotationMirror result = regexAnnotations.get(groupCount);
+        if (result == null) {
+            AnnotationBuilder builder = new AnnotationBuilder(processingEnv, Regex.class);
+            if (groupCount > 0) {
+                builder.setValue("value", groupCount);
+            }
+            result = builder.build();
+            regexAnnotations.put(groupCount, result);
         }
-        return builder.build();
+        return result;
     }
 
     @Override
@@ -233,22 +271,33 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     /** Returns the number of groups in the given regex String. */
     public static int getGroupCount(@Regex String regex) {
-        return Pattern.compile(regex).matcher("").groupCount();
+        int groupCount = getCachedGroupCount(regex);
+        if (groupCount == NOT_A_REGEX) {
+            // Throw the same PatternSyntaxException as before caching was introduced.
+            Pattern.compile(regex);
+        }
+        return groupCount;
     }
 
     /**
-     * This method is a copy of RegexUtil.isRegex. We cannot directly use RegexUtil, because it uses
-     * type annotations which cannot be used in IDEs (yet).
+     * Returns the number of groups in the given String, or {@link #NOT_A_REGEX} if it is not a
+     * valid regular expression. Each distinct String is compiled at most once while it stays in
+     * {@link #groupCountCache}.
+     *
+     * <p>This method replaces a copy of RegexUtil.isRegex. We cannot directly use RegexUtil,
+     * because it uses type annotations which cannot be used in IDEs (yet).
      */
-    @SuppressWarnings("purity") // the checker cannot prove that the method is pure, but it is
-    @Pure
-    private static boolean isRegex(String s) {
-        try {
-            Pattern.compile(s);
-        } catch (PatternSyntaxException e) {
-            return false;
+    private static int getCachedGroupCount(String s) {
+        Integer groupCount = groupCountCache.get(s);
+        if (groupCount == null) {
+            try {
+                groupCount = Pattern.compile(s).matcher("").groupCount();
+            } catch (PatternSyntaxException e) {
+                groupCount = NOT_A_REGEX;
+            }
+            groupCountCache.put(s, groupCount);
         }
-        return true;
+        return groupCount;
     }
 
     @Override
@@ -295,8 +344,8 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     regex = Character.toString((Character) tree.getValue());
                 }
                 if (regex != null) {
-                    if (isRegex(regex)) {
-                        int groupCount = getGroupCount(regex);
+                    int groupCount = getCachedGroupCount(regex);
+                    if (groupCount != NOT_A_REGEX) {
                         type.addAnnotation(createRegexAnnotation(groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(regex));
@@ -338,8 +387,8 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     String lRegex = getPartialRegexValue(lExpr);
                     String rRegex = getPartialRegexValue(rExpr);
                     String concat = lRegex + rRegex;
-                    if (isRegex(concat)) {
-                        int groupCount = getGroupCount(concat);
+                    int groupCount = getCachedGroupCount(concat);
+                    if (groupCount != NOT_A_REGEX) {
                         type.addAnnotation(createRegexAnnotation(groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(concat));
@@ -385,7 +434,7 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         @Override
         public Void visitMethodInvocation(MethodInvocationTree tree, AnnotatedTypeMirror type) {
             // TODO: Also get this to work with 2 argument Pattern.compile.
-            if (TreeUtils.isMethodInvocation(tree, patternCompile, processingEnv)) {
+            if (methods.isInvocation(tree, Role.PATTERN_COMPILE)) {
                 ExpressionTree arg0 = tree.getArguments().get(0);
 
                 final AnnotatedTypeMirror argType = getAnnotatedType(arg0);
@@ -6,8 +6,8 @@ import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
+import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.VariableElement;
 import org.checkerframework.checker.regex.qual.Regex;
 import org.checkerframework.common.basetype.BaseTypeChecker;
@@ -16,6 +16,7 @@ import org.checkerframework.framework.source.Result;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedPrimitiveType;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -35,23 +36,30 @@ import org.checkerframework.javacutil.TreeUtils;
  */
 public class RegexVisitor extends BaseTypeVisitor<RegexAnnotatedTypeFactory> {
 
-    private final ExecutableElement matchResultEnd;
-    private final ExecutableElement matchResultGroup;
-    private final ExecutableElement matchResultStart;
-    private final ExecutableElement patternCompile;
+    /** The methods whose invocations this visitor checks specially. */
+    private enum Role {
+        /** {@code Pattern.compile(String, int)} */
+        PATTERN_COMPILE,
+        /** {@code MatchResult.end(int)}, {@code group(int)}, and {@code start(int)} */
+        MATCH_RESULT_GROUP
+    }
+
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
+
     private final VariableElement patternLiteral;
 
     public RegexVisitor(BaseTypeChecker checker) {
         super(checker);
         ProcessingEnvironment env = checker.getProcessingEnvironment();
-        this.matchResultEnd =
-                TreeUtils.getMethod(java.util.regex.MatchResult.class.getName(), "end", 1, env);
-        this.matchResultGroup =
-                TreeUtils.getMethod(java.util.regex.MatchResult.class.getName(), "group", 1, env);
-        this.matchResultStart =
-                TreeUtils.getMethod(java.util.regex.MatchResult.class.getName(), "start", 1, env);
-        this.patternCompile =
-                TreeUtils.getMethod(java.util.regex.Pattern.class.getName(), "compile", 2, env);
+        String matchResult = java.util.regex.MatchResult.class.getName();
+        this.methods = new MethodRoleIndex<>(Role.class, env);
+        methods.add(Role.MATCH_RESULT_GROUP, TreeUtils.getMethod(matchResult, "end", 1, env));
+        methods.add(Role.MATCH_RESULT_GROUP, TreeUtils.getMethod(matchResult, "group", 1, env));
+        methods.add(Role.MATCH_RESULT_GROUP, TreeUtils.getMethod(matchResult, "start", 1, env));
+        methods.add(
+                Role.PATTERN_COMPILE,
+                TreeUtils.getMethod(java.util.regex.Pattern.class.getName(), "compile", 2, env));
         this.patternLiteral =
                 TreeUtils.getField(java.util.regex.Pattern.class.getName(), "LITERAL", env);
     }
@@ -62,8 +70,8 @@ public class RegexVisitor extends BaseTypeVisitor<RegexAnnotatedTypeFactory> {
      */
     @Override
     public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
-        ProcessingEnvironment env = checker.getProcessingEnvironment();
-        if (TreeUtils.isMethodInvocation(node, patternCompile, env)) {
+        Set<Role> roles = methods.getRoles(node);
+        if (roles.contains(Role.PATTERN_COMPILE)) {
             ExpressionTree flagParam = node.getArguments().get(1);
             if (flagParam.getKind() == Kind.MEMBER_SELECT) {
                 MemberSelectTree memSelect = (MemberSelectTree) flagParam;
@@ -79,9 +87,7 @@ public class RegexVisitor extends BaseTypeVisitor<RegexAnnotatedTypeFactory> {
                     return r;
                 }
             }
-        } else if (TreeUtils.isMethodInvocation(node, matchResultEnd, env)
-                || TreeUtils.isMethodInvocation(node, matchResultGroup, env)
-                || TreeUtils.isMethodInvocation(node, matchResultStart, env)) {
+        } else if (roles.contains(Role.MATCH_RESULT_GROUP)) {
             /**
              * Case 3: Checks calls to {@code MatchResult.start}, {@code MatchResult.end} and {@code
              * MatchResult.group} to ensure that a valid group number is passed.
@@ -9,7 +9,6 @@ import com.sun.source.tree.Tree;
 import java.lang.annotation.Annotation;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
-import javax.lang.model.element.ExecutableElement;
 import org.checkerframework.checker.signature.qual.BinaryName;
 import org.checkerframework.checker.signature.qual.InternalForm;
 import org.checkerframework.checker.signature.qual.SignatureBottom;
@@ -21,6 +20,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.treeannotator.ListTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 // TODO: Does not yet handle method signature annotations, such as
@@ -32,11 +32,16 @@ public class SignatureAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     protected final AnnotationMirror BINARY_NAME;
     protected final AnnotationMirror INTERNAL_FORM;
 
-    /** The {@link String#replace(char, char)} method. */
-    private final ExecutableElement replaceCharChar;
+    /** The methods that the factory handles specially. */
+    private enum Role {
+        /** The {@link String#replace(char, char)} method. */
+        REPLACE_CHAR_CHAR,
+        /** The {@link String#replace(CharSequence, CharSequence)} method. */
+        REPLACE_CHAR_SEQUENCE_CHAR_SEQUENCE
+    }
 
-    /** The {@link String#replace(CharSequence, CharSequence)} method. */
-    private final ExecutableElement replaceCharSequenceCharSequence;
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
 
     public SignatureAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
@@ -44,16 +49,23 @@ public class SignatureAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         BINARY_NAME = AnnotationBuilder.fromClass(elements, BinaryName.class);
         INTERNAL_FORM = AnnotationBuilder.fromClass(elements, InternalForm.class);
 
-        replaceCharChar =
+        methods = new MethodRoleIndex<>(Role.class, processingEnv);
+        methods.add(
+                Role.REPLACE_CHAR_CHAR,
                 TreeUtils.getMethod(
-                        java.lang.String.class.getName(), "replace", processingEnv, "char", "char");
-        replaceCharSequenceCharSequence =
+                        java.lang.String.class.getName(),
+                        "replace",
+                        processingEnv,
+                        "char",
+                        "char"));
+        methods.add(
+                Role.REPLACE_CHAR_SEQUENCE_CHAR_SEQUENCE,
                 TreeUtils.getMethod(
                         java.lang.String.class.getName(),
                         "replace",
                         processingEnv,
                         "java.lang.CharSequence",
-                        "java.lang.CharSequence");
+                        "java.lang.CharSequence"));
 
         this.postInit();
     }
@@ -105,7 +117,8 @@ public class SignatureAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
          */
         @Override
         public Void visitMethodInvocation(MethodInvocationTree tree, AnnotatedTypeMirror type) {
-            if (TreeUtils.isMethodInvocation(tree, replaceCharChar, processingEnv)) {
+            Set<Role> roles = methods.getRoles(tree);
+            if (roles.contains(Role.REPLACE_CHAR_CHAR)) {
                 ExpressionTree arg0 = tree.getArguments().get(0);
                 ExpressionTree arg1 = tree.getArguments().get(1);
                 if (arg0.getKind() == Tree.Kind.CHAR_LITERAL
@@ -124,8 +137,7 @@ public class SignatureAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                         type.replaceAnnotation(BINARY_NAME);
                     }
                 }
-            } else if (TreeUtils.isMethodInvocation(
-                    tree, replaceCharSequenceCharSequence, processingEnv)) {
+            } else if (roles.contains(Role.REPLACE_CHAR_SEQUENCE_CHAR_SEQUENCE)) {
                 ExpressionTree arg0 = tree.getArguments().get(0);
                 ExpressionTree arg1 = tree.getArguments().get(1);
                 if (arg0.getKind() == Tree.Kind.STRING_LITERAL
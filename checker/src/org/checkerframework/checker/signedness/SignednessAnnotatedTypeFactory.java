@@ -35,6 +35,12 @@ public class SignednessAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     private ValueAnnotatedTypeFactory valueAtypefactory;
 
+    /**
+     * Defaults that apply UnknownSignedness to local variables; created lazily and reused so that
+     * its caches survive between calls of {@link #addUnknownSignednessToSomeLocals}.
+     */
+    private QualifierDefaults unknownSignednessLocalDefaults;
+
     /**
      * Provides a way to query the Constant Value Checker, which computes the values of expressions
      * known at compile time (constant propagation and folding).
@@ -99,9 +105,12 @@ public class SignednessAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             case FLOAT:
             case DOUBLE:
             case CHAR:
-                QualifierDefaults defaults = new QualifierDefaults(elements, this);
-                defaults.addCheckedCodeDefault(UNKNOWN_SIGNEDNESS, TypeUseLocation.LOCAL_VARIABLE);
-                defaults.annotate(tree, type);
+                if (unknownSignednessLocalDefaults == null) {
+                    unknownSignednessLocalDefaults = new QualifierDefaults(elements, this);
+                    unknownSignednessLocalDefaults.addCheckedCodeDefault(
+                            UNKNOWN_SIGNEDNESS, TypeUseLocation.LOCAL_VARIABLE);
+                }
+                unknownSignednessLocalDefaults.annotate(tree, type);
                 break;
             default:
                 // Nothing for other cases.
@@ -0,0 +1,35 @@
+// @SuppressWarnings on a declaration applies to the lambdas in its initializer, including those
+// whose implicitly typed parameter starts at the same position as the lambda.
+
+interface FunctionSW {
+    Object apply(Object o);
+}
+
+interface SupplierSW {
+    FunctionSW get();
+}
+
+class SuppressWarningsLambda {
+
+    @SuppressWarnings("nullness")
+    FunctionSW f1 = x -> null;
+
+    @SuppressWarnings("nullness")
+    FunctionSW f2 =
+            x -> {
+                return null;
+            };
+
+    @SuppressWarnings("nullness")
+    SupplierSW s1 = () -> x -> null;
+
+    // :: error: (return.type.incompatible)
+    FunctionSW f3 = x -> null;
+
+    void method() {
+        @SuppressWarnings("nullness")
+        FunctionSW f4 = x -> null;
+        // :: error: (return.type.incompatible)
+        FunctionSW f5 = x -> null;
+    }
+}
@@ -0,0 +1,154 @@
+package tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.index.IndexChecker;
+import org.checkerframework.framework.flow.SharedCFGCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that sharing control flow graphs between checkers through {@link SharedCFGCache} does not
+ * change what the checkers report.
+ *
+ * <p>The Index Checker runs many subcheckers on every class, so most of its graphs are reused. The
+ * test checks some code once with sharing and once with {@code -AatfDoNotCache}, which makes every
+ * checker build its own graphs, and compares the diagnostics. The code is the Index Checker tests,
+ * the tests for all type systems, and {@link #NESTED_CODE}.
+ */
+public class SharedCFGCacheTest {
+
+    /** The directories of the test files, relative to the checker directory. */
+    private static final String[] TEST_DIRS = {"tests/index", "tests/all-systems"};
+
+    /**
+     * Errors in classes and lambdas declared within methods and initializers, which a checker that
+     * reuses a graph must still find.
+     */
+    private static final String NESTED_CODE =
+            "class NestedCode {\n"
+                    + "    int[] a = new int[3];\n"
+                    + "    {\n"
+                    + "        new Object() {\n"
+                    + "            int f(int i) {\n"
+                    + "                return i > 0 ? a[i - 1] : a[i];\n"
+                    + "            }\n"
+                    + "        };\n"
+                    + "    }\n"
+                    + "    void m(int i) {\n"
+                    + "        Runnable r =\n"
+                    + "                new Runnable() {\n"
+                    + "                    public void run() {\n"
+                    + "                        if (i >= 0) {\n"
+                    + "                            a[i] = 1;\n"
+                    + "                        }\n"
+                    + "                        a[i] = 2;\n"
+                    + "                    }\n"
+                    + "                };\n"
+                    + "        class Local {\n"
+                    + "            int n(int j) {\n"
+                    + "                if (j > 0) {\n"
+                    + "                    return a[j - 1];\n"
+                    + "                }\n"
+                    + "                return a[j];\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        java.util.function.IntUnaryOperator op =\n"
+                    + "                k -> k < 0 ? a[k] : a[k - 1];\n"
+                    + "    }\n"
+                    + "}\n";
+
+    /**
+     * Runs the Index Checker on the files in {@code dir} that are not marked {@code @skip-test},
+     * and returns the sorted diagnostics.
+     */
+    private static List<String> check(String dir, String... extraOptions) throws IOException {
+        File[] files = new File(dir).listFiles();
+        Assert.assertNotNull(dir + " not found", files);
+        List<File> sources = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(".java")
+                    && !new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+                            .contains("@skip-test")) {
+                sources.add(file);
+            }
+        }
+
+        List<String> options = new ArrayList<>();
+        options.addAll(
+                Arrays.asList(
+                        "-proc:only",
+                        "-classpath",
+                        System.getProperty("java.class.path"),
+                        "-processor",
+                        IndexChecker.class.getName(),
+                        "-Anomsgtext",
+                        "-Xmaxerrs",
+                        "100000",
+                        "-Xmaxwarns",
+                        "100000"));
+        options.addAll(Arrays.asList(extraOptions));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            compiler.getTask(
+                            null,
+                            fileManager,
+                            diagnostics,
+                            options,
+                            null,
+                            fileManager.getJavaFileObjectsFromFiles(sources))
+                    .call();
+        } finally {
+            fileManager.close();
+        }
+
+        List<String> result = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            String source =
+                    diagnostic.getSource() == null ? "" : diagnostic.getSource().getName();
+            result.add(
+                    source
+                            + ":"
+                            + diagnostic.getLineNumber()
+                            + ":"
+                            + diagnostic.getColumnNumber()
+                            + ": "
+                            + diagnostic.getKind()
+                            + ": "
+                            + diagnostic.getMessage(null));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void sharingDoesNotChangeDiagnostics() throws IOException {
+        File nestedCodeDir = Files.createTempDirectory("SharedCFGCacheTest").toFile();
+        Files.write(
+                new File(nestedCodeDir, "NestedCode.java").toPath(),
+                NESTED_CODE.getBytes(StandardCharsets.UTF_8));
+        List<String> nestedCodeDiagnostics = check(nestedCodeDir.getPath());
+        Assert.assertFalse(nestedCodeDiagnostics.isEmpty());
+        Assert.assertEquals(
+                check(nestedCodeDir.getPath(), "-AatfDoNotCache"), nestedCodeDiagnostics);
+
+        for (String dir : TEST_DIRS) {
+            Assert.assertEquals(check(dir, "-AatfDoNotCache"), check(dir));
+        }
+    }
+}
@@ -10,10 +10,12 @@ import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
+import com.sun.tools.javac.tree.JCTree;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -24,10 +26,12 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGStatement;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.Kind;
 import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
@@ -86,6 +90,30 @@ public class Analysis<
      */
     protected final int maxCountBeforeWidening;
 
+    /**
+     * Number of transfer function applications after which the analysis exceeds its budget. -1
+     * implies that the number of applications is not limited.
+     */
+    protected int maxTransferApplications = -1;
+
+    /**
+     * Number of milliseconds after which the analysis exceeds its budget. -1 implies that the time
+     * is not limited.
+     */
+    protected long maxAnalysisMillis = -1;
+
+    /** Number of transfer function applications in the current analysis. */
+    protected int transferApplications;
+
+    /** The value of {@link System#nanoTime()} when the current analysis started. */
+    protected long analysisStartTime;
+
+    /**
+     * Has the current analysis exceeded its budget? If so, every store merge either widens or goes
+     * to the top store, see {@link #setBudget}.
+     */
+    protected boolean budgetExceeded;
+
     /**
      * The transfer inputs before every basic block (assumed to be 'no information' if not present).
      */
@@ -158,6 +186,50 @@ public class Analysis<
         this.transferFunction = transfer;
     }
 
+    /**
+     * Limit the work of each {@link #performAnalysis} call. Once the analysis has applied the
+     * transfer function {@code maxTransferApplications} times or has run for {@code
+     * maxAnalysisMillis} milliseconds, {@link #reportBudgetExceeded()} is called and the remaining
+     * merges are coarsened so that the analysis finishes soon:
+     *
+     * <ul>
+     *   <li>If the stores widen (that is, {@link #maxCountBeforeWidening} is not -1), every merge
+     *       widens instead of only every {@link #maxCountBeforeWidening} merges.
+     *   <li>Otherwise, every merge results in an upper bound of the {@link #createTopStore top
+     *       store}, which holds no information. Once the store before a block is the top store, it
+     *       no longer changes, so each block is analyzed only a few more times. The results are
+     *       still sound, but less precise after the merges.
+     * </ul>
+     *
+     * @param maxTransferApplications the maximal number of transfer function applications, or -1
+     * @param maxAnalysisMillis the maximal time in milliseconds, or -1
+     */
+    public void setBudget(int maxTransferApplications, long maxAnalysisMillis) {
+        this.maxTransferApplications = maxTransferApplications;
+        this.maxAnalysisMillis = maxAnalysisMillis;
+    }
+
+    /** Has the last (or current) analysis exceeded its budget? See {@link #setBudget}. */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /** Returns the number of transfer function applications of the last (or current) analysis. */
+    public int getTransferApplications() {
+        return transferApplications;
+    }
+
+    /**
+     * Returns a store that holds no information, which is an upper bound of every store of this
+     * analysis, or null if this analysis cannot create one. Used once the analysis has exceeded its
+     * budget, see {@link #setBudget}. If null is returned, stores are merged as usual.
+     *
+     * @return a store that holds no information, or null
+     */
+    protected /*@Nullable*/ S createTopStore() {
+        return null;
+    }
+
     public void setTransferFunction(T transfer) {
         this.transferFunction = transfer;
     }
@@ -184,6 +256,10 @@ public class Analysis<
         init(cfg);
 
         while (!worklist.isEmpty()) {
+            if (!budgetExceeded && checkBudget()) {
+                budgetExceeded = true;
+                reportBudgetExceeded();
+            }
             Block b = worklist.poll();
 
             switch (b.getType()) {
@@ -237,6 +313,10 @@ public class Analysis<
                         }
 
                         // propagate store to exceptional successors
+                        // Usually several causes lead to the same handler (e.g. the
+                        // exceptional exit) without a cause-specific store. The store
+                        // before the node is propagated to such a handler only once.
+                        Set<Block> storeBeforeSuccessors = null;
                         for (Entry<TypeMirror, Set<Block>> e :
                                 eb.getExceptionalSuccessors().entrySet()) {
                             TypeMirror cause = e.getKey();
@@ -251,16 +331,24 @@ public class Analysis<
                                             addToWorklistAgain);
                                 }
                             } else {
+                                if (storeBeforeSuccessors == null) {
+                                    storeBeforeSuccessors = new LinkedHashSet<>();
+                                }
                                 for (Block exceptionSucc : e.getValue()) {
-                                    addStoreBefore(
-                                            exceptionSucc,
-                                            node,
-                                            inputBefore.copy().getRegularStore(),
-                                            Store.Kind.BOTH,
-                                            addToWorklistAgain);
+                                    storeBeforeSuccessors.add(exceptionSucc);
                                 }
                             }
                         }
+                        if (storeBeforeSuccessors != null) {
+                            for (Block exceptionSucc : storeBeforeSuccessors) {
+                                addStoreBefore(
+                                        exceptionSucc,
+                                        node,
+                                        inputBefore.copy().getRegularStore(),
+                                        Store.Kind.BOTH,
+                                        addToWorklistAgain);
+                            }
+                        }
                         break;
                     }
 
@@ -304,6 +392,60 @@ public class Analysis<
         isRunning = false;
     }
 
+    /** Returns true if the current analysis has used up its budget, see {@link #setBudget}. */
+    protected boolean checkBudget() {
+        if (maxTransferApplications != -1 && transferApplications > maxTransferApplications) {
+            return true;
+        }
+        return maxAnalysisMillis != -1 && elapsedMillis() > maxAnalysisMillis;
+    }
+
+    /** Returns the number of milliseconds since the current analysis started. */
+    protected long elapsedMillis() {
+        return (System.nanoTime() - analysisStartTime) / 1000000;
+    }
+
+    /**
+     * Called once when the current analysis exceeds its budget. Issues a note that names the
+     * analyzed code, the size of its control flow graph, and the work done so far.
+     */
+    protected void reportBudgetExceeded() {
+        String msg =
+                String.format(
+                        "dataflow analysis of %s exceeded its budget after %d transfer function"
+                                + " applications in %d ms (%d blocks)",
+                        describe(cfg.getUnderlyingAST()),
+                        transferApplications,
+                        elapsedMillis(),
+                        cfg.getAllBlocks().size());
+        env.getMessager().printMessage(Diagnostic.Kind.NOTE, msg);
+    }
+
+    /** Returns a short description of the code of {@code ast}, for messages. */
+    private static String describe(UnderlyingAST ast) {
+        switch (ast.getKind()) {
+            case METHOD:
+                {
+                    CFGMethod method = (CFGMethod) ast;
+                    return "method "
+                            + method.getClassTree().getSimpleName()
+                            + "."
+                            + method.getMethod().getName();
+                }
+            case LAMBDA:
+                {
+                    CFGLambda lambda = (CFGLambda) ast;
+                    return "lambda at position "
+                            + ((JCTree) lambda.getLambdaTree()).getStartPosition();
+                }
+            default:
+                {
+                    CFGStatement statement = (CFGStatement) ast;
+                    return "initializer of class " + statement.getClassTree().getSimpleName();
+                }
+        }
+    }
+
     /**
      * Propagate the stores in currentInput to the successor block, succ, according to the flowRule.
      */
@@ -402,6 +544,7 @@ public class Analysis<
         }
         store.node = node;
         currentNode = node;
+        transferApplications++;
         TransferResult<A, S> transferResult = node.accept(transferFunction, store);
         currentNode = null;
         if (node instanceof ReturnNode) {
@@ -435,6 +578,9 @@ public class Analysis<
         worklist = new Worklist(cfg);
         nodeValues = new IdentityHashMap<>();
         finalLocalValues = new HashMap<>();
+        transferApplications = 0;
+        analysisStartTime = System.nanoTime();
+        budgetExceeded = false;
         worklist.add(cfg.getEntryBlock());
 
         List<LocalVariableNode> parameters = null;
@@ -492,7 +638,7 @@ public class Analysis<
             if (count == null) {
                 count = 0;
             }
-            shouldWiden = count >= maxCountBeforeWidening;
+            shouldWiden = budgetExceeded || count >= maxCountBeforeWidening;
             if (shouldWiden) {
                 blockCount.put(b, 0);
             } else {
@@ -567,7 +713,15 @@ public class Analysis<
     private S mergeStores(S newStore, S previousStore, boolean shouldWiden) {
         if (previousStore == null) {
             return newStore;
-        } else if (shouldWiden) {
+        }
+        if (budgetExceeded && maxCountBeforeWidening == -1) {
+            // The stores do not widen, so go to the top store to finish the analysis quickly.
+            S topStore = createTopStore();
+            if (topStore != null) {
+                return topStore.leastUpperBound(newStore.leastUpperBound(previousStore));
+            }
+        }
+        if (shouldWiden) {
             return newStore.widenedUpperBound(previousStore);
         } else {
             return newStore.leastUpperBound(previousStore);
@@ -472,7 +472,8 @@ public class CFGBuilder {
         protected Node node;
         /**
          * Map from exception type to labels of successors that may be reached as a result of that
-         * exception.
+         * exception. The map may be shared with other nodes in the same try scope, see {@link
+         * TryStack#possibleExceptions}.
          */
         protected Map<TypeMirror, Set<Label>> exceptions;
 
@@ -724,11 +725,22 @@ public class CFGBuilder {
      * An exception stack represents the set of all try-catch blocks in effect at a given point in a
      * program. It maps an exception type to a set of Labels and it maps a block exit (via return or
      * fall-through) to a single Label.
+     *
+     * <p>Within one try scope, i.e. between two changes of the stack, the labels for a thrown type
+     * and the exception maps for a set of thrown types are computed once and then shared by all
+     * nodes that throw those types.
      */
     protected static class TryStack {
         protected Label exitLabel;
         protected LinkedList<TryFrame> frames;
 
+        /** The results of {@link #possibleLabels} for the current frames. */
+        protected final Map<TypeMirror, Set<Label>> labelsCache = new HashMap<>();
+
+        /** The results of {@link #possibleExceptions} for the current frames. */
+        protected final Map<Set<TypeMirror>, Map<TypeMirror, Set<Label>>> exceptionsCache =
+                new HashMap<>();
+
         public TryStack(Label exitLabel) {
             this.exitLabel = exitLabel;
             this.frames = new LinkedList<>();
@@ -736,17 +748,30 @@ public class CFGBuilder {
 
         public void pushFrame(TryFrame frame) {
             frames.addFirst(frame);
+            labelsCache.clear();
+            exceptionsCache.clear();
         }
 
         public void popFrame() {
             frames.removeFirst();
+            labelsCache.clear();
+            exceptionsCache.clear();
         }
 
         /**
          * Returns the set of possible {@link Label}s where control may transfer when an exception
-         * of the given type is thrown.
+         * of the given type is thrown. The returned set is shared and must not be modified.
          */
         public Set<Label> possibleLabels(TypeMirror thrown) {
+            Set<Label> labels = labelsCache.get(thrown);
+            if (labels == null) {
+                labels = computePossibleLabels(thrown);
+                labelsCache.put(thrown, labels);
+            }
+            return labels;
+        }
+
+        private Set<Label> computePossibleLabels(TypeMirror thrown) {
             // Work up from the innermost frame until the exception is known to
             // be caught.
             Set<Label> labels = new MostlySingleton<>();
@@ -758,6 +783,24 @@ public class CFGBuilder {
             labels.add(exitLabel);
             return labels;
         }
+
+        /**
+         * Returns a map from each of the given exception types to the {@link Label}s where control
+         * may transfer when it is thrown. Nodes that throw the same types within the same try
+         * scope share the returned unmodifiable map.
+         */
+        public Map<TypeMirror, Set<Label>> possibleExceptions(Set<TypeMirror> causes) {
+            Map<TypeMirror, Set<Label>> exceptions = exceptionsCache.get(causes);
+            if (exceptions == null) {
+                exceptions = new HashMap<>(causes.size() * 2);
+                for (TypeMirror cause : causes) {
+                    exceptions.put(cause, possibleLabels(cause));
+                }
+                exceptions = Collections.unmodifiableMap(exceptions);
+                exceptionsCache.put(new HashSet<>(causes), exceptions);
+            }
+            return exceptions;
+        }
     }
 
     /* --------------------------------------------------------- */
@@ -1730,10 +1773,7 @@ public class CFGBuilder {
         protected NodeWithExceptionsHolder extendWithNodeWithExceptions(
                 Node node, Set<TypeMirror> causes) {
             addToLookupMap(node);
-            Map<TypeMirror, Set<Label>> exceptions = new HashMap<>();
-            for (TypeMirror cause : causes) {
-                exceptions.put(cause, tryStack.possibleLabels(cause));
-            }
+            Map<TypeMirror, Set<Label>> exceptions = tryStack.possibleExceptions(causes);
             NodeWithExceptionsHolder exNode = new NodeWithExceptionsHolder(node, exceptions);
             extendWithExtendedNode(exNode);
             return exNode;
@@ -1765,10 +1805,7 @@ public class CFGBuilder {
         protected NodeWithExceptionsHolder insertNodeWithExceptionsAfter(
                 Node node, Set<TypeMirror> causes, Node pred) {
             addToLookupMap(node);
-            Map<TypeMirror, Set<Label>> exceptions = new HashMap<>();
-            for (TypeMirror cause : causes) {
-                exceptions.put(cause, tryStack.possibleLabels(cause));
-            }
+            Map<TypeMirror, Set<Label>> exceptions = tryStack.possibleExceptions(causes);
             NodeWithExceptionsHolder exNode = new NodeWithExceptionsHolder(node, exceptions);
             insertExtendedNodeAfter(exNode, pred);
             return exNode;
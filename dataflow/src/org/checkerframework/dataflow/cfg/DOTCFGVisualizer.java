@@ -25,6 +25,7 @@ import org.checkerframework.dataflow.analysis.FlowExpressions;
 import org.checkerframework.dataflow.analysis.Store;
 import org.checkerframework.dataflow.analysis.TransferFunction;
 import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGStatement;
 import org.checkerframework.dataflow.cfg.block.Block;
@@ -191,27 +192,43 @@ public class DOTCFGVisualizer<
         this.sbDigraph.append("    node [shape=rectangle];\n\n");
         // definition of all nodes including their labels
         for (Block v : visited) {
-            this.sbDigraph.append("    " + v.getId() + " [");
-            if (v.getType() == BlockType.CONDITIONAL_BLOCK) {
-                this.sbDigraph.append("shape=polygon sides=8 ");
-            } else if (v.getType() == BlockType.SPECIAL_BLOCK) {
-                this.sbDigraph.append("shape=oval ");
-            }
-            this.sbDigraph.append("label=\"");
-            if (verbose) {
-                this.sbDigraph.append(
-                        "Process order: "
-                                + processOrder.get(v).toString().replaceAll("[\\[\\]]", "")
-                                + "\\n");
-            }
-            visualizeBlock(v, analysis);
+            generateDotNode(v, processOrder, analysis);
         }
 
         this.sbDigraph.append("\n");
     }
 
+    /** Appends the definition of the node for block {@code v}, including its label. */
+    protected void generateDotNode(
+            Block v,
+            IdentityHashMap<Block, List<Integer>> processOrder,
+            /*@Nullable*/ Analysis<A, S, T> analysis) {
+        this.sbDigraph.append("    " + v.getId() + " [");
+        if (v.getType() == BlockType.CONDITIONAL_BLOCK) {
+            this.sbDigraph.append("shape=polygon sides=8 ");
+        } else if (v.getType() == BlockType.SPECIAL_BLOCK) {
+            this.sbDigraph.append("shape=oval ");
+        }
+        this.sbDigraph.append("label=\"");
+        if (verbose) {
+            this.sbDigraph.append(
+                    "Process order: "
+                            + processOrder.get(v).toString().replaceAll("[\\[\\]]", "")
+                            + "\\n");
+        }
+        visualizeBlock(v, analysis);
+    }
+
     /** @return the file name used for DOT output. */
     protected String dotOutputFileName(UnderlyingAST ast) {
+        return outputFileName(ast, ".dot");
+    }
+
+    /**
+     * Returns the name of the output file for {@code ast} with the given extension, and records it
+     * for the {@code methods.txt} file written by {@link #shutdown}.
+     */
+    protected String outputFileName(UnderlyingAST ast, String extension) {
         StringBuilder srcloc = new StringBuilder();
 
         StringBuilder outfile = new StringBuilder(outdir);
@@ -245,6 +262,15 @@ public class DOTCFGVisualizer<
             srcloc.append(")::");
             srcloc.append(((JCTree) cfgm.getMethod()).pos);
             srcloc.append('>');
+        } else if (ast.getKind() == UnderlyingAST.Kind.LAMBDA) {
+            CFGLambda cfgl = (CFGLambda) ast;
+            long pos = ((JCTree) cfgl.getLambdaTree()).pos;
+            outfile.append("lambda-");
+            outfile.append(pos);
+
+            srcloc.append("<lambda::");
+            srcloc.append(pos);
+            srcloc.append('>');
         } else {
             ErrorReporter.errorAbort(
                     "Unexpected AST kind: " + ast.getKind() + " value: " + ast.toString());
@@ -252,7 +278,7 @@ public class DOTCFGVisualizer<
         }
         outfile.append('-');
         outfile.append(checkerName);
-        outfile.append(".dot");
+        outfile.append(extension);
 
         // make path safe for Windows
         String out = outfile.toString().replace("<", "_").replace(">", "");
@@ -4,21 +4,40 @@ package org.checkerframework.dataflow.cfg;
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
+import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.file.JavacFileManager;
 import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Options;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
 import javax.lang.model.element.ExecutableElement;
 import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
@@ -27,16 +46,27 @@ import org.checkerframework.dataflow.analysis.AbstractValue;
 import org.checkerframework.dataflow.analysis.Analysis;
 import org.checkerframework.dataflow.analysis.Store;
 import org.checkerframework.dataflow.analysis.TransferFunction;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.RegularBlock;
 import org.checkerframework.javacutil.BasicTypeProcessor;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
  * Class to generate the DOT representation of the control flow graph of a given method.
  *
+ * <p>In batch mode ({@code -batch}), the input is a directory whose Java files are compiled
+ * together once, and the graphs of all methods that match a filter are generated. Each graph is
+ * written as soon as it is built, and the sizes of all graphs are written to {@value
+ * #STATISTICS_FILE} in the output directory.
+ *
  * @author Stefan Heule
  */
 public class JavaSource2CFGDOT {
 
+    /** The file, in the output directory, to which batch mode writes the sizes of the graphs. */
+    public static final String STATISTICS_FILE = "cfg-statistics.txt";
+
     /** Main method. */
     public static void main(String[] args) {
         if (args.length < 2) {
@@ -56,10 +86,34 @@ public class JavaSource2CFGDOT {
         String clas = "Test";
         boolean pdf = false;
         boolean error = false;
+        boolean batch = false;
+        String filter = ".*";
+        int threads = Runtime.getRuntime().availableProcessors();
 
         for (int i = 2; i < args.length; i++) {
             if (args[i].equals("-pdf")) {
                 pdf = true;
+            } else if (args[i].equals("-batch")) {
+                batch = true;
+            } else if (args[i].equals("-filter")) {
+                if (i >= args.length - 1) {
+                    printError("Did not find <regex> after -filter.");
+                    continue;
+                }
+                i++;
+                filter = args[i];
+            } else if (args[i].equals("-threads")) {
+                if (i >= args.length - 1) {
+                    printError("Did not find <n> after -threads.");
+                    continue;
+                }
+                i++;
+                try {
+                    threads = Integer.parseInt(args[i]);
+                } catch (NumberFormatException e) {
+                    printError("Not a number of threads: " + args[i]);
+                    error = true;
+                }
             } else if (args[i].equals("-method")) {
                 if (i >= args.length - 1) {
                     printError("Did not find <name> after -method.");
@@ -84,7 +138,18 @@ public class JavaSource2CFGDOT {
             System.exit(1);
         }
 
-        generateDOTofCFG(input, output, method, clas, pdf);
+        if (batch) {
+            Pattern pattern = null;
+            try {
+                pattern = Pattern.compile(filter);
+            } catch (PatternSyntaxException e) {
+                printError("Invalid -filter regular expression: " + e.getMessage());
+                System.exit(1);
+            }
+            generateDOTofCFGs(file, output, pattern, Math.max(threads, 1), pdf);
+        } else {
+            generateDOTofCFG(input, output, method, clas, pdf);
+        }
     }
 
     /** Print an error message. */
@@ -102,6 +167,17 @@ public class JavaSource2CFGDOT {
         System.out.println("    -method: The method to generate the CFG for (defaults to 'test').");
         System.out.println(
                 "    -class:  The class in which to find the method (defaults to 'Test').");
+        System.out.println("Batch mode: <inputdir> <outputdir> -batch [-filter <regex>] [-pdf]");
+        System.out.println("            [-threads <n>]");
+        System.out.println(
+                "    -batch:   Generate the CFGs of all methods of all Java files in <inputdir>,");
+        System.out.println(
+                "              including the methods of local and anonymous classes.");
+        System.out.println(
+                "    -filter:  Only methods whose name or Class.name matches (defaults to all).");
+        System.out.println(
+                "    -threads: The number of threads running 'dot' for -pdf (defaults to the");
+        System.out.println("              number of processors).");
     }
 
     /** Just like method above but without analysis. */
@@ -171,6 +247,267 @@ public class JavaSource2CFGDOT {
         }
     }
 
+    /**
+     * Generate the DOT representation of the CFGs of all methods in the Java files in {@code
+     * inputDir} whose name or qualified name ({@code Class.method}) matches {@code filter}.
+     *
+     * <p>All files are parsed and attributed by a single compiler run, during which the graph of
+     * each method is built and written, one after the other, because the compiler's data
+     * structures that the {@link CFGBuilder} and the visualizer use are not thread-safe. Only the
+     * sizes of the graphs are kept. The output of each method is written to the sub-directory of
+     * {@code outputDir} that corresponds to its package. If the compilation fails, or a graph
+     * cannot be built or written, the error is reported and the program exits.
+     *
+     * @param inputDir directory (or single file) of Java source files
+     * @param outputDir output directory
+     * @param filter selects the methods
+     * @param threads the number of threads that run {@code dot} to generate the PDFs
+     * @param pdf also generate PDFs?
+     */
+    public static void generateDOTofCFGs(
+            File inputDir, String outputDir, Pattern filter, int threads, boolean pdf) {
+        java.util.List<String> files = new ArrayList<>();
+        collectJavaFiles(inputDir, files);
+        if (files.isEmpty()) {
+            printError("No Java files found in: " + inputDir.getAbsolutePath());
+            System.exit(1);
+        }
+        new File(outputDir).mkdirs();
+        System.out.println("Generating the CFGs of the methods in " + files.size() + " files...");
+
+        ExecutorService pdfExecutor = pdf ? Executors.newFixedThreadPool(threads) : null;
+        BatchProcessor typeProcessor = new BatchProcessor(filter, outputDir, pdfExecutor);
+        try {
+            compile(files, typeProcessor);
+            for (Future<?> pdfResult : typeProcessor.pdfResults) {
+                pdfResult.get();
+            }
+            writeStatistics(outputDir, typeProcessor.statistics);
+        } catch (InterruptedException | ExecutionException e) {
+            printError("Generating the CFGs failed: " + e);
+            System.exit(1);
+        } finally {
+            if (pdfExecutor != null) {
+                pdfExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /** Adds the Java files in {@code file}, a file or a directory, to {@code result}. */
+    private static void collectJavaFiles(File file, java.util.List<String> result) {
+        if (file.isDirectory()) {
+            File[] contents = file.listFiles();
+            if (contents != null) {
+                Arrays.sort(contents);
+                for (File f : contents) {
+                    collectJavaFiles(f, result);
+                }
+            }
+        } else if (file.getName().endsWith(".java")) {
+            result.add(file.getPath());
+        }
+    }
+
+    /** Returns the sub-directory of {@code outputDir} for the package of {@code root}. */
+    private static String packageDirectory(String outputDir, CompilationUnitTree root) {
+        ExpressionTree packageName = root.getPackageName();
+        String dir =
+                packageName == null
+                        ? outputDir
+                        : outputDir
+                                + File.separator
+                                + packageName.toString().replace('.', File.separatorChar);
+        new File(dir).mkdirs();
+        return dir;
+    }
+
+    /**
+     * Writes the sizes of the graphs to {@value #STATISTICS_FILE} in {@code outputDir}, largest
+     * first.
+     */
+    private static void writeStatistics(String outputDir, java.util.List<CFGStatistics> statistics)
+            throws ExecutionException {
+        Collections.sort(
+                statistics,
+                new Comparator<CFGStatistics>() {
+                    @Override
+                    public int compare(CFGStatistics s1, CFGStatistics s2) {
+                        if (s1.blocks != s2.blocks) {
+                            return s2.blocks - s1.blocks;
+                        }
+                        return s2.nodes - s1.nodes;
+                    }
+                });
+        String fileName = outputDir + File.separator + STATISTICS_FILE;
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(fileName))) {
+            out.write("blocks\tnodes\texceptional-edges\tmethod\n");
+            for (CFGStatistics s : statistics) {
+                out.write(s.blocks + "\t" + s.nodes + "\t" + s.exceptionalEdges + "\t" + s.name);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new ExecutionException("Error writing " + fileName, e);
+        }
+        if (!statistics.isEmpty()) {
+            CFGStatistics largest = statistics.get(0);
+            System.out.println(
+                    "Largest CFG: "
+                            + largest.name
+                            + " ("
+                            + largest.blocks
+                            + " blocks, "
+                            + largest.nodes
+                            + " nodes); see "
+                            + fileName);
+        }
+    }
+
+    /** The size of a control flow graph. */
+    protected static class CFGStatistics {
+        protected final String name;
+        protected final int blocks;
+        protected final int nodes;
+        protected final int exceptionalEdges;
+
+        protected CFGStatistics(String name, ControlFlowGraph cfg) {
+            this.name = name;
+            Set<Block> allBlocks = cfg.getAllBlocks();
+            int nodes = 0;
+            int exceptionalEdges = 0;
+            for (Block b : allBlocks) {
+                switch (b.getType()) {
+                    case REGULAR_BLOCK:
+                        nodes += ((RegularBlock) b).getContents().size();
+                        break;
+                    case EXCEPTION_BLOCK:
+                        nodes++;
+                        for (Set<Block> succs :
+                                ((ExceptionBlock) b).getExceptionalSuccessors().values()) {
+                            exceptionalEdges += succs.size();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            this.blocks = allBlocks.size();
+            this.nodes = nodes;
+            this.exceptionalEdges = exceptionalEdges;
+        }
+    }
+
+    /**
+     * Parses and attributes the given files in a single compiler run, during which {@code
+     * typeProcessor} generates the graphs. Reports the error and exits if the compilation fails.
+     */
+    private static void compile(java.util.List<String> files, BatchProcessor typeProcessor) {
+        Context context = new Context();
+        // Stop after flow analysis, after which the type processor runs; do not generate code.
+        Options.instance(context).put("shouldStopPolicyIfNoError", "FLOW");
+        JavaCompiler javac = new JavaCompiler(context);
+        JavacFileManager fileManager = (JavacFileManager) context.get(JavaFileManager.class);
+
+        List<JavaFileObject> fileObjects = List.nil();
+        for (JavaFileObject fileObject : fileManager.getJavaFileObjectsFromStrings(files)) {
+            fileObjects = fileObjects.prepend(fileObject);
+        }
+        try {
+            javac.compile(fileObjects.reverse(), List.<String>nil(), List.of(typeProcessor));
+        } catch (Throwable e) {
+            printError("Generating the CFGs failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+        if (javac.errorCount() > 0) {
+            printError("Compilation failed with " + javac.errorCount() + " error(s).");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The type processor of batch mode, which builds and writes the CFGs of the selected methods
+     * of each class after the class has been attributed. Methods of local and anonymous classes
+     * are included; the class name of a method of an anonymous class is {@code <anonymous>}.
+     */
+    @SupportedAnnotationTypes("*")
+    @SupportedSourceVersion(SourceVersion.RELEASE_8)
+    protected static class BatchProcessor extends BasicTypeProcessor {
+        /** Selects the methods. */
+        protected final Pattern filter;
+
+        /** The output directory. */
+        protected final String outputDir;
+
+        /** Runs {@code dot} on the written graphs, or null if no PDFs are generated. */
+        protected final /*@Nullable*/ ExecutorService pdfExecutor;
+
+        /** The sizes of the graphs written so far. */
+        protected final java.util.List<CFGStatistics> statistics = new ArrayList<>();
+
+        /** The results of the PDF generations submitted to {@link #pdfExecutor}. */
+        protected final java.util.List<Future<?>> pdfResults = new ArrayList<>();
+
+        protected BatchProcessor(
+                Pattern filter, String outputDir, /*@Nullable*/ ExecutorService pdfExecutor) {
+            this.filter = filter;
+            this.outputDir = outputDir;
+            this.pdfExecutor = pdfExecutor;
+        }
+
+        @Override
+        protected TreePathScanner<?, ?> createTreePathScanner(final CompilationUnitTree root) {
+            return new TreePathScanner<Void, Void>() {
+                @Override
+                public Void visitMethod(MethodTree node, Void p) {
+                    ClassTree clas = TreeUtils.enclosingClass(getCurrentPath());
+                    String name = node.getName().toString();
+                    String className = clas.getSimpleName().toString();
+                    if (className.isEmpty()) {
+                        className = "<anonymous>";
+                    }
+                    String qualifiedName = className + "." + name;
+                    if (node.getBody() != null
+                            && (filter.matcher(name).matches()
+                                    || filter.matcher(qualifiedName).matches())) {
+                        // Build the CFG now, while the trees are attributed and the compiler's
+                        // processing environment, which the CFGBuilder needs, is available.
+                        ControlFlowGraph cfg = CFGBuilder.build(root, processingEnv, node, clas);
+                        write(qualifiedName, root, node, cfg);
+                    }
+                    // Visit the body for methods of local and anonymous classes.
+                    return super.visitMethod(node, p);
+                }
+            };
+        }
+
+        /** Writes the graph of {@code method}, and records its size. */
+        protected void write(
+                String name, CompilationUnitTree root, MethodTree method, ControlFlowGraph cfg) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("outdir", packageDirectory(outputDir, root));
+            // Distinguishes overloaded methods.
+            args.put("checkerName", String.valueOf(((JCTree) method).pos));
+            CFGVisualizer<?, ?, ?> viz = new StreamingCFGVisualizer<>();
+            viz.init(args);
+            Map<String, Object> res = viz.visualize(cfg, cfg.getEntryBlock(), null);
+            // Appends to the methods.txt file of the output directory.
+            viz.shutdown();
+            statistics.add(new CFGStatistics(name, cfg));
+
+            if (pdfExecutor != null) {
+                final String dotFileName = (String) res.get("dotFileName");
+                pdfResults.add(
+                        pdfExecutor.submit(
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        producePDF(dotFileName);
+                                    }
+                                }));
+            }
+        }
+    }
+
     /** Invoke DOT to generate a PDF. */
     protected static void producePDF(String file) {
         try {
@@ -0,0 +1,560 @@
+package org.checkerframework.dataflow.cfg;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import javax.lang.model.type.TypeMirror;
+import org.checkerframework.dataflow.analysis.AbstractValue;
+import org.checkerframework.dataflow.analysis.Analysis;
+import org.checkerframework.dataflow.analysis.FlowExpressions;
+import org.checkerframework.dataflow.analysis.Store;
+import org.checkerframework.dataflow.analysis.TransferFunction;
+import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.Block.BlockType;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.RegularBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.checkerframework.dataflow.cfg.block.SpecialBlock;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.Pair;
+
+/**
+ * A visualizer that writes a control flow graph block by block, instead of building the whole
+ * output in memory first, so that it can be used on very large methods.
+ *
+ * <p>Besides the options of {@link DOTCFGVisualizer}, it accepts:
+ *
+ * <ul>
+ *   <li>{@code format=json}: write a compact JSON description of the blocks, their nodes and
+ *       values, and their outgoing edges instead of a DOT graph. The store before each block is
+ *       written as the difference to the store before the block from which it was first reached
+ *       (its {@code base}); only the entry block and blocks whose base is not written get a full
+ *       store. For a block with a then and an else store, both are compared to the base's then
+ *       store, or its only store.
+ *   <li>{@code methods=m1:m2}: only write the graphs of the methods with these names, or {@code
+ *       Class.method} names. Initializers are called {@code initializer}, lambdas {@code lambda}.
+ *   <li>{@code blocks=1:5}: only write the blocks with these ids and their outgoing edges.
+ * </ul>
+ *
+ * For example:
+ *
+ * <pre>{@code
+ * -Acfgviz=org.checkerframework.dataflow.cfg.StreamingCFGVisualizer,outdir=/tmp,format=json,methods=foo
+ * }</pre>
+ */
+public class StreamingCFGVisualizer<
+                A extends AbstractValue<A>, S extends Store<S>, T extends TransferFunction<A, S>>
+        extends DOTCFGVisualizer<A, S, T> {
+
+    /** Whether to write JSON instead of DOT. */
+    protected boolean json;
+
+    /** The names of the methods to write, or null to write all. */
+    protected /*@Nullable*/ Set<String> methods;
+
+    /** The ids of the blocks to write, or null to write all. */
+    protected /*@Nullable*/ Set<Long> blocks;
+
+    /** The output of the graph that is currently written. */
+    protected Writer out;
+
+    /**
+     * The entries of the store currently being visualized, if it is being collected for JSON
+     * output rather than appended to {@link #sbStore}.
+     */
+    protected /*@Nullable*/ Map<String, String> storeEntries;
+
+    @Override
+    public void init(Map<String, Object> args) {
+        super.init(args);
+        this.json = "json".equals(args.get("format"));
+        Object methodsArg = args.get("methods");
+        if (methodsArg instanceof String) {
+            this.methods = new HashSet<>();
+            for (String method : ((String) methodsArg).split(":")) {
+                this.methods.add(method);
+            }
+        }
+        Object blocksArg = args.get("blocks");
+        if (blocksArg instanceof String) {
+            this.blocks = new HashSet<>();
+            for (String id : ((String) blocksArg).split(":")) {
+                try {
+                    this.blocks.add(Long.valueOf(id));
+                } catch (NumberFormatException e) {
+                    ErrorReporter.errorAbort("cfgviz option blocks is not a list of ids: " + id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public /*@Nullable*/ Map<String, Object> visualize(
+            ControlFlowGraph cfg, Block entry, /*@Nullable*/ Analysis<A, S, T> analysis) {
+        UnderlyingAST ast = cfg.getUnderlyingAST();
+        if (methods != null && !isSelected(ast)) {
+            return null;
+        }
+
+        String filename = outputFileName(ast, json ? ".json" : ".dot");
+        try (FileChannel channel =
+                        FileChannel.open(
+                                Paths.get(filename),
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE);
+                Writer writer = new BufferedWriter(Channels.newWriter(channel, "UTF-8"))) {
+            this.out = writer;
+            writeGraph(cfg, entry, analysis);
+        } catch (IOException e) {
+            ErrorReporter.errorAbort(
+                    "Error creating file: " + filename + "; ensure the path is valid", e);
+        } finally {
+            this.out = null;
+        }
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put(json ? "jsonFileName" : "dotFileName", filename);
+        return res;
+    }
+
+    /** Returns true if the graph of {@code ast} is selected by the {@code methods} option. */
+    protected boolean isSelected(UnderlyingAST ast) {
+        switch (ast.getKind()) {
+            case METHOD:
+                CFGMethod cfgm = (CFGMethod) ast;
+                String methname = cfgm.getMethod().getName().toString();
+                String clsname = cfgm.getClassTree().getSimpleName().toString();
+                return methods.contains(methname) || methods.contains(clsname + "." + methname);
+            case LAMBDA:
+                return methods.contains("lambda");
+            default:
+                return methods.contains("initializer");
+        }
+    }
+
+    /** Returns true if {@code bb} is selected by the {@code blocks} option. */
+    protected boolean isSelected(Block bb) {
+        return blocks == null || blocks.contains(bb.getId());
+    }
+
+    /**
+     * Traverses the graph breadth-first from {@code entry} and writes each block as soon as it is
+     * reached. Only the stores of blocks whose successors have not all been written yet are kept.
+     */
+    protected void writeGraph(
+            ControlFlowGraph cfg, Block entry, /*@Nullable*/ Analysis<A, S, T> analysis)
+            throws IOException {
+        IdentityHashMap<Block, List<Integer>> processOrder =
+                verbose && !json ? getProcessOrder(cfg) : null;
+        Set<Block> visited = new HashSet<>();
+        Queue<Block> worklist = new LinkedList<>();
+        // The block from which each block in the worklist was first reached.
+        Map<Block, Block> base = new IdentityHashMap<>();
+        // The number of blocks in the worklist that were first reached from each block.
+        Map<Block, Integer> pending = new IdentityHashMap<>();
+        // The (then) store before each block with pending successors.
+        Map<Block, Map<String, String>> baseStores = new IdentityHashMap<>();
+
+        if (json) {
+            out.write("{\"checker\": " + jsonString(checkerName) + ", \"blocks\": [");
+        } else {
+            out.write("digraph {\n    node [shape=rectangle];\n\n");
+        }
+
+        boolean first = true;
+        visited.add(entry);
+        Block cur = entry;
+        while (cur != null) {
+            List<Pair<Block, String>> successors = getSuccessors(cur);
+            int reached = 0;
+            for (Pair<Block, String> succ : successors) {
+                if (visited.add(succ.first)) {
+                    worklist.add(succ.first);
+                    base.put(succ.first, cur);
+                    reached++;
+                }
+            }
+
+            Block curBase = base.remove(cur);
+            Map<String, String> store = null;
+            if (isSelected(cur)) {
+                if (json) {
+                    if (!first) {
+                        out.write(",");
+                    }
+                    Map<String, String> baseStore =
+                            curBase != null && isSelected(curBase)
+                                    ? baseStores.get(curBase)
+                                    : null;
+                    store = writeJsonBlock(cur, successors, curBase, baseStore, analysis);
+                } else {
+                    writeDotBlock(cur, successors, processOrder, analysis);
+                }
+                first = false;
+            }
+
+            if (reached > 0 && store != null) {
+                pending.put(cur, reached);
+                baseStores.put(cur, store);
+            }
+            if (curBase != null && pending.containsKey(curBase)) {
+                int remaining = pending.get(curBase) - 1;
+                if (remaining == 0) {
+                    pending.remove(curBase);
+                    baseStores.remove(curBase);
+                } else {
+                    pending.put(curBase, remaining);
+                }
+            }
+
+            cur = worklist.poll();
+        }
+
+        if (json) {
+            out.write("]}\n");
+        } else {
+            out.write("}\n");
+        }
+    }
+
+    /** Returns the successors of {@code cur} together with the labels of the edges to them. */
+    protected List<Pair<Block, String>> getSuccessors(Block cur) {
+        List<Pair<Block, String>> result = new ArrayList<>();
+        if (cur.getType() == BlockType.CONDITIONAL_BLOCK) {
+            ConditionalBlock ccur = (ConditionalBlock) cur;
+            result.add(Pair.of(ccur.getThenSuccessor(), "then\\n" + ccur.getThenFlowRule()));
+            result.add(Pair.of(ccur.getElseSuccessor(), "else\\n" + ccur.getElseFlowRule()));
+        } else {
+            assert cur instanceof SingleSuccessorBlock;
+            SingleSuccessorBlock scur = (SingleSuccessorBlock) cur;
+            if (scur.getSuccessor() != null) {
+                result.add(Pair.of(scur.getSuccessor(), scur.getFlowRule().name()));
+            }
+        }
+        if (cur.getType() == BlockType.EXCEPTION_BLOCK) {
+            ExceptionBlock ecur = (ExceptionBlock) cur;
+            for (Entry<TypeMirror, Set<Block>> e : ecur.getExceptionalSuccessors().entrySet()) {
+                String exception = e.getKey().toString();
+                if (exception.startsWith("java.lang.")) {
+                    exception = exception.replace("java.lang.", "");
+                }
+                for (Block b : e.getValue()) {
+                    result.add(Pair.of(b, exception));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Writes the DOT node of {@code bb} and its outgoing edges. */
+    protected void writeDotBlock(
+            Block bb,
+            List<Pair<Block, String>> successors,
+            /*@Nullable*/ IdentityHashMap<Block, List<Integer>> processOrder,
+            /*@Nullable*/ Analysis<A, S, T> analysis)
+            throws IOException {
+        this.sbDigraph.setLength(0);
+        generateDotNode(bb, processOrder, analysis);
+        for (Pair<Block, String> succ : successors) {
+            addDotEdge(bb.getId(), succ.first.getId(), succ.second);
+        }
+        out.append(this.sbDigraph);
+        this.sbDigraph.setLength(0);
+    }
+
+    /**
+     * Writes the JSON object of {@code bb}.
+     *
+     * @return the entries of the (then) store before {@code bb}, or null if there is no analysis
+     */
+    protected /*@Nullable*/ Map<String, String> writeJsonBlock(
+            Block bb,
+            List<Pair<Block, String>> successors,
+            /*@Nullable*/ Block base,
+            /*@Nullable*/ Map<String, String> baseStore,
+            /*@Nullable*/ Analysis<A, S, T> analysis)
+            throws IOException {
+        out.write("\n{\"id\": " + bb.getId() + ", \"type\": \"" + bb.getType() + "\"");
+        if (bb.getType() == BlockType.SPECIAL_BLOCK) {
+            out.write(", \"special\": \"" + ((SpecialBlock) bb).getSpecialType() + "\"");
+        }
+
+        List<Node> contents = getContents(bb);
+        if (!contents.isEmpty()) {
+            out.write(", \"nodes\": [");
+            boolean first = true;
+            for (Node t : contents) {
+                if (!first) {
+                    out.write(", ");
+                }
+                first = false;
+                out.write("{\"node\": " + jsonString(t.toString()));
+                out.write(", \"kind\": " + jsonString(prepareNodeType(t)));
+                if (analysis != null) {
+                    A value = analysis.getValue(t);
+                    if (value != null) {
+                        out.write(", \"value\": " + jsonString(value.toString()));
+                    }
+                }
+                out.write("}");
+            }
+            out.write("]");
+        }
+
+        out.write(", \"edges\": [");
+        boolean first = true;
+        for (Pair<Block, String> succ : successors) {
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+            out.write(
+                    "{\"to\": "
+                            + succ.first.getId()
+                            + ", \"label\": "
+                            + jsonString(succ.second.replace("\\n", " "))
+                            + "}");
+        }
+        out.write("]");
+
+        Map<String, String> result = null;
+        if (analysis != null) {
+            TransferInput<A, S> input = analysis.getInput(bb);
+            Long baseId = baseStore == null ? null : base.getId();
+            out.write(", \"before\": ");
+            result = collectStore(getFirstStore(input));
+            if (!input.containsTwoStores()) {
+                writeStoreDelta(result, baseStore, baseId);
+            } else {
+                out.write("{\"then\": ");
+                writeStoreDelta(result, baseStore, baseId);
+                out.write(", \"else\": ");
+                writeStoreDelta(collectStore(input.getElseStore()), baseStore, baseId);
+                out.write("}");
+            }
+            if (verbose && !contents.isEmpty()) {
+                Node lastNode = contents.get(contents.size() - 1);
+                S after = analysis.getResult().getStoreAfter(lastNode);
+                if (after != null) {
+                    out.write(", \"after\": ");
+                    writeStoreDelta(collectStore(after), result, bb.getId());
+                }
+            }
+        }
+        out.write("}");
+        return result;
+    }
+
+    /** Returns the nodes of {@code bb}. */
+    private static List<Node> getContents(Block bb) {
+        List<Node> contents = new ArrayList<>();
+        switch (bb.getType()) {
+            case REGULAR_BLOCK:
+                contents.addAll(((RegularBlock) bb).getContents());
+                break;
+            case EXCEPTION_BLOCK:
+                contents.add(((ExceptionBlock) bb).getNode());
+                break;
+            default:
+                break;
+        }
+        return contents;
+    }
+
+    /** Returns the regular store of {@code input}, or its then store if it has two. */
+    private S getFirstStore(TransferInput<A, S> input) {
+        return input.containsTwoStores() ? input.getThenStore() : input.getRegularStore();
+    }
+
+    /** Returns the entries of {@code store}, as they are passed to the visualizer. */
+    protected Map<String, String> collectStore(S store) {
+        storeEntries = new LinkedHashMap<>();
+        try {
+            store.visualize(this);
+            return storeEntries;
+        } finally {
+            storeEntries = null;
+        }
+    }
+
+    /**
+     * Writes the entries of {@code store} that are not in {@code baseStore}, and the keys of
+     * {@code baseStore} that are not in {@code store}. Writes all entries if {@code baseStore} is
+     * null.
+     */
+    protected void writeStoreDelta(
+            Map<String, String> store,
+            /*@Nullable*/ Map<String, String> baseStore,
+            /*@Nullable*/ Long baseId)
+            throws IOException {
+        out.write("{");
+        if (baseStore != null) {
+            out.write("\"base\": " + baseId + ", ");
+        }
+        out.write("\"set\": {");
+        boolean first = true;
+        for (Entry<String, String> e : store.entrySet()) {
+            if (baseStore != null && e.getValue().equals(baseStore.get(e.getKey()))) {
+                continue;
+            }
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+            out.write(jsonString(e.getKey()) + ": " + jsonString(e.getValue()));
+        }
+        out.write("}");
+        if (baseStore != null) {
+            out.write(", \"removed\": [");
+            first = true;
+            for (String key : baseStore.keySet()) {
+                if (!store.containsKey(key)) {
+                    if (!first) {
+                        out.write(", ");
+                    }
+                    first = false;
+                    out.write(jsonString(key));
+                }
+            }
+            out.write("]");
+        }
+        out.write("}");
+    }
+
+    /** Returns {@code s} as a JSON string literal. */
+    protected static String jsonString(/*@Nullable*/ String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    @Override
+    public void visualizeStoreThisVal(A value) {
+        if (storeEntries != null) {
+            storeEntries.put("this", String.valueOf(value));
+        } else {
+            super.visualizeStoreThisVal(value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreLocalVar(FlowExpressions.LocalVariable localVar, A value) {
+        if (storeEntries != null) {
+            storeEntries.put(localVar.toString(), String.valueOf(value));
+        } else {
+            super.visualizeStoreLocalVar(localVar, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreFieldVals(FlowExpressions.FieldAccess fieldAccess, A value) {
+        if (storeEntries != null) {
+            storeEntries.put(fieldAccess.toString(), String.valueOf(value));
+        } else {
+            super.visualizeStoreFieldVals(fieldAccess, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreArrayVal(FlowExpressions.ArrayAccess arrayValue, A value) {
+        if (storeEntries != null) {
+            storeEntries.put(arrayValue.toString(), String.valueOf(value));
+        } else {
+            super.visualizeStoreArrayVal(arrayValue, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreMethodVals(FlowExpressions.MethodCall methodCall, A value) {
+        if (storeEntries != null) {
+            storeEntries.put(methodCall.toString(), String.valueOf(value));
+        } else {
+            super.visualizeStoreMethodVals(methodCall, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreClassVals(FlowExpressions.ClassName className, A value) {
+        if (storeEntries != null) {
+            storeEntries.put(className.toString(), String.valueOf(value));
+        } else {
+            super.visualizeStoreClassVals(className, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreKeyVal(String keyName, Object value) {
+        if (storeEntries != null) {
+            storeEntries.put(keyName, String.valueOf(value));
+        } else {
+            super.visualizeStoreKeyVal(keyName, value);
+        }
+    }
+
+    @Override
+    public void visualizeStoreHeader(String classCanonicalName) {
+        if (storeEntries == null) {
+            super.visualizeStoreHeader(classCanonicalName);
+        }
+    }
+
+    @Override
+    public void visualizeStoreFooter() {
+        if (storeEntries == null) {
+            super.visualizeStoreFooter();
+        }
+    }
+}
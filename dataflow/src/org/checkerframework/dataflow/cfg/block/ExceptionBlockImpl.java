@@ -2,11 +2,11 @@ package org.checkerframework.dataflow.cfg.block;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.util.MostlySingleton;
 
 /**
  * Base class of the {@link Block} implementation hierarchy.
@@ -15,12 +15,15 @@ import org.checkerframework.dataflow.cfg.node.Node;
  */
 public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements ExceptionBlock {
 
-    /** Set of exceptional successors. */
+    /**
+     * Set of exceptional successors. An exception block usually has only a few causes, each with a
+     * single successor, so the map starts small and the sets are {@link MostlySingleton}s.
+     */
     protected final Map<TypeMirror, Set<Block>> exceptionalSuccessors;
 
     public ExceptionBlockImpl() {
         super(BlockType.EXCEPTION_BLOCK);
-        exceptionalSuccessors = new HashMap<>();
+        exceptionalSuccessors = new HashMap<>(4);
     }
 
     /** The node of this block. */
@@ -41,7 +44,7 @@ public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements Exce
     public void addExceptionalSuccessor(BlockImpl b, TypeMirror cause) {
         Set<Block> blocks = exceptionalSuccessors.get(cause);
         if (blocks == null) {
-            blocks = new HashSet<Block>();
+            blocks = new MostlySingleton<Block>();
             exceptionalSuccessors.put(cause, blocks);
         }
         blocks.add(b);
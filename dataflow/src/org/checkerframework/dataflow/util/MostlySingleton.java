@@ -1,6 +1,7 @@
 package org.checkerframework.dataflow.util;
 
-import java.util.Collection;
+import java.lang.reflect.Array;
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -8,8 +9,11 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 
-/** A set that is more efficient than HashSet for 0 and 1 elements. */
-public final class MostlySingleton<T> implements Set<T> {
+/**
+ * A set that is more efficient than HashSet for 0 and 1 elements. Like other sets, it is equal to
+ * any set with the same elements.
+ */
+public final class MostlySingleton<T> extends AbstractSet<T> implements Set<T> {
     private enum State {
         EMPTY,
         SINGLETON,
@@ -83,6 +87,9 @@ public final class MostlySingleton<T> implements Set<T> {
                 return new Iterator<T>() {
                     private boolean hasNext = true;
 
+                    /** Whether {@link #next} returned the value and it was not removed since. */
+                    private boolean canRemove = false;
+
                     @Override
                     public boolean hasNext() {
                         return hasNext;
@@ -92,6 +99,7 @@ public final class MostlySingleton<T> implements Set<T> {
                     public T next() {
                         if (hasNext) {
                             hasNext = false;
+                            canRemove = true;
                             return value;
                         }
                         throw new NoSuchElementException();
@@ -99,7 +107,11 @@ public final class MostlySingleton<T> implements Set<T> {
 
                     @Override
                     public void remove() {
-                        throw new UnsupportedOperationException();
+                        if (!canRemove) {
+                            throw new IllegalStateException();
+                        }
+                        canRemove = false;
+                        clear();
                     }
                 };
             case ANY:
@@ -111,41 +123,64 @@ public final class MostlySingleton<T> implements Set<T> {
 
     @Override
     public Object[] toArray() {
-        throw new UnsupportedOperationException();
+        switch (state) {
+            case EMPTY:
+                return new Object[0];
+            case SINGLETON:
+                return new Object[] {value};
+            case ANY:
+                return set.toArray();
+            default:
+                throw new AssertionError();
+        }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <S> S[] toArray(S[] a) {
-        throw new UnsupportedOperationException();
+        switch (state) {
+            case EMPTY:
+                if (a.length > 0) {
+                    a[0] = null;
+                }
+                return a;
+            case SINGLETON:
+                if (a.length == 0) {
+                    a = (S[]) Array.newInstance(a.getClass().getComponentType(), 1);
+                } else if (a.length > 1) {
+                    a[1] = null;
+                }
+                a[0] = (S) value;
+                return a;
+            case ANY:
+                return set.toArray(a);
+            default:
+                throw new AssertionError();
+        }
     }
 
     @Override
     public boolean remove(Object o) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean containsAll(Collection<?> c) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean addAll(Collection<? extends T> c) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean retainAll(Collection<?> c) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean removeAll(Collection<?> c) {
-        throw new UnsupportedOperationException();
+        switch (state) {
+            case EMPTY:
+                return false;
+            case SINGLETON:
+                if (Objects.equals(o, value)) {
+                    clear();
+                    return true;
+                }
+                return false;
+            case ANY:
+                return set.remove(o);
+            default:
+                throw new AssertionError();
+        }
     }
 
     @Override
     public void clear() {
-        throw new UnsupportedOperationException();
+        state = State.EMPTY;
+        value = null;
+        set = null;
     }
 }
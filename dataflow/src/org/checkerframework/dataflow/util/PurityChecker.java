@@ -14,7 +14,9 @@ import com.sun.source.util.TreePathScanner;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import javax.lang.model.element.Element;
 import org.checkerframework.dataflow.qual.Deterministic;
 import org.checkerframework.dataflow.qual.Pure;
@@ -50,7 +52,20 @@ public class PurityChecker {
      */
     public static PurityResult checkPurity(
             TreePath statement, AnnotationProvider annoProvider, boolean assumeSideEffectFree) {
-        PurityCheckerHelper helper = new PurityCheckerHelper(annoProvider, assumeSideEffectFree);
+        return checkPurity(statement, annoProvider, assumeSideEffectFree, null);
+    }
+
+    /**
+     * Compute whether the given statement is side-effect-free, deterministic, or both, using the
+     * inferred purity of unannotated callees where {@code inference} provides it.
+     */
+    public static PurityResult checkPurity(
+            TreePath statement,
+            AnnotationProvider annoProvider,
+            boolean assumeSideEffectFree,
+            /*@Nullable*/ PurityInference inference) {
+        PurityCheckerHelper helper =
+                new PurityCheckerHelper(annoProvider, assumeSideEffectFree, inference);
         if (statement != null) {
             helper.scan(statement, null);
         }
@@ -71,12 +86,18 @@ public class PurityChecker {
          * varieties, and elements are removed from it as violations are found.
          */
         protected EnumSet<Pure.Kind> types;
+        /**
+         * The unannotated callees whose inferred purity was used, in the order they were found;
+         * see {@link PurityInference}.
+         */
+        protected final Set<Element> inferredCallees;
 
         public PurityResult() {
             notSEFreeReasons = new ArrayList<>();
             notDetReasons = new ArrayList<>();
             notBothReasons = new ArrayList<>();
             types = EnumSet.allOf(Pure.Kind.class);
+            inferredCallees = new LinkedHashSet<>();
         }
 
         public EnumSet<Pure.Kind> getTypes() {
@@ -93,6 +114,19 @@ public class PurityChecker {
             return types.containsAll(kinds);
         }
 
+        /**
+         * Get the unannotated callees whose inferred purity was used. The purity of the method
+         * holds only if these callees are annotated with their inferred purity.
+         */
+        public Set<Element> getInferredCallees() {
+            return inferredCallees;
+        }
+
+        /** Add {@code callee} as an unannotated callee whose inferred purity was used. */
+        public void addInferredCallee(Element callee) {
+            inferredCallees.add(callee);
+        }
+
         /** Get the {@code reason}s why the method is not side-effect-free. */
         public List<Pair<Tree, String>> getNotSEFreeReasons() {
             return notSEFreeReasons;
@@ -149,9 +183,31 @@ public class PurityChecker {
          */
         private final boolean assumeSideEffectFree;
 
+        /** The inference for unannotated callees, or null if they are considered impure. */
+        protected final /*@Nullable*/ PurityInference inference;
+
         public PurityCheckerHelper(AnnotationProvider annoProvider, boolean assumeSideEffectFree) {
+            this(annoProvider, assumeSideEffectFree, null);
+        }
+
+        public PurityCheckerHelper(
+                AnnotationProvider annoProvider,
+                boolean assumeSideEffectFree,
+                /*@Nullable*/ PurityInference inference) {
             this.annoProvider = annoProvider;
             this.assumeSideEffectFree = assumeSideEffectFree;
+            this.inference = inference;
+        }
+
+        /**
+         * Returns the inferred purity of the unannotated method {@code elt}, or null if there is
+         * no inference or {@code elt} is not inferable.
+         */
+        private /*@Nullable*/ EnumSet<Pure.Kind> inferredKinds(Element elt) {
+            if (inference == null) {
+                return null;
+            }
+            return inference.getPurityKinds(elt, getCurrentPath());
         }
 
         @Override
@@ -164,12 +220,18 @@ public class PurityChecker {
         public Void visitMethodInvocation(MethodInvocationTree node, Void ignore) {
             Element elt = TreeUtils.elementFromUse(node);
             String reason = "call";
-            if (!PurityUtils.hasPurityAnnotation(annoProvider, elt)) {
+            Collection<Pure.Kind> kinds = PurityUtils.getPurityKinds(annoProvider, elt);
+            if (kinds.isEmpty()) {
+                kinds = inferredKinds(elt);
+                if (kinds != null && !kinds.isEmpty()) {
+                    purityResult.addInferredCallee(elt);
+                }
+            }
+            if (kinds == null || kinds.isEmpty()) {
                 purityResult.addNotBothReason(node, reason);
             } else {
-                boolean det = PurityUtils.isDeterministic(annoProvider, elt);
-                boolean seFree =
-                        (assumeSideEffectFree || PurityUtils.isSideEffectFree(annoProvider, elt));
+                boolean det = kinds.contains(Kind.DETERMINISTIC);
+                boolean seFree = (assumeSideEffectFree || kinds.contains(Kind.SIDE_EFFECT_FREE));
                 if (!det && !seFree) {
                     purityResult.addNotBothReason(node, reason);
                 } else if (!det) {
@@ -222,6 +284,13 @@ public class PurityChecker {
             boolean sideEffectFree =
                     (assumeSideEffectFree
                             || PurityUtils.isSideEffectFree(annoProvider, methodElement));
+            if (!sideEffectFree && !PurityUtils.hasPurityAnnotation(annoProvider, methodElement)) {
+                EnumSet<Pure.Kind> inferred = inferredKinds(methodElement);
+                sideEffectFree = inferred != null && inferred.contains(Kind.SIDE_EFFECT_FREE);
+                if (sideEffectFree) {
+                    purityResult.addInferredCallee(methodElement);
+                }
+            }
             if (!sideEffectFree && !deterministic) {
                 purityResult.addNotBothReason(node, "object.creation");
             } else if (!deterministic) {
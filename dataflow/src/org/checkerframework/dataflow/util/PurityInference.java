@@ -0,0 +1,273 @@
+package org.checkerframework.dataflow.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import org.checkerframework.dataflow.qual.Pure;
+import org.checkerframework.dataflow.util.PurityChecker.PurityResult;
+import org.checkerframework.javacutil.AnnotationProvider;
+import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/**
+ * Infers the purity of methods that have no purity annotation, from their bodies.
+ *
+ * <p>{@link PurityChecker} treats every call of an unannotated method as neither side-effect-free
+ * nor deterministic. With an inference, the {@link PurityChecker} instead uses the purity inferred
+ * for the callee, if the callee is <em>inferable</em>: its body is in the same top-level class as
+ * the call, and it cannot be overridden (it is a constructor, or it is static, private, or final,
+ * or its class is final). Calls of other unannotated methods are still treated as impure.
+ *
+ * <p>Inferable methods are summarized bottom-up over the call graph: callees before callers, and
+ * the methods of one strongly connected component (mutually recursive methods) together, starting
+ * from the assumption that they are pure and removing kinds of purity until the summaries are
+ * stable. Each summary is computed once and reused for all later calls.
+ *
+ * <p>Inferred purity is a suggestion to the programmer, not a specification; it is used when
+ * suggesting purity annotations (-AsuggestPureMethods), not when checking them.
+ */
+public class PurityInference {
+
+    protected final AnnotationProvider annoProvider;
+
+    protected final Trees trees;
+
+    /** Passed on to the {@link PurityChecker}, see {@link PurityChecker#checkPurity}. */
+    protected final boolean assumeSideEffectFree;
+
+    /** The inferred purity of the inferable methods summarized so far. */
+    protected final Map<ExecutableElement, EnumSet<Pure.Kind>> summaries = new HashMap<>();
+
+    /**
+     * The assumed purity of the methods of the strongly connected components whose summaries are
+     * currently being computed.
+     */
+    protected final Map<ExecutableElement, EnumSet<Pure.Kind>> assumptions = new HashMap<>();
+
+    /** The depth-first index of each method visited by {@link #visit}, for Tarjan's algorithm. */
+    private final Map<ExecutableElement, Integer> index = new HashMap<>();
+
+    /** The lowest index reachable from each method on {@link #stack}. */
+    private final Map<ExecutableElement, Integer> lowlink = new HashMap<>();
+
+    /** The visited methods whose strongly connected component is not yet complete. */
+    private final Deque<ExecutableElement> stack = new ArrayDeque<>();
+
+    /** The elements of {@link #stack}. */
+    private final Set<ExecutableElement> onStack = new HashSet<>();
+
+    /** The next depth-first index. */
+    private int nextIndex = 0;
+
+    public PurityInference(
+            AnnotationProvider annoProvider, Trees trees, boolean assumeSideEffectFree) {
+        this.annoProvider = annoProvider;
+        this.trees = trees;
+        this.assumeSideEffectFree = assumeSideEffectFree;
+    }
+
+    /**
+     * Returns the inferred purity of the method {@code callee}, called at {@code usePath}, or null
+     * if {@code callee} is not inferable there.
+     *
+     * @param callee the invoked method or constructor
+     * @param usePath the path to the invocation
+     * @return the varieties of purity of {@code callee}, or null
+     */
+    public /*@Nullable*/ EnumSet<Pure.Kind> getPurityKinds(Element callee, TreePath usePath) {
+        if (!(callee instanceof ExecutableElement)) {
+            return null;
+        }
+        ExecutableElement method = (ExecutableElement) callee;
+        EnumSet<Pure.Kind> kinds = summaries.get(method);
+        if (kinds != null) {
+            return kinds;
+        }
+        kinds = assumptions.get(method);
+        if (kinds != null) {
+            return kinds;
+        }
+        ClassTree useClass = TreeUtils.enclosingClass(usePath);
+        if (useClass == null) {
+            return null;
+        }
+        TypeElement scope = outermostClass(InternalUtils.symbol(useClass));
+        if (getBody(method, scope) == null) {
+            return null;
+        }
+        visit(method, scope);
+        return summaries.get(method);
+    }
+
+    /**
+     * Returns the path to the body of {@code method}, or null if {@code method} is not inferable
+     * in {@code scope}.
+     */
+    private /*@Nullable*/ TreePath getBody(ExecutableElement method, TypeElement scope) {
+        if (!PurityUtils.getPurityKinds(annoProvider, method).isEmpty() || !isFinal(method)) {
+            return null;
+        }
+        if (outermostClass(method) != scope) {
+            // The body of a method in another top-level class may not be attributed yet.
+            return null;
+        }
+        TreePath path = trees.getPath(method);
+        if (path == null || !(path.getLeaf() instanceof MethodTree)) {
+            return null;
+        }
+        MethodTree tree = (MethodTree) path.getLeaf();
+        if (tree.getBody() == null) {
+            return null;
+        }
+        return new TreePath(path, tree.getBody());
+    }
+
+    /** Returns true if calls of {@code method} cannot dispatch to an overriding method. */
+    private static boolean isFinal(ExecutableElement method) {
+        if (method.getKind() == ElementKind.CONSTRUCTOR) {
+            return true;
+        }
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.STATIC)
+                || modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.FINAL)) {
+            return true;
+        }
+        Element enclosing = method.getEnclosingElement();
+        return enclosing != null && enclosing.getModifiers().contains(Modifier.FINAL);
+    }
+
+    /** Returns the top-level class that contains {@code elt}. */
+    private static /*@Nullable*/ TypeElement outermostClass(Element elt) {
+        TypeElement result = null;
+        while (elt != null && elt.getKind() != ElementKind.PACKAGE) {
+            if (elt instanceof TypeElement) {
+                result = (TypeElement) elt;
+            }
+            elt = elt.getEnclosingElement();
+        }
+        return result;
+    }
+
+    /**
+     * Visits {@code method} and its inferable callees in depth-first order, and summarizes each
+     * strongly connected component when it is complete (Tarjan's algorithm).
+     */
+    private void visit(ExecutableElement method, TypeElement scope) {
+        int methodIndex = nextIndex++;
+        index.put(method, methodIndex);
+        lowlink.put(method, methodIndex);
+        stack.push(method);
+        onStack.add(method);
+
+        for (ExecutableElement callee : inferableCallees(method, scope)) {
+            if (summaries.containsKey(callee)) {
+                continue;
+            }
+            Integer calleeIndex = index.get(callee);
+            if (calleeIndex == null) {
+                visit(callee, scope);
+                lowlink.put(method, Math.min(lowlink.get(method), lowlink.get(callee)));
+            } else if (onStack.contains(callee)) {
+                lowlink.put(method, Math.min(lowlink.get(method), calleeIndex));
+            }
+        }
+
+        if (lowlink.get(method) == methodIndex) {
+            List<ExecutableElement> component = new ArrayList<>();
+            ExecutableElement member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (member != method);
+            summarize(component, scope);
+        }
+    }
+
+    /**
+     * Computes the summaries of the methods of one strongly connected component, whose callees
+     * outside the component are already summarized.
+     */
+    private void summarize(List<ExecutableElement> component, TypeElement scope) {
+        for (ExecutableElement member : component) {
+            assumptions.put(member, EnumSet.allOf(Pure.Kind.class));
+        }
+        boolean changed;
+        do {
+            changed = false;
+            for (ExecutableElement member : component) {
+                PurityResult result =
+                        PurityChecker.checkPurity(
+                                getBody(member, scope), annoProvider, assumeSideEffectFree, this);
+                EnumSet<Pure.Kind> kinds = EnumSet.copyOf(assumptions.get(member));
+                kinds.retainAll(result.getTypes());
+                if (member.getKind() == ElementKind.CONSTRUCTOR) {
+                    // A constructor is never deterministic, see BaseTypeVisitor.
+                    kinds.remove(Pure.Kind.DETERMINISTIC);
+                }
+                if (!kinds.equals(assumptions.get(member))) {
+                    assumptions.put(member, kinds);
+                    changed = true;
+                }
+            }
+        } while (changed);
+        for (ExecutableElement member : component) {
+            summaries.put(member, assumptions.remove(member));
+            index.remove(member);
+            lowlink.remove(member);
+        }
+    }
+
+    /** Returns the inferable methods and constructors that the body of {@code method} calls. */
+    private Set<ExecutableElement> inferableCallees(
+            ExecutableElement method, final TypeElement scope) {
+        final Set<ExecutableElement> callees = new LinkedHashSet<>();
+        new TreePathScanner<Void, Void>() {
+            @Override
+            public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+                addCallee(TreeUtils.elementFromUse(node));
+                return super.visitMethodInvocation(node, p);
+            }
+
+            @Override
+            public Void visitNewClass(NewClassTree node, Void p) {
+                addCallee(InternalUtils.symbol(node));
+                return super.visitNewClass(node, p);
+            }
+
+            private void addCallee(Element elt) {
+                if (elt instanceof ExecutableElement) {
+                    ExecutableElement callee = (ExecutableElement) elt;
+                    if (getBody(callee, scope) != null) {
+                        callees.add(callee);
+                    }
+                }
+            }
+        }.scan(getBody(method, scope), null);
+        return callees;
+    }
+}
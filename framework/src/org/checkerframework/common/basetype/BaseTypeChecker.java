@@ -470,7 +470,10 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
     // AbstractTypeProcessor delegation
     @Override
     public void typeProcess(TypeElement element, TreePath tree) {
-        if (getSubcheckers().size() > 0) {
+        // A subchecker of a compound checker uses the messageStore of the compound checker.
+        boolean ownsMessageStore =
+                getSubcheckers().size() > 0 || !(parentChecker instanceof BaseTypeChecker);
+        if (ownsMessageStore) {
             messageStore = new TreeSet<>(checkerMessageComparator);
         }
 
@@ -502,8 +505,9 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         this.errsOnLastExit = nerrorsOfAllPreviousCheckers;
         super.typeProcess(element, tree);
 
-        if (getSubcheckers().size() > 0) {
+        if (ownsMessageStore) {
             printCollectedMessages(tree.getCompilationUnit());
+            messageStore = null;
             // Update errsOnLastExit to reflect the errors issued.
             this.errsOnLastExit = log.nerrors;
         }
@@ -511,15 +515,16 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
     /**
      * Stores all messages issued by this checker and its subcheckers for the current compilation
-     * unit. The messages are printed after all checkers have processed the current compilation
-     * unit. If this checker has no subcheckers and is not a subchecker for any other checker, then
-     * messageStore is null and messages will be printed as they are issued by this checker.
+     * unit. The messages are printed in one batch, sorted by position, after all checkers have
+     * processed the current compilation unit. This is also done for a checker without subcheckers,
+     * so that its messages are not handed to the compiler one at a time while the class is being
+     * visited.
      */
     private TreeSet<CheckerMessage> messageStore = null;
 
     /**
-     * If this is a compound checker or a subchecker of a compound checker, then the message is
-     * stored until all messages from all checkers for the compilation unit are issued.
+     * While a compilation unit is being processed, the message is stored until all messages from
+     * all checkers for the compilation unit are issued.
      *
      * <p>Otherwise, it prints the message.
      */
@@ -686,6 +691,32 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         return false;
     }
 
+    @Override
+    protected void printStats() {
+        super.printStats();
+        printCacheStats(this);
+        for (BaseTypeChecker checker : getSubcheckers()) {
+            printCacheStats(checker);
+        }
+    }
+
+    /**
+     * Print how often the type factory of {@code checker} reused the bounds of type variables and
+     * how often its visitor reused the outcome of override checks.
+     */
+    private static void printCacheStats(BaseTypeChecker checker) {
+        BaseTypeVisitor<?> visitor = checker.getVisitor();
+        if (visitor == null) {
+            return;
+        }
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> factory = visitor.getTypeFactory();
+        System.out.println(checker.getClass().getSimpleName() + " bound templates");
+        System.out.println("  Created: " + factory.getBoundTemplatesCreated());
+        System.out.println("  Cloned: " + factory.getBoundTemplatesCloned());
+        System.out.println(checker.getClass().getSimpleName() + " override checks");
+        System.out.println("  Cache hits: " + visitor.getOverrideCheckCacheHits());
+    }
+
     @Override
     protected void shutdownHook() {
         super.shutdownHook();
@@ -40,9 +40,11 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -72,6 +74,7 @@ import org.checkerframework.dataflow.cfg.node.ReturnNode;
 import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.dataflow.util.PurityChecker;
 import org.checkerframework.dataflow.util.PurityChecker.PurityResult;
+import org.checkerframework.dataflow.util.PurityInference;
 import org.checkerframework.dataflow.util.PurityUtils;
 import org.checkerframework.framework.flow.CFAbstractStore;
 import org.checkerframework.framework.flow.CFAbstractValue;
@@ -84,6 +87,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedIntersectionType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedPrimitiveType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedUnionType;
@@ -107,6 +111,7 @@ import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressio
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.framework.util.QualifierPolymorphism;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
@@ -179,6 +184,37 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     /** An instance of the {@link ContractsUtils} helper class. */
     protected final ContractsUtils contractsUtils;
 
+    /**
+     * The purity inference used for -AsuggestPureMethods; created on first use. It keeps the
+     * summaries of inferred methods for the rest of the compilation.
+     */
+    private PurityInference purityInference;
+
+    /** Size of {@link #successfulOverrides}. */
+    private static final int OVERRIDE_CACHE_SIZE = 1000;
+
+    /**
+     * Override checks of methods read from class files that succeeded, see {@link
+     * OverrideChecker#checkOverride()}. Many classes override the same library methods with the
+     * same signature, and the outcome of the type checks only depends on the types involved.
+     */
+    private final Set<OverrideCheckKey> successfulOverrides =
+            Collections.newSetFromMap(
+                    CollectionUtils.<OverrideCheckKey, Boolean>createLRUCache(
+                            OVERRIDE_CACHE_SIZE));
+
+    /** The number of override checks that were skipped because of {@link #successfulOverrides}. */
+    private int overrideCheckCacheHits;
+
+    /** The class whose supertypes are {@link #currentSupertypes}, or null. */
+    private TypeElement currentSupertypesOwner;
+
+    /**
+     * The supertypes of {@link #currentSupertypesOwner}, reused for every method declared in the
+     * class.
+     */
+    private Collection<AnnotatedDeclaredType> currentSupertypes;
+
     /**
      * @param checker the type-checker associated with this visitor (for callbacks to {@link
      *     TypeHierarchy#isSubtype})
@@ -246,6 +282,14 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         return atypeFactory;
     }
 
+    /**
+     * Returns how many override checks of library methods reused the outcome of an earlier,
+     * equivalent override check, possibly in another class.
+     */
+    public int getOverrideCheckCacheHits() {
+        return overrideCheckCacheHits;
+    }
+
     // **********************************************************************
     // Responsible for updating the factory for the location (for performance)
     // **********************************************************************
@@ -496,19 +540,33 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                         }
                     }
 
+                    TreePath bodyPath = atypeFactory.getPath(node.getBody());
+                    boolean assumeSideEffectFree = checker.hasOption("assumeSideEffectFree");
+
                     // Report errors if necessary.
-                    PurityResult r =
-                            PurityChecker.checkPurity(
-                                    atypeFactory.getPath(node.getBody()),
-                                    atypeFactory,
-                                    checker.hasOption("assumeSideEffectFree"));
-                    if (!r.isPure(kinds)) {
-                        reportPurityErrors(r, node, kinds);
+                    if (!kinds.isEmpty()) {
+                        PurityResult r =
+                                PurityChecker.checkPurity(
+                                        bodyPath, atypeFactory, assumeSideEffectFree);
+                        if (!r.isPure(kinds)) {
+                            reportPurityErrors(r, node, kinds);
+                        }
                     }
 
                     // Issue a warning if the method is pure, but not annotated
-                    // as such (if the feature is activated).
+                    // as such (if the feature is activated).  Unannotated callees
+                    // are taken into account with their inferred purity.
                     if (checkPurityAlways) {
+                        if (purityInference == null) {
+                            purityInference =
+                                    new PurityInference(atypeFactory, trees, assumeSideEffectFree);
+                        }
+                        PurityResult r =
+                                PurityChecker.checkPurity(
+                                        bodyPath,
+                                        atypeFactory,
+                                        assumeSideEffectFree,
+                                        purityInference);
                         Collection<Pure.Kind> additionalKinds = new HashSet<>(r.getTypes());
                         additionalKinds.removeAll(kinds);
                         if (TreeUtils.isConstructor(node)) {
@@ -530,6 +588,10 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                             } else {
                                 assert false : "BaseTypeVisitor reached undesirable state";
                             }
+                            Collection<Pure.Kind> suggestedKinds = EnumSet.copyOf(additionalKinds);
+                            suggestedKinds.addAll(kinds);
+                            reportInferredCallees(
+                                    r, node, methodElement, suggestedKinds, assumeSideEffectFree);
                         }
                     }
                 }
@@ -553,7 +615,8 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
 
             // Find which method this overrides!
             Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods =
-                    AnnotatedTypes.overriddenMethods(elements, atypeFactory, methodElement);
+                    AnnotatedTypes.overriddenMethods(
+                            elements, methodElement, getSupertypes(methodElement));
             for (Map.Entry<AnnotatedDeclaredType, ExecutableElement> pair :
                     overriddenMethods.entrySet()) {
                 AnnotatedDeclaredType overriddenType = pair.getKey();
@@ -586,6 +649,63 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         }
     }
 
+    /**
+     * Returns all supertypes of the class that declares {@code methodElement}. The supertypes are
+     * computed once per class rather than once per method.
+     */
+    private Collection<AnnotatedDeclaredType> getSupertypes(ExecutableElement methodElement) {
+        TypeElement owner = (TypeElement) methodElement.getEnclosingElement();
+        if (owner != currentSupertypesOwner) {
+            currentSupertypes =
+                    AnnotatedTypes.getSuperTypes(atypeFactory.getAnnotatedType(owner));
+            currentSupertypesOwner = owner;
+        }
+        return currentSupertypes;
+    }
+
+    /**
+     * Reports the unannotated callees that the purity suggested for {@code node} depends on,
+     * together with the purity annotation that each of them needs. Without these annotations, the
+     * suggested annotation of {@code node} would not verify.
+     */
+    private void reportInferredCallees(
+            PurityResult result,
+            MethodTree node,
+            ExecutableElement methodElement,
+            Collection<Pure.Kind> suggestedKinds,
+            boolean assumeSideEffectFree) {
+        List<String> callees = new ArrayList<>();
+        for (Element callee : result.getInferredCallees()) {
+            if (callee.equals(methodElement)) {
+                // A recursive call is covered by the suggestion itself.
+                continue;
+            }
+            EnumSet<Pure.Kind> calleeKinds = EnumSet.copyOf(suggestedKinds);
+            if (callee.getKind() == ElementKind.CONSTRUCTOR) {
+                // Object creation is never deterministic, see PurityChecker.
+                calleeKinds.remove(Pure.Kind.DETERMINISTIC);
+            }
+            if (assumeSideEffectFree) {
+                calleeKinds.remove(Pure.Kind.SIDE_EFFECT_FREE);
+            }
+            if (calleeKinds.size() == 2) {
+                callees.add("@Pure " + callee);
+            } else if (calleeKinds.contains(Pure.Kind.SIDE_EFFECT_FREE)) {
+                callees.add("@SideEffectFree " + callee);
+            } else if (calleeKinds.contains(Pure.Kind.DETERMINISTIC)) {
+                callees.add("@Deterministic " + callee);
+            }
+        }
+        if (!callees.isEmpty()) {
+            checker.report(
+                    Result.warning(
+                            "purity.more.pure.callees",
+                            node.getName(),
+                            PluginUtil.join(", ", callees)),
+                    node);
+        }
+    }
+
     /** Reports errors found during purity checking. */
     protected void reportPurityErrors(
             PurityResult result, MethodTree node, Collection<Pure.Kind> expectedTypes) {
@@ -1093,7 +1213,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                     checker.report(
                             Result.failure(
                                     "contracts.precondition.not.satisfied",
-                                    tree.toString(),
+                                    tree,
                                     expr == null ? expression : expr.toString()),
                             tree);
                 }
@@ -1546,7 +1666,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         // the input types to be subtypes according to Java
         if (!isTypeCastSafe(castType, exprType)) {
             checker.report(
-                    Result.warning("cast.unsafe", exprType.toString(true), castType.toString(true)),
+                    Result.warning("cast.unsafe", verboseArg(exprType), verboseArg(castType)),
                     node);
         }
     }
@@ -1930,7 +2050,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                                     "monotonic.type.incompatible",
                                     mono.getCanonicalName(),
                                     mono.getCanonicalName(),
-                                    valueType.toString()),
+                                    valueType),
                             valueTree);
                     return;
                 }
@@ -1955,19 +2075,62 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
 
         // Use an error key only if it's overridden by a checker.
         if (!success) {
-            String valueTypeString;
-            String varTypeString;
-            if (shouldPrintVerbose(varType, valueType)) {
-                valueTypeString = valueType.toString(true);
-                varTypeString = varType.toString(true);
-            } else {
-                valueTypeString = valueType.toString();
-                varTypeString = varType.toString();
+            TypePairFormatter types = new TypePairFormatter(valueType, varType);
+            checker.report(Result.failure(errorKey, types.arg(0), types.arg(1)), valueTree);
+        }
+    }
+
+    /**
+     * Formats two annotated types for a message, only if the message is output. Both types are
+     * printed verbosely if {@link #shouldPrintVerbose} requires it. Each type is formatted at most
+     * once.
+     */
+    private class TypePairFormatter {
+        private final AnnotatedTypeMirror first;
+        private final AnnotatedTypeMirror second;
+
+        /** The texts of {@link #first} and {@link #second}, or null if not yet computed. */
+        private String /*@Nullable*/ [] texts;
+
+        TypePairFormatter(AnnotatedTypeMirror first, AnnotatedTypeMirror second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        /** Returns a message argument that prints the first (0) or the second (1) type. */
+        Result.DeferredArg arg(final int index) {
+            return new Result.DeferredArg() {
+                @Override
+                protected String format() {
+                    return text(index);
+                }
+            };
+        }
+
+        private String text(int index) {
+            if (texts == null) {
+                String firstText = first.toString();
+                String secondText = second == first ? firstText : second.toString();
+                if (shouldPrintVerbose(first, second, firstText, secondText)) {
+                    firstText = first.toString(true);
+                    secondText = second == first ? firstText : second.toString(true);
+                }
+                texts = new String[] {firstText, secondText};
             }
-            checker.report(Result.failure(errorKey, valueTypeString, varTypeString), valueTree);
+            return texts[index];
         }
     }
 
+    /** Returns a message argument that prints {@code type} verbosely, if the message is output. */
+    private static Result.DeferredArg verboseArg(final AnnotatedTypeMirror type) {
+        return new Result.DeferredArg() {
+            @Override
+            protected String format() {
+                return type.toString(true);
+            }
+        };
+    }
+
     /**
      * Return whether or not the verbose toString should be used when printing the two annotated
      * types.
@@ -1978,8 +2141,18 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
      *     the same but their verbose toStrings differ
      */
     private boolean shouldPrintVerbose(AnnotatedTypeMirror atm1, AnnotatedTypeMirror atm2) {
-        String atm1ToString = atm1.toString();
-        String atm2ToString = atm2.toString();
+        return shouldPrintVerbose(atm1, atm2, atm1.toString(), atm2.toString());
+    }
+
+    /**
+     * Like {@link #shouldPrintVerbose(AnnotatedTypeMirror, AnnotatedTypeMirror)}, given the
+     * toStrings of the two types.
+     */
+    private boolean shouldPrintVerbose(
+            AnnotatedTypeMirror atm1,
+            AnnotatedTypeMirror atm2,
+            String atm1ToString,
+            String atm2ToString) {
         // If both types as strings are the same, use verbose toString.
         if (atm2ToString.equals(atm1ToString)
                 // or if neither string contains an annotation
@@ -2270,8 +2443,8 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                     Result.failure(
                             "method.invocation.invalid",
                             TreeUtils.elementFromUse(node),
-                            treeReceiver.toString(),
-                            methodReceiver.toString()),
+                            treeReceiver,
+                            methodReceiver),
                     node);
         }
     }
@@ -2305,7 +2478,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
             checker.report(
                     Result.failure(
                             "constructor.invocation.invalid",
-                            constructor.toString(),
+                            constructor,
                             invocation,
                             returnType),
                     newClassTree);
@@ -2598,6 +2771,109 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         return false;
     }
 
+    /**
+     * The inputs of the type checks of an override: the overridden method and the annotation
+     * signatures of the compared types, see {@link #addSignature}. Unlike the types themselves,
+     * which are adapted to the overriding class, the signatures of the same override in two
+     * classes are equal.
+     */
+    private static final class OverrideCheckKey {
+        private final ExecutableElement overridden;
+        private final List<Object> signature;
+        private final int hashCode;
+
+        OverrideCheckKey(ExecutableElement overridden, List<Object> signature) {
+            this.overridden = overridden;
+            this.signature = signature;
+            this.hashCode = 31 * overridden.hashCode() + signature.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OverrideCheckKey)) {
+                return false;
+            }
+            OverrideCheckKey other = (OverrideCheckKey) o;
+            return overridden == other.overridden
+                    && hashCode == other.hashCode
+                    && signature.equals(other.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Appends the annotation signature of {@code type} to {@code signature}: the annotations
+         * of the type and of all its components, in order, together with the elements that
+         * declare its class types and type variables. Underlying type mirrors are not compared,
+         * because they differ between the classes in which the same signature is viewed.
+         *
+         * @param visiting the type variables and wildcards whose bounds are being added
+         */
+        static void addSignature(
+                List<Object> signature,
+                /*@Nullable*/ AnnotatedTypeMirror type,
+                Set<AnnotatedTypeMirror> visiting) {
+            if (type == null) {
+                signature.add(null);
+                return;
+            }
+            signature.add(type.getKind());
+            for (AnnotationMirror anno : type.getAnnotations()) {
+                signature.add(anno.toString());
+            }
+            switch (type.getKind()) {
+                case DECLARED:
+                    AnnotatedDeclaredType declared = (AnnotatedDeclaredType) type;
+                    signature.add(declared.getUnderlyingType().asElement());
+                    addSignature(signature, declared.getEnclosingType(), visiting);
+                    for (AnnotatedTypeMirror typeArg : declared.getTypeArguments()) {
+                        addSignature(signature, typeArg, visiting);
+                    }
+                    break;
+                case ARRAY:
+                    addSignature(
+                            signature, ((AnnotatedArrayType) type).getComponentType(), visiting);
+                    break;
+                case TYPEVAR:
+                    AnnotatedTypeVariable typeVar = (AnnotatedTypeVariable) type;
+                    signature.add(typeVar.getUnderlyingType().asElement());
+                    if (visiting.add(type)) {
+                        addSignature(signature, typeVar.getUpperBound(), visiting);
+                        addSignature(signature, typeVar.getLowerBound(), visiting);
+                        visiting.remove(type);
+                    }
+                    break;
+                case WILDCARD:
+                    AnnotatedWildcardType wildcard = (AnnotatedWildcardType) type;
+                    if (visiting.add(type)) {
+                        addSignature(signature, wildcard.getExtendsBound(), visiting);
+                        addSignature(signature, wildcard.getSuperBound(), visiting);
+                        visiting.remove(type);
+                    }
+                    break;
+                case INTERSECTION:
+                    for (AnnotatedTypeMirror bound :
+                            ((AnnotatedIntersectionType) type).directSuperTypes()) {
+                        addSignature(signature, bound, visiting);
+                    }
+                    break;
+                case UNION:
+                    for (AnnotatedTypeMirror alternative :
+                            ((AnnotatedUnionType) type).getAlternatives()) {
+                        addSignature(signature, alternative, visiting);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // Separates the components of consecutive types.
+            signature.add(Boolean.TRUE);
+        }
+    }
+
     /**
      * Class to perform method override and method reference checks.
      *
@@ -2616,11 +2892,12 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
      * effect.
      */
     public class OverrideChecker {
-        // Strings for printing
-        protected final String overriderMeth;
-        protected final String overriderTyp;
-        protected final String overriddenMeth;
-        protected final String overriddenTyp;
+        // Message arguments for printing; they are converted to strings only when a message is
+        // output.
+        protected final Object overriderMeth;
+        protected final Object overriderTyp;
+        protected final Object overriddenMeth;
+        protected final Object overriddenTyp;
 
         protected final Tree overriderTree;
         protected final Boolean methodReference;
@@ -2665,16 +2942,16 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
             this.overriddenReturnType = overriddenReturnType;
             this.overridingReturnType = overridingReturnType;
 
-            overriderMeth = overrider.toString();
+            overriderMeth = overrider;
             if (overridingType.getKind() == TypeKind.DECLARED) {
                 DeclaredType overriderTypeMirror =
                         ((AnnotatedDeclaredType) overridingType).getUnderlyingType();
-                overriderTyp = overriderTypeMirror.asElement().toString();
+                overriderTyp = overriderTypeMirror.asElement();
             } else {
-                overriderTyp = overridingType.toString();
+                overriderTyp = overridingType;
             }
-            overriddenMeth = overridden.toString();
-            overriddenTyp = overriddenType.getUnderlyingType().asElement().toString();
+            overriddenMeth = overridden;
+            overriddenTyp = overriddenType.getUnderlyingType().asElement();
 
             this.methodReference = overriderTree.getKind() == Tree.Kind.MEMBER_REFERENCE;
         }
@@ -2689,12 +2966,22 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                 return true;
             }
 
-            boolean result = checkReturn();
-            result &= checkParameters();
-            if (methodReference) {
-                result &= checkMemberReferenceReceivers();
+            OverrideCheckKey key = createOverrideCheckKey();
+            boolean result;
+            if (key != null && successfulOverrides.contains(key)) {
+                overrideCheckCacheHits++;
+                result = true;
             } else {
-                result &= checkReceiverOverride();
+                result = checkReturn();
+                result &= checkParameters();
+                if (methodReference) {
+                    result &= checkMemberReferenceReceivers();
+                } else {
+                    result &= checkReceiverOverride();
+                }
+                if (result && key != null) {
+                    successfulOverrides.add(key);
+                }
             }
             checkPreAndPostConditions();
             checkPurity();
@@ -2702,6 +2989,47 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
             return result;
         }
 
+        /**
+         * Returns the key under which the outcome of the type checks of this override is
+         * memoized, or null if it is not memoized. Only overrides of methods read from class files
+         * by method declarations are memoized, and only when the checks are those of this class.
+         */
+        private /*@Nullable*/ OverrideCheckKey createOverrideCheckKey() {
+            if (methodReference
+                    || getClass() != OverrideChecker.class
+                    || checker.hasOption("showchecks")
+                    || !ElementUtils.isElementFromByteCode(overridden.getElement())) {
+                return null;
+            }
+            List<Object> signature = new ArrayList<>();
+            Set<AnnotatedTypeMirror> visiting =
+                    Collections.newSetFromMap(new IdentityHashMap<AnnotatedTypeMirror, Boolean>());
+            OverrideCheckKey.addSignature(signature, overridingReturnType, visiting);
+            OverrideCheckKey.addSignature(signature, overriddenReturnType, visiting);
+            // checkReceiverOverride only compares the primary annotations of the receivers.
+            signature.add(receiverAnnotations(overrider));
+            signature.add(receiverAnnotations(overridden));
+            for (AnnotatedTypeMirror param : overrider.getParameterTypes()) {
+                OverrideCheckKey.addSignature(signature, param, visiting);
+            }
+            for (AnnotatedTypeMirror param : overridden.getParameterTypes()) {
+                OverrideCheckKey.addSignature(signature, param, visiting);
+            }
+            return new OverrideCheckKey(overridden.getElement(), signature);
+        }
+
+        /** Returns the primary annotations of the receiver of {@code method}, as strings. */
+        private List<String> receiverAnnotations(AnnotatedExecutableType method) {
+            AnnotatedDeclaredType receiver = method.getReceiverType();
+            List<String> result = new ArrayList<>();
+            if (receiver != null) {
+                for (AnnotationMirror anno : receiver.getAnnotations()) {
+                    result.add(anno.toString());
+                }
+            }
+            return result;
+        }
+
         private void checkPurity() {
             String msgKey =
                     methodReference ? "purity.invalid.methodref" : "purity.invalid.overriding";
@@ -3005,8 +3333,8 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                                 overriderTyp,
                                 overriddenMeth,
                                 overriddenTyp,
-                                overriderParams.get(index).toString(),
-                                overriddenParams.get(index).toString()),
+                                overriderParams.get(index),
+                                overriddenParams.get(index)),
                         posTree);
             }
         }
@@ -3134,10 +3462,10 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
      * same (or a stronger) annotation.
      */
     private void checkContractsSubset(
-            String overriderMeth,
-            String overriderTyp,
-            String overriddenMeth,
-            String overriddenTyp,
+            Object overriderMeth,
+            Object overriderTyp,
+            Object overriddenMeth,
+            Object overriddenTyp,
             Set<Pair<Receiver, AnnotationMirror>> mustSubset,
             Set<Pair<Receiver, AnnotationMirror>> set,
             /*@CompilerMessageKey*/ String messageKey) {
@@ -3420,7 +3748,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         // basic consistency checks
         if (!AnnotatedTypes.isValidType(atypeFactory.getQualifierHierarchy(), type)) {
             checker.report(
-                    Result.failure("type.invalid", type.getAnnotations(), type.toString()), tree);
+                    Result.failure("type.invalid", type.getAnnotations(), type), tree);
             return false;
         }
 
@@ -2,15 +2,23 @@ package org.checkerframework.common.util.count;
 
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.tree.JCTree.JCAnnotation;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Name;
@@ -23,15 +31,45 @@ import javax.lang.model.util.ElementFilter;
  * <pre>
  * javac -proc:only -processor org.checkerframework.common.util.count.AnnotationsCounter <em>MyFile.java ...</em>
  * </pre>
+ *
+ * <p>By default, the total count of each annotation (by simple name) is printed at the end. With
+ * the {@code -AannotationsCsv} option, the counts are instead printed in CSV format, with the
+ * columns {@code kind,scope,annotation,count} and one row for each (fully-qualified) annotation:
+ *
+ * <ul>
+ *   <li>{@code file} rows, with the source file as the scope, are printed as soon as a compilation
+ *       unit has been counted; the counts of a file are then discarded.
+ *   <li>{@code package} rows, with the package name as the scope, and {@code annotation} rows, with
+ *       an empty scope, are printed at the end.
+ * </ul>
+ *
+ * <p>The CSV output of several runs, for example over shards of a large code base, can be merged
+ * into one by summing the counts of equal rows:
+ *
+ * <pre>
+ * java org.checkerframework.common.util.count.AnnotationsCounter <em>shard1.csv shard2.csv ...</em>
+ * </pre>
  */
 @SupportedAnnotationTypes("*")
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedOptions({"annotationsCsv"})
 public class AnnotationsCounter extends AbstractProcessor {
     final Map<Name, Integer> annotationCount = new HashMap<Name, Integer>();
 
+    /** The CSV counts, by fully-qualified annotation name; null without -AannotationsCsv. */
+    private CsvCounts csv;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        if (processingEnv.getOptions().containsKey("annotationsCsv")) {
+            csv = new CsvCounts("annotation");
+        }
+    }
+
     protected void incrementCount(Name annoName) {
         if (!annotationCount.containsKey(annoName)) {
-            annotationCount.put(annoName, 2);
+            annotationCount.put(annoName, 1);
         } else {
             annotationCount.put(annoName, annotationCount.get(annoName) + 1);
         }
@@ -41,17 +79,44 @@ public class AnnotationsCounter extends AbstractProcessor {
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
 
         if (roundEnv.processingOver()) {
+            if (csv != null) {
+                csv.finish();
+                return true;
+            }
             System.out.println("Found annotations: ");
             for (Map.Entry<Name, Integer> entry : annotationCount.entrySet()) {
                 System.out.println(entry.getKey() + "\t" + entry.getValue());
             }
             return true;
         } else {
+            // Group the classes by compilation unit, so that the counts of a file are complete
+            // when they are printed.
+            Trees trees = Trees.instance(processingEnv);
+            Map<CompilationUnitTree, List<ClassTree>> units =
+                    new LinkedHashMap<CompilationUnitTree, List<ClassTree>>();
             for (TypeElement elem : ElementFilter.typesIn(roundEnv.getRootElements())) {
-                ClassTree tree = Trees.instance(processingEnv).getTree(elem);
-                if (tree != null) {
+                TreePath path = trees.getPath(elem);
+                if (path != null) {
+                    List<ClassTree> classes = units.get(path.getCompilationUnit());
+                    if (classes == null) {
+                        classes = new ArrayList<ClassTree>();
+                        units.put(path.getCompilationUnit(), classes);
+                    }
+                    classes.add((ClassTree) path.getLeaf());
+                }
+            }
+            for (Map.Entry<CompilationUnitTree, List<ClassTree>> unit : units.entrySet()) {
+                for (ClassTree tree : unit.getValue()) {
                     tree.accept(scanner, null);
                 }
+                if (csv != null) {
+                    CompilationUnitTree root = unit.getKey();
+                    csv.finishFile(
+                            root.getSourceFile().getName(),
+                            root.getPackageName() == null
+                                    ? ""
+                                    : root.getPackageName().toString());
+                }
             }
             return false;
         }
@@ -64,7 +129,20 @@ public class AnnotationsCounter extends AbstractProcessor {
                     JCAnnotation anno = (JCAnnotation) node;
                     Name annoName = anno.annotationType.type.tsym.name;
                     incrementCount(annoName);
+                    if (csv != null) {
+                        csv.add(anno.annotationType.type.tsym.getQualifiedName().toString());
+                    }
                     return super.visitAnnotation(node, p);
                 }
             };
+
+    /**
+     * Merges the CSV output of several runs of this processor: prints one row for each distinct
+     * kind, scope, and annotation, with the sum of their counts.
+     *
+     * @param args the names of the CSV files to merge
+     */
+    public static void main(String[] args) throws IOException {
+        CsvCounts.merge("annotation", args);
+    }
 }
@@ -0,0 +1,206 @@
+package org.checkerframework.common.util.count;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts occurrences of names, such as annotation names or message keys, and prints the counts to
+ * {@code System.out} in CSV format, with the columns {@code kind,scope,<column>,count} and one row
+ * for each name:
+ *
+ * <ul>
+ *   <li>{@code file} rows, with the source file as the scope, are printed by {@link #finishFile};
+ *       the counts of a file are then discarded.
+ *   <li>{@code package} rows, with the package name as the scope, and rows whose kind is the name
+ *       of the third column, with an empty scope, are printed by {@link #finish}.
+ * </ul>
+ *
+ * Memory is therefore bounded by the number of packages and names, not by the number of files.
+ * The output of several runs can be merged with {@link #merge}.
+ *
+ * @see AnnotationsCounter
+ * @see org.checkerframework.common.util.report.ReportChecker
+ */
+public class CsvCounts {
+
+    /** The name of the third column, and the kind of the total rows. */
+    private final String column;
+
+    /** The counts of the file being processed, by name. */
+    private final Map<String, Integer> fileCount = new TreeMap<String, Integer>();
+
+    /** The counts of each package finished so far, by name. */
+    private final Map<String, Map<String, Integer>> packageCount =
+            new TreeMap<String, Map<String, Integer>>();
+
+    /** The counts of all files finished so far, by name. */
+    private final Map<String, Integer> totalCount = new TreeMap<String, Integer>();
+
+    /**
+     * Creates a new counter and prints the CSV header.
+     *
+     * @param column the name of the third column, such as {@code annotation}
+     */
+    public CsvCounts(String column) {
+        this.column = column;
+        System.out.println(header(column));
+    }
+
+    /** Counts one occurrence of {@code name} in the file being processed. */
+    public void add(String name) {
+        add(fileCount, name, 1);
+    }
+
+    /**
+     * Prints the counts of the file that was just processed, adds them to the package and total
+     * counts, and discards them.
+     *
+     * @param file the name of the file
+     * @param packageName the name of the package of the file, or the empty string
+     */
+    public void finishFile(String file, String packageName) {
+        Map<String, Integer> pkgCount = packageCount.get(packageName);
+        if (pkgCount == null) {
+            pkgCount = new TreeMap<String, Integer>();
+            packageCount.put(packageName, pkgCount);
+        }
+        printRows("file", file, fileCount);
+        for (Map.Entry<String, Integer> entry : fileCount.entrySet()) {
+            add(pkgCount, entry.getKey(), entry.getValue());
+            add(totalCount, entry.getKey(), entry.getValue());
+        }
+        fileCount.clear();
+    }
+
+    /** Prints the package and total counts of all finished files. */
+    public void finish() {
+        for (Map.Entry<String, Map<String, Integer>> pkg : packageCount.entrySet()) {
+            printRows("package", pkg.getKey(), pkg.getValue());
+        }
+        printRows(column, "", totalCount);
+    }
+
+    private static void add(Map<String, Integer> counts, String key, int count) {
+        Integer old = counts.get(key);
+        counts.put(key, old == null ? count : old + count);
+    }
+
+    /** Prints one CSV row for each name in {@code counts}. */
+    private static void printRows(String kind, String scope, Map<String, Integer> counts) {
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String count = entry.getValue().toString();
+            System.out.println(toCsvRow(Arrays.asList(kind, scope, entry.getKey(), count)));
+        }
+    }
+
+    private static String header(String column) {
+        return "kind,scope," + column + ",count";
+    }
+
+    /**
+     * Merges the CSV output of several runs: prints one row for each distinct kind, scope, and
+     * name, with the sum of their counts.
+     *
+     * @param column the name of the third column, as passed to {@link #CsvCounts(String)}
+     * @param fileNames the names of the CSV files to merge
+     * @throws IOException if a file cannot be read or contains a malformed row
+     */
+    public static void merge(String column, String[] fileNames) throws IOException {
+        String header = header(column);
+        Map<List<String>, Long> merged = new TreeMap<List<String>, Long>(ROW_ORDER);
+        for (String fileName : fileNames) {
+            BufferedReader in = new BufferedReader(new FileReader(fileName));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty() || line.equals(header)) {
+                        continue;
+                    }
+                    List<String> row = fromCsvRow(line);
+                    if (row.size() != 4) {
+                        throw new IOException(fileName + ": malformed row: " + line);
+                    }
+                    List<String> key = row.subList(0, 3);
+                    long count = Long.parseLong(row.get(3));
+                    Long old = merged.get(key);
+                    merged.put(key, old == null ? count : old + count);
+                }
+            } finally {
+                in.close();
+            }
+        }
+        System.out.println(header);
+        for (Map.Entry<List<String>, Long> entry : merged.entrySet()) {
+            List<String> row = new ArrayList<String>(entry.getKey());
+            row.add(entry.getValue().toString());
+            System.out.println(toCsvRow(row));
+        }
+    }
+
+    /** Orders rows by kind, then scope, then name. */
+    private static final Comparator<List<String>> ROW_ORDER =
+            new Comparator<List<String>>() {
+                @Override
+                public int compare(List<String> r1, List<String> r2) {
+                    for (int i = 0; i < r1.size(); i++) {
+                        int c = r1.get(i).compareTo(r2.get(i));
+                        if (c != 0) {
+                            return c;
+                        }
+                    }
+                    return 0;
+                }
+            };
+
+    /** Formats {@code fields} as a CSV row, quoting fields that contain a comma or quote. */
+    private static String toCsvRow(List<String> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0) {
+                sb.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(field);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Parses a row written by {@link #toCsvRow}. */
+    private static List<String> fromCsvRow(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,7 +1,15 @@
 package org.checkerframework.common.util.report;
 
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import java.io.IOException;
 import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.util.count.CsvCounts;
+import org.checkerframework.framework.source.Result;
 
 /**
  * The Report Checker for semantic searches.
@@ -9,6 +17,95 @@ import org.checkerframework.common.basetype.BaseTypeChecker;
  * <p>See the qualifiers for documentation.
  *
  * <p>Options: reportTreeKinds: comma-separated list of Tree.Kinds that should be reported.
+ *
+ * <p>reportCsv: instead of reporting each match as an error, print the number of matches of each
+ * message key in CSV format, with the columns {@code kind,scope,key,count}; see {@link CsvCounts}.
+ * The CSV output of several runs can be merged by running this class as a program:
+ *
+ * <pre>
+ * java org.checkerframework.common.util.report.ReportChecker <em>shard1.csv shard2.csv ...</em>
+ * </pre>
  */
-@SupportedOptions({"reportTreeKinds", "reportModifiers"})
-public class ReportChecker extends BaseTypeChecker {}
+@SupportedOptions({"reportTreeKinds", "reportModifiers", "reportCsv"})
+public class ReportChecker extends BaseTypeChecker {
+
+    /** The counts of the message keys; null without -AreportCsv. */
+    private CsvCounts csv;
+
+    /** The compilation unit whose matches are being counted; null before the first one. */
+    private CompilationUnitTree countedRoot;
+
+    @Override
+    public void initChecker() {
+        super.initChecker();
+        if (hasOption("reportCsv")) {
+            csv = new CsvCounts("key");
+        }
+    }
+
+    @Override
+    public void typeProcess(TypeElement element, TreePath tree) {
+        if (csv != null && tree.getCompilationUnit() != countedRoot) {
+            finishCountedRoot();
+            countedRoot = tree.getCompilationUnit();
+        }
+        super.typeProcess(element, tree);
+    }
+
+    /**
+     * Prints the counts of {@link #countedRoot}. The classes of a compilation unit are usually
+     * processed one after the other; if they are not, the unit gets several rows per key, which
+     * {@link CsvCounts#merge} sums.
+     */
+    private void finishCountedRoot() {
+        if (countedRoot != null) {
+            csv.finishFile(
+                    countedRoot.getSourceFile().getName(),
+                    countedRoot.getPackageName() == null
+                            ? ""
+                            : countedRoot.getPackageName().toString());
+        }
+    }
+
+    @Override
+    public void typeProcessingOver() {
+        if (csv != null) {
+            finishCountedRoot();
+            countedRoot = null;
+            csv.finish();
+        }
+        super.typeProcessingOver();
+    }
+
+    @Override
+    public void report(Result r, Object src) {
+        if (csv == null) {
+            super.report(r, src);
+            return;
+        }
+
+        String errKey = r.getMessageKeys().iterator().next();
+        if (src instanceof Tree && shouldSuppressWarnings((Tree) src, errKey)) {
+            return;
+        }
+        if (src instanceof Element && shouldSuppressWarnings((Element) src, errKey)) {
+            return;
+        }
+        if (r.isSuccess()) {
+            return;
+        }
+        for (Result.DiagMessage msg : r.getDiagMessages()) {
+            csv.add(msg.getMessageKey());
+        }
+    }
+
+    /**
+     * Merges the CSV output of several runs with the reportCsv option: prints one row for each
+     * distinct kind, scope, and key, with the sum of their counts.
+     *
+     * @param args the names of the CSV files to merge
+     */
+    public static void main(String[] args) throws IOException {
+        CsvCounts.merge("key", args);
+    }
+}
@@ -3,40 +3,54 @@ package org.checkerframework.common.value;
 import com.sun.source.tree.Tree;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.javacutil.MethodRoleIndex;
 import org.checkerframework.javacutil.TreeUtils;
 
 /** Stores methods that have special handling in the value checker. */
 class ValueMethodIdentifier {
 
-    /** String.length() method */
-    private final ExecutableElement lengthMethod;
-    /** String.startsWith(String) method */
-    private final ExecutableElement startsWithMethod;
-    /** String.endsWith(String) method */
-    private final ExecutableElement endsWithMethod;
+    /** The methods that have special handling. */
+    private enum Role {
+        /** String.length() method */
+        STRING_LENGTH,
+        /** String.startsWith(String) method */
+        STARTS_WITH,
+        /** String.endsWith(String) method */
+        ENDS_WITH
+    }
+
+    /** The roles of invoked methods. */
+    private final MethodRoleIndex<Role> methods;
 
     public ValueMethodIdentifier(ProcessingEnvironment processingEnv) {
-        lengthMethod = TreeUtils.getMethod("java.lang.String", "length", 0, processingEnv);
-        startsWithMethod = TreeUtils.getMethod("java.lang.String", "startsWith", 1, processingEnv);
-        endsWithMethod = TreeUtils.getMethod("java.lang.String", "endsWith", 1, processingEnv);
+        methods = new MethodRoleIndex<>(Role.class, processingEnv);
+        methods.add(
+                Role.STRING_LENGTH,
+                TreeUtils.getMethod("java.lang.String", "length", 0, processingEnv));
+        methods.add(
+                Role.STARTS_WITH,
+                TreeUtils.getMethod("java.lang.String", "startsWith", 1, processingEnv));
+        methods.add(
+                Role.ENDS_WITH,
+                TreeUtils.getMethod("java.lang.String", "endsWith", 1, processingEnv));
     }
 
     /** Determines whether a tree is an invocation of the {@code String.length()} method. */
     public boolean isStringLengthInvocation(Tree tree, ProcessingEnvironment processingEnv) {
-        return TreeUtils.isMethodInvocation(tree, lengthMethod, processingEnv);
+        return methods.isInvocation(tree, Role.STRING_LENGTH);
     }
 
     /** Determines whether a method is the {@code String.length()} method. */
     public boolean isStringLengthMethod(ExecutableElement method) {
-        return method.equals(lengthMethod);
+        return methods.hasRole(method, Role.STRING_LENGTH);
     }
 
     /** Determines whether a method is the {@code String.startsWith(String)} method. */
     public boolean isStartsWithMethod(ExecutableElement method) {
-        return method.equals(startsWithMethod);
+        return methods.hasRole(method, Role.STARTS_WITH);
     }
     /** Determines whether a method is the {@code String.endsWith(String)} method. */
     public boolean isEndsWithMethod(ExecutableElement method) {
-        return method.equals(endsWithMethod);
+        return methods.hasRole(method, Role.ENDS_WITH);
     }
 }
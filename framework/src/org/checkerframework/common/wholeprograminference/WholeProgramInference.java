@@ -138,4 +138,13 @@ public interface WholeProgramInference {
      * Saves the inferred results. Ideally should be called at the end of the type-checking process.
      */
     void saveResults();
+
+    /**
+     * Saves the inferred results, like {@link #saveResults()}, after combining them with the results
+     * of the other shards of the program that are given by the {@code -AinferMergeDirs} option.
+     *
+     * @param atf the annotated type factory of a given type system, whose type hierarchy will be
+     *     used to combine the results with those of other shards of the program
+     */
+    void saveResults(AnnotatedTypeFactory atf);
 }
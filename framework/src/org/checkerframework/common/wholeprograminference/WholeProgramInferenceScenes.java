@@ -94,6 +94,15 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
         helper = new WholeProgramInferenceScenesHelper(ignoreNullAssignments);
     }
 
+    /**
+     * @param ignoreNullAssignments whether assignments where the rhs is null should be ignored
+     * @param mergeDirs directories that contain the .jaif files of other shards of the program,
+     *     which are merged into the inferred types of this shard
+     */
+    public WholeProgramInferenceScenes(boolean ignoreNullAssignments, List<String> mergeDirs) {
+        helper = new WholeProgramInferenceScenesHelper(ignoreNullAssignments, mergeDirs);
+    }
+
     /**
      * Updates the parameter types of the constructor created by objectCreationNode based on
      * arguments to the constructor.
@@ -130,7 +139,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
 
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
         String methodName = JVMNames.getJVMMethodName(constructorElt);
         AMethod method = clazz.methods.vivify(methodName);
 
@@ -170,7 +179,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
         ClassSymbol classSymbol = getEnclosingClassSymbol(methodTree);
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
         String methodName = JVMNames.getJVMMethodName(methodElt);
         AMethod method = clazz.methods.vivify(methodName);
 
@@ -241,7 +250,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
 
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
 
         String methodName = JVMNames.getJVMMethodName(methodElt);
         AMethod method = clazz.methods.vivify(methodName);
@@ -315,7 +324,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
 
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
         String methodName = JVMNames.getJVMMethodName(methodTree);
         AMethod method = clazz.methods.vivify(methodName);
 
@@ -374,7 +383,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
         ClassSymbol classSymbol = getEnclosingClassSymbol(methodTree);
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
         String methodName = JVMNames.getJVMMethodName(methodElt);
         AMethod method = clazz.methods.vivify(methodName);
 
@@ -439,7 +448,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
 
         String className = classSymbol.flatname.toString();
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
 
         AField field = clazz.fields.vivify(lhs.getFieldName());
         AnnotatedTypeMirror lhsATM = atf.getAnnotatedType(lhs.getTree());
@@ -478,7 +487,7 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
         String className = classSymbol.flatname.toString();
 
         String jaifPath = helper.getJaifPath(className);
-        AClass clazz = helper.getAClass(className, jaifPath);
+        AClass clazz = helper.getAClass(className, jaifPath, atf);
 
         AMethod method = clazz.methods.vivify(JVMNames.getJVMMethodName(methodTree));
         // Method return type
@@ -495,6 +504,15 @@ public class WholeProgramInferenceScenes implements WholeProgramInference {
         helper.writeScenesToJaif();
     }
 
+    /**
+     * Write all modified scenes into .jaif files, after merging the .jaif files of the other shards
+     * of the program.
+     */
+    @Override
+    public void saveResults(AnnotatedTypeFactory atf) {
+        helper.writeScenesToJaif(atf);
+    }
+
     /**
      * Returns the ClassSymbol of the class encapsulating the node n passed as parameter.
      *
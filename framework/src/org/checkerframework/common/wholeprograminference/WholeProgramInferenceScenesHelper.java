@@ -5,9 +5,11 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -26,6 +28,8 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedNullType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.Pair;
 import scenelib.annotations.Annotation;
@@ -52,6 +56,14 @@ import scenelib.annotations.io.IndexFileWriter;
  * #jaifFilesPath} directory. Having more information in those initial .jaif files means that the
  * precision achieved by the whole-program inference analysis will be better. {@link
  * #writeScenesToJaif} rewrites the initial .jaif files, and may create new ones.
+ *
+ * <p>A large program can be split into shards that are inferred concurrently, each in its own
+ * working directory. Between iterations, each shard reads the .jaif files that the other shards
+ * wrote (see {@link #mergeDirs}) and combines them with its own by {@link #mergeScene}, which
+ * replaces the annotations of each location by their LUB. Because the LUB is commutative and
+ * associative, all shards agree on the merged annotations, regardless of the order in which the
+ * shards finished. Each shard merges the .jaif files of all classes of the other shards, not only
+ * of those it reads, so the .jaif files of every shard hold the combined result.
  */
 public class WholeProgramInferenceScenesHelper {
 
@@ -86,13 +98,58 @@ public class WholeProgramInferenceScenesHelper {
      */
     private final Set<String> modifiedScenes = new HashSet<>();
 
+    /**
+     * Directories that contain the .jaif files written by other shards of the program. When the
+     * Scene of a class is first read, the .jaif files of that class in these directories are merged
+     * into it.
+     */
+    private final List<String> mergeDirs;
+
+    /** Set of .jaif file paths whose Scenes have been merged with those of {@link #mergeDirs}. */
+    private final Set<String> mergedScenes = new HashSet<>();
+
+    /** Whether the .jaif files of all classes in {@link #mergeDirs} have been merged. */
+    private boolean mergedAllShards = false;
+
     public WholeProgramInferenceScenesHelper(boolean ignoreNullAssignments) {
+        this(ignoreNullAssignments, Collections.<String>emptyList());
+    }
+
+    /**
+     * @param ignoreNullAssignments whether assignments where the rhs is null should be ignored
+     * @param mergeDirs directories that contain the .jaif files of other shards, which are merged
+     *     into the Scenes of this shard
+     */
+    public WholeProgramInferenceScenesHelper(
+            boolean ignoreNullAssignments, List<String> mergeDirs) {
         this.ignoreNullAssignments = ignoreNullAssignments;
+        this.mergeDirs = new ArrayList<>(mergeDirs);
+    }
+
+    /**
+     * Write all modified scenes into .jaif files, like {@link #writeScenesToJaif()}.
+     *
+     * <p>Before the first write, the .jaif files of every class in {@link #mergeDirs} are merged
+     * into the Scenes of this shard, including those of classes that this shard never reads. The
+     * .jaif files written by each shard therefore contain the combined result of all shards.
+     *
+     * @param atf the annotated type factory of a given type system, whose type hierarchy will be
+     *     used to merge Scenes
+     */
+    public void writeScenesToJaif(AnnotatedTypeFactory atf) {
+        if (!mergedAllShards) {
+            mergeAllShards(atf);
+            mergedAllShards = true;
+        }
+        writeScenesToJaif();
     }
 
     /**
      * Write all modified scenes into .jaif files. (Scenes are modified by the method {@link
      * #updateAnnotationSetInScene}.)
+     *
+     * <p>Only the Scenes that have been read are merged with the .jaif files in {@link
+     * #mergeDirs}; see {@link #writeScenesToJaif(AnnotatedTypeFactory)}.
      */
     public void writeScenesToJaif() {
         // Create .jaif files directory if it doesn't exist already.
@@ -124,6 +181,27 @@ public class WholeProgramInferenceScenesHelper {
         modifiedScenes.clear();
     }
 
+    /**
+     * Merges the .jaif file of each class in {@link #mergeDirs} into the Scene of that class, as
+     * {@link #getAClass} does when the class is first read.
+     */
+    private void mergeAllShards(AnnotatedTypeFactory atf) {
+        for (String dir : mergeDirs) {
+            File[] shardJaifFiles = new File(dir).listFiles();
+            if (shardJaifFiles == null) {
+                continue;
+            }
+            for (File shardJaifFile : shardJaifFiles) {
+                String fileName = shardJaifFile.getName();
+                if (!fileName.endsWith(".jaif")) {
+                    continue;
+                }
+                String className = fileName.substring(0, fileName.length() - ".jaif".length());
+                getAClass(className, getJaifPath(className), atf);
+            }
+        }
+    }
+
     /** Returns the String representing the .jaif path of a class given its name. */
     protected String getJaifPath(String className) {
         String jaifPath = jaifFilesPath + className + ".jaif";
@@ -159,13 +237,123 @@ public class WholeProgramInferenceScenesHelper {
         return scene;
     }
 
-    /** Returns the AClass in an AScene, given a className and a jaifPath. */
-    protected AClass getAClass(String className, String jaifPath) {
+    /**
+     * Returns the AClass in an AScene, given a className and a jaifPath. The first time the Scene
+     * is read, the .jaif files of the class written by other shards are merged into it.
+     *
+     * @param className the name of the class, as used in the name of its .jaif file
+     * @param jaifPath the path of the .jaif file of the class, see {@link #getJaifPath}
+     * @param atf the annotated type factory of a given type system, whose type hierarchy will be
+     *     used to merge Scenes
+     */
+    protected AClass getAClass(String className, String jaifPath, AnnotatedTypeFactory atf) {
         // Possibly reads .jaif file to obtain a Scene.
         AScene scene = getScene(jaifPath);
+        if (!mergeDirs.isEmpty() && mergedScenes.add(jaifPath)) {
+            for (String dir : mergeDirs) {
+                File shardJaifFile = new File(dir, className + ".jaif");
+                if (!shardJaifFile.exists()) {
+                    continue;
+                }
+                AScene shardScene = new AScene();
+                try {
+                    IndexFileParser.parseFile(shardJaifFile.getPath(), shardScene);
+                } catch (IOException e) {
+                    ErrorReporter.errorAbort(
+                            "Problem while reading file in: "
+                                    + shardJaifFile.getPath()
+                                    + ". Exception message: "
+                                    + e.getMessage(),
+                            e);
+                }
+                mergeScene(scene, shardScene, atf);
+                modifiedScenes.add(jaifPath);
+            }
+        }
         return scene.classes.vivify(className);
     }
 
+    /**
+     * Merges the annotations of {@code from} into {@code into}. For each field, method return,
+     * receiver, and method parameter of {@code from} (and for their component types), an annotation
+     * supported by atf replaces the annotation of the same hierarchy in {@code into} by the LUB of
+     * both; if {@code into} has no annotation in that hierarchy, the annotation is added. Other
+     * annotations are added to {@code into} as they are.
+     *
+     * <p>The result does not depend on the order in which Scenes are merged.
+     *
+     * @param into the Scene that is modified
+     * @param from the Scene whose annotations are merged into {@code into}; it is not modified
+     * @param atf the annotated type factory of a given type system, whose type hierarchy will be
+     *     used
+     */
+    public void mergeScene(AScene into, AScene from, AnnotatedTypeFactory atf) {
+        for (Map.Entry<String, AClass> classEntry : from.classes.entrySet()) {
+            AClass intoClass = into.classes.vivify(classEntry.getKey());
+            AClass fromClass = classEntry.getValue();
+            for (Map.Entry<String, AField> field : fromClass.fields.entrySet()) {
+                mergeTypeElement(
+                        intoClass.fields.vivify(field.getKey()).type, field.getValue().type, atf);
+            }
+            for (Map.Entry<String, AMethod> methodEntry : fromClass.methods.entrySet()) {
+                AMethod intoMethod = intoClass.methods.vivify(methodEntry.getKey());
+                AMethod fromMethod = methodEntry.getValue();
+                mergeTypeElement(intoMethod.returnType, fromMethod.returnType, atf);
+                mergeTypeElement(intoMethod.receiver.type, fromMethod.receiver.type, atf);
+                for (Map.Entry<Integer, AField> param : fromMethod.parameters.entrySet()) {
+                    mergeTypeElement(
+                            intoMethod.parameters.vivify(param.getKey()).type,
+                            param.getValue().type,
+                            atf);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the annotations of {@code from}, and of its inner types, into {@code into}. See
+     * {@link #mergeScene}.
+     */
+    private void mergeTypeElement(ATypeElement into, ATypeElement from, AnnotatedTypeFactory atf) {
+        QualifierHierarchy qualHierarchy = atf.getQualifierHierarchy();
+        Set<Annotation> supportedFrom = getSupportedAnnosInSet(from.tlAnnotationsHere, atf);
+        Set<Annotation> supportedInto = getSupportedAnnosInSet(into.tlAnnotationsHere, atf);
+        for (Annotation anno : from.tlAnnotationsHere) {
+            if (!supportedFrom.contains(anno)) {
+                into.tlAnnotationsHere.add(anno);
+                continue;
+            }
+            AnnotationMirror am =
+                    AnnotationConverter.annotationToAnnotationMirror(anno, atf.getProcessingEnv());
+            AnnotationMirror top = qualHierarchy.getTopAnnotation(am);
+            Annotation sameHierarchy = null;
+            AnnotationMirror lub = am;
+            for (Annotation intoAnno : supportedInto) {
+                AnnotationMirror intoAm =
+                        AnnotationConverter.annotationToAnnotationMirror(
+                                intoAnno, atf.getProcessingEnv());
+                if (AnnotationUtils.areSame(qualHierarchy.getTopAnnotation(intoAm), top)) {
+                    sameHierarchy = intoAnno;
+                    lub = qualHierarchy.leastUpperBound(intoAm, am);
+                    break;
+                }
+            }
+            Annotation merged = AnnotationConverter.annotationMirrorToAnnotation(lub);
+            if (merged == null) {
+                continue;
+            }
+            if (sameHierarchy != null) {
+                into.tlAnnotationsHere.remove(sameHierarchy);
+                supportedInto.remove(sameHierarchy);
+            }
+            into.tlAnnotationsHere.add(merged);
+            supportedInto.add(merged);
+        }
+        for (Map.Entry<InnerTypeLocation, ATypeElement> inner : from.innerTypes.entrySet()) {
+            mergeTypeElement(into.innerTypes.vivify(inner.getKey()), inner.getValue(), atf);
+        }
+    }
+
     /**
      * Updates the set of annotations in a location of a Scene.
      *
@@ -1,5 +1,6 @@
 package org.checkerframework.framework.flow;
 
+import com.sun.source.tree.Tree;
 import java.util.List;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -8,6 +9,10 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.analysis.Analysis;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.framework.source.Result;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -100,6 +105,43 @@ public abstract class CFAbstractAnalysis<
     /** @return an identical copy of the store {@code s}. */
     public abstract S createCopiedStore(S s);
 
+    /**
+     * Returns an empty store: a store that has no information about any expression, so that the
+     * declared types are used for all of them.
+     */
+    @Override
+    protected S createTopStore() {
+        return createEmptyStore(transferFunction.usesSequentialSemantics());
+    }
+
+    /**
+     * Reports a warning at the analyzed method, lambda, or initializer, so that it can be
+     * suppressed like any other diagnostic of the checker.
+     */
+    @Override
+    protected void reportBudgetExceeded() {
+        UnderlyingAST ast = cfg.getUnderlyingAST();
+        Tree tree;
+        switch (ast.getKind()) {
+            case METHOD:
+                tree = ((CFGMethod) ast).getMethod();
+                break;
+            case LAMBDA:
+                tree = ((CFGLambda) ast).getLambdaTree();
+                break;
+            default:
+                tree = ast.getCode();
+                break;
+        }
+        checker.report(
+                Result.warning(
+                        "flow.budget.exceeded",
+                        getTransferApplications(),
+                        elapsedMillis(),
+                        cfg.getAllBlocks().size()),
+                tree);
+    }
+
     /**
      * Creates an abstract value from the annotated type mirror. The value contains the set of
      * primary annotations on the type; unless, the type is an AnnotatedWildcardType. In that case,
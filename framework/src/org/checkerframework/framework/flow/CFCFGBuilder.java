@@ -8,8 +8,12 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
 import org.checkerframework.common.basetype.BaseTypeChecker;
@@ -19,7 +23,9 @@ import org.checkerframework.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -36,6 +42,23 @@ public class CFCFGBuilder extends CFGBuilder {
     /** Type factory to provide types used during CFG building. */
     protected final AnnotatedTypeFactory factory;
 
+    /**
+     * The artificial trees created while building the current graph, with their enclosing
+     * elements. Recorded so that a checker reusing the graph can register them with its own type
+     * factory.
+     */
+    private final List<Pair<Tree, Element>> artificialTrees = new ArrayList<>();
+
+    /** The declaration annotation queries made while building the current graph. */
+    private final List<SharedCFGCache.DeclAnnotationQuery> declAnnotationQueries =
+            new ArrayList<>();
+
+    /**
+     * Whether the current graph depends on the checker or the type factory, in which case it must
+     * not be shared with other checkers through the {@link SharedCFGCache}.
+     */
+    private boolean checkerSpecific;
+
     public CFCFGBuilder(BaseTypeChecker checker, AnnotatedTypeFactory factory) {
         super(
                 checker.hasOption("assumeAssertionsAreEnabled"),
@@ -48,22 +71,88 @@ public class CFCFGBuilder extends CFGBuilder {
         this.factory = factory;
     }
 
-    /** Build the control flow graph of some code. */
+    /**
+     * Build the control flow graph of some code, or reuse the graph that another checker with the
+     * same builder settings already built for it.
+     */
     @Override
     public ControlFlowGraph run(
             CompilationUnitTree root, ProcessingEnvironment env, UnderlyingAST underlyingAST) {
         declaredClasses.clear();
         declaredLambdas.clear();
 
+        SharedCFGCache cache = factory.shouldCache ? SharedCFGCache.instance(env) : null;
+        SharedCFGCache.Key key = null;
+        if (cache != null) {
+            key =
+                    new SharedCFGCache.Key(
+                            underlyingAST,
+                            getClass(),
+                            assumeAssertionsEnabled,
+                            assumeAssertionsDisabled);
+            SharedCFGCache.Entry entry = cache.get(root, key);
+            if (entry != null && entry.isValidFor(factory)) {
+                for (Pair<Tree, Element> artificialTree : entry.artificialTrees) {
+                    factory.setPathHack(artificialTree.first, artificialTree.second);
+                }
+                declaredClasses.addAll(entry.declaredClasses);
+                declaredLambdas.addAll(entry.declaredLambdas);
+                return entry.cfg;
+            }
+        }
+
+        artificialTrees.clear();
+        declAnnotationQueries.clear();
+        checkerSpecific = false;
+
         CFTreeBuilder builder = new CFTreeBuilder(env);
         PhaseOneResult phase1result =
                 new CFCFGTranslationPhaseOne()
-                        .process(root, env, underlyingAST, exceptionalExitLabel, builder, factory);
+                        .process(
+                                root,
+                                env,
+                                underlyingAST,
+                                exceptionalExitLabel,
+                                builder,
+                                new RecordingAnnotationProvider());
         ControlFlowGraph phase2result = new CFGTranslationPhaseTwo().process(phase1result);
         ControlFlowGraph phase3result = CFGTranslationPhaseThree.process(phase2result);
+
+        if (cache != null && !checkerSpecific) {
+            cache.put(
+                    root,
+                    key,
+                    new SharedCFGCache.Entry(
+                            phase3result,
+                            declaredClasses,
+                            declaredLambdas,
+                            artificialTrees,
+                            declAnnotationQueries));
+        }
         return phase3result;
     }
 
+    /**
+     * Delegates to {@link #factory} and records the queries, which determine whether another type
+     * factory may reuse the graph.
+     */
+    private class RecordingAnnotationProvider implements AnnotationProvider {
+        @Override
+        public AnnotationMirror getDeclAnnotation(Element elt, Class<? extends Annotation> anno) {
+            AnnotationMirror result = factory.getDeclAnnotation(elt, anno);
+            declAnnotationQueries.add(
+                    new SharedCFGCache.DeclAnnotationQuery(elt, anno, result != null));
+            return result;
+        }
+
+        @Override
+        public AnnotationMirror getAnnotationMirror(Tree tree, Class<? extends Annotation> target) {
+            // Type annotations differ between checkers.
+            checkerSpecific = true;
+            return factory.getAnnotationMirror(tree, target);
+        }
+    }
+
     /*
      * Given a SourceChecker and an AssertTree, returns whether the AssertTree
      * uses an @AssumeAssertion string that is relevant to the SourceChecker.
@@ -89,6 +178,11 @@ public class CFCFGBuilder extends CFGBuilder {
 
         @Override
         protected boolean assumeAssertionsEnabledFor(AssertTree tree) {
+            ExpressionTree detail = tree.getDetail();
+            if (detail != null && detail.toString().contains("@AssumeAssertion(")) {
+                // The result depends on the warning keys of the checker.
+                checkerSpecific = true;
+            }
             if (assumeAssertionsActivatedForAssertTree(checker, tree)) {
                 return true;
             }
@@ -99,21 +193,27 @@ public class CFCFGBuilder extends CFGBuilder {
         public void handleArtificialTree(Tree tree) {
             // Record the method or class that encloses the newly created tree.
             MethodTree enclosingMethod = TreeUtils.enclosingMethod(getCurrentPath());
+            Element enclosingElement = null;
             if (enclosingMethod != null) {
-                Element methodElement = TreeUtils.elementFromDeclaration(enclosingMethod);
-                factory.setPathHack(tree, methodElement);
+                enclosingElement = TreeUtils.elementFromDeclaration(enclosingMethod);
             } else {
                 ClassTree enclosingClass = TreeUtils.enclosingClass(getCurrentPath());
                 if (enclosingClass != null) {
-                    Element classElement = TreeUtils.elementFromDeclaration(enclosingClass);
-                    factory.setPathHack(tree, classElement);
+                    enclosingElement = TreeUtils.elementFromDeclaration(enclosingClass);
                 }
             }
+            if (enclosingElement != null) {
+                factory.setPathHack(tree, enclosingElement);
+                artificialTrees.add(Pair.of(tree, enclosingElement));
+            }
         }
 
         @Override
         protected VariableTree createEnhancedForLoopIteratorVariable(
                 MethodInvocationTree iteratorCall, VariableElement variableElement) {
+            // The variable's type tree carries this checker's annotations.
+            checkerSpecific = true;
+
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
@@ -138,6 +238,9 @@ public class CFCFGBuilder extends CFGBuilder {
         @Override
         protected VariableTree createEnhancedForLoopArrayVariable(
                 ExpressionTree expression, VariableElement variableElement) {
+            // The variable's type tree carries this checker's annotations.
+            checkerSpecific = true;
+
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
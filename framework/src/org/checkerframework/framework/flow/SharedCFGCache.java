@@ -0,0 +1,210 @@
+package org.checkerframework.framework.flow;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.javacutil.AnnotationProvider;
+import org.checkerframework.javacutil.Pair;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/**
+ * Control flow graphs built by {@link CFCFGBuilder}, shared by all checkers and subcheckers that run
+ * in one compilation.
+ *
+ * <p>Every checker of a compound checker builds the CFG of each method, lambda, and initializer of
+ * a class, and these graphs are identical as long as the builders use the same settings. The first
+ * checker to build a graph stores it here and the others reuse it. A {@link ControlFlowGraph} is
+ * not modified by an analysis, so sharing it is safe; the analysis results of each checker are
+ * kept separately.
+ *
+ * <p>Graphs whose construction depended on the type factory or on the checker, such as graphs of
+ * code with an enhanced for loop or with an {@code @AssumeAssertion} assertion, are never stored.
+ * The declaration annotations consulted while building a graph, such as {@code
+ * TerminatesExecution}, may come from a checker's stub files; a stored graph is only reused by a
+ * type factory that gives the same answers.
+ *
+ * <p>Only the graphs of the current compilation unit are kept: all checkers process a class before
+ * the next class is processed, so graphs of earlier compilation units will not be requested again.
+ */
+public final class SharedCFGCache {
+
+    /** The key under which the cache is stored in the compiler context. */
+    private static final Context.Key<SharedCFGCache> CFG_CACHE_KEY =
+            new Context.Key<SharedCFGCache>();
+
+    /**
+     * Returns the cache of the compilation that {@code env} belongs to.
+     *
+     * @param env the processing environment of a checker
+     * @return the cache shared by all checkers in the compilation
+     */
+    public static SharedCFGCache instance(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        SharedCFGCache cache = context.get(CFG_CACHE_KEY);
+        if (cache == null) {
+            cache = new SharedCFGCache();
+            context.put(CFG_CACHE_KEY, cache);
+        }
+        return cache;
+    }
+
+    /** The compilation unit whose graphs are currently stored. */
+    private /*@Nullable*/ CompilationUnitTree root;
+
+    /** The stored graphs of {@link #root}. */
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    private SharedCFGCache() {}
+
+    /**
+     * Returns the stored graph for {@code key}, or null if no compatible builder has built it.
+     *
+     * @param root the compilation unit that contains the code of {@code key}
+     * @param key identifies the code and the builder settings
+     */
+    /*@Nullable*/ Entry get(CompilationUnitTree root, Key key) {
+        if (root != this.root) {
+            return null;
+        }
+        return entries.get(key);
+    }
+
+    /**
+     * Stores a graph. Discards the graphs of the previous compilation unit when {@code root}
+     * differs from it.
+     */
+    void put(CompilationUnitTree root, Key key, Entry entry) {
+        if (root != this.root) {
+            entries.clear();
+            this.root = root;
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * A built graph together with the side results of building it, which a builder that reuses the
+     * graph has to reproduce.
+     */
+    static final class Entry {
+        /** The graph. */
+        final ControlFlowGraph cfg;
+
+        /** The classes declared in the code, see {@link CFGBuilder#getDeclaredClasses()}. */
+        final List<ClassTree> declaredClasses;
+
+        /** The lambdas in the code, see {@link CFGBuilder#getDeclaredLambdas()}. */
+        final List<LambdaExpressionTree> declaredLambdas;
+
+        /**
+         * The artificial trees created for the graph and their enclosing elements, which each type
+         * factory needs to know about.
+         */
+        final List<Pair<Tree, Element>> artificialTrees;
+
+        /** The declaration annotation queries the graph depends on. */
+        final List<DeclAnnotationQuery> declAnnotationQueries;
+
+        Entry(
+                ControlFlowGraph cfg,
+                List<ClassTree> declaredClasses,
+                List<LambdaExpressionTree> declaredLambdas,
+                List<Pair<Tree, Element>> artificialTrees,
+                List<DeclAnnotationQuery> declAnnotationQueries) {
+            this.cfg = cfg;
+            this.declaredClasses = new ArrayList<>(declaredClasses);
+            this.declaredLambdas = new ArrayList<>(declaredLambdas);
+            this.artificialTrees = new ArrayList<>(artificialTrees);
+            this.declAnnotationQueries = new ArrayList<>(declAnnotationQueries);
+        }
+
+        /**
+         * Returns true if {@code provider} answers all declaration annotation queries the same way
+         * as the provider that built the graph.
+         */
+        boolean isValidFor(AnnotationProvider provider) {
+            for (DeclAnnotationQuery query : declAnnotationQueries) {
+                if ((provider.getDeclAnnotation(query.element, query.anno) != null)
+                        != query.present) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** A call of {@link AnnotationProvider#getDeclAnnotation} made while building a graph. */
+    static final class DeclAnnotationQuery {
+        final Element element;
+        final Class<? extends Annotation> anno;
+        final boolean present;
+
+        DeclAnnotationQuery(Element element, Class<? extends Annotation> anno, boolean present) {
+            this.element = element;
+            this.anno = anno;
+            this.present = present;
+        }
+    }
+
+    /**
+     * Identifies a graph: the code it was built for, compared by identity, and the builder settings
+     * that influence its shape.
+     */
+    static final class Key {
+        private final UnderlyingAST.Kind kind;
+        private final Tree code;
+        private final Class<?> builderClass;
+        private final boolean assumeAssertionsEnabled;
+        private final boolean assumeAssertionsDisabled;
+
+        Key(
+                UnderlyingAST ast,
+                Class<?> builderClass,
+                boolean assumeAssertionsEnabled,
+                boolean assumeAssertionsDisabled) {
+            this.kind = ast.getKind();
+            this.code = ast.getCode();
+            this.builderClass = builderClass;
+            this.assumeAssertionsEnabled = assumeAssertionsEnabled;
+            this.assumeAssertionsDisabled = assumeAssertionsDisabled;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return code == other.code
+                    && kind == other.kind
+                    && builderClass == other.builderClass
+                    && assumeAssertionsEnabled == other.assumeAssertionsEnabled
+                    && assumeAssertionsDisabled == other.assumeAssertionsDisabled;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(code);
+            result = 31 * result + kind.hashCode();
+            result = 31 * result + builderClass.hashCode();
+            result = 31 * result + (assumeAssertionsEnabled ? 1 : 0);
+            result = 31 * result + (assumeAssertionsDisabled ? 2 : 0);
+            return result;
+        }
+    }
+}
@@ -162,7 +162,10 @@ public final class Result {
      * <p>{@code DiagMessage} encapsulate the message key which would identify the relevant standard
      * error message according to the user locale.
      *
-     * <p>The optional arguments are possible custom strings for the error message.
+     * <p>The optional arguments are possible custom strings for the error message. An argument is
+     * converted to a string only when the message is output, after {@link SourceChecker#report}
+     * has checked whether the message is suppressed; an argument that is expensive to format can
+     * be passed as an object, such as an {@code AnnotatedTypeMirror}, or as a {@link DeferredArg}.
      */
     public static class DiagMessage {
         private final /*@CompilerMessageKey*/ String message;
@@ -214,4 +217,27 @@ public final class Result {
             return message + " : " + Arrays.toString(args);
         }
     }
+
+    /**
+     * A message argument whose text is computed only if the message is output, that is, if it is
+     * not suppressed. The text is computed at most once.
+     *
+     * <p>{@link SourceChecker#report} formats the arguments of a message before it returns, so a
+     * {@code DeferredArg} may refer to objects that the caller modifies after the report.
+     */
+    public abstract static class DeferredArg {
+        /** The text of this argument, or null if it has not been computed yet. */
+        private /*@Nullable*/ String text;
+
+        /** @return the text of this argument */
+        protected abstract String format();
+
+        @Override
+        public final String toString() {
+            if (text == null) {
+                text = format();
+            }
+            return text;
+        }
+    }
 }
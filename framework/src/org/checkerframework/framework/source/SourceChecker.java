@@ -12,6 +12,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.SourcePositions;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
@@ -26,6 +27,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -189,11 +192,25 @@ import org.checkerframework.javacutil.TreeUtils;
     // Whether to use .jaif files whole-program inference
     "infer",
 
+    // Directories with the .jaif files of other shards of whole-program
+    // inference, separated by File.pathSeparator; they are merged into the
+    // inferred types of this shard
+    // org.checkerframework.common.wholeprograminference.WholeProgramInferenceScenesHelper
+    "inferMergeDirs",
+
     // With each warning, in addition to the concrete error key,
     // output the suppress warning keys that can be used to
     // suppress that warning.
     "showSuppressWarningKeys",
 
+    // Per-method budget of the dataflow analysis: the maximal number of transfer function
+    // applications and the maximal time in milliseconds. When the budget is exceeded, a
+    // warning is issued and the analysis discards or widens its stores at every merge.
+    // org.checkerframework.dataflow.analysis.Analysis.setBudget
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.analyze
+    "flowBudget",
+    "flowTimeout",
+
     ///
     /// Partially-annotated libraries
     ///
@@ -284,6 +301,8 @@ import org.checkerframework.javacutil.TreeUtils;
     //    -Acfgviz=MyViz,a,b=c,d
     // instantiates class MyViz and calls CFGVisualizer.init
     // with {"a" -> true, "b" -> "c", "d" -> true}.
+    // For large methods, org.checkerframework.dataflow.cfg.StreamingCFGVisualizer
+    // writes the graph incrementally and can restrict or compact the output.
     "cfgviz",
 
     // Directory for .dot files generated from the CFG visualization in
@@ -307,7 +326,8 @@ import org.checkerframework.javacutil.TreeUtils;
     // org.checkerframework.framework.source.SourceChecker.shutdownHook()
     "resourceStats",
 
-    // Set the cache size for caches in AnnotatedTypeFactory
+    // Set the cache size for caches in AnnotatedTypeFactory; the given size is used for every
+    // cache, including those that are larger by default
     "atfCacheSize",
 
     // Sets AnnotatedTypeFactory shouldCache to false
@@ -350,6 +370,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** Keys for warning suppressions specified on the command line */
     private String /*@Nullable*/ [] suppressWarnings;
 
+    /**
+     * The suppression scopes of {@link #currentRoot}, or null if they have not been computed yet.
+     * Built on the first call of {@link #shouldSuppressWarnings(Tree, String)} for a compilation
+     * unit and discarded when the compilation unit changes.
+     */
+    private /*@Nullable*/ SuppressionIndex suppressionIndex;
+
+    /**
+     * Maps an Element to the suppressions that apply to it; see {@link #getElementScope}. Cleared
+     * when the compilation unit changes.
+     */
+    private final Map<Element, SuppressionScope> elementScopes = new IdentityHashMap<>();
+
     /**
      * Regular expression pattern to specify Java classes that are not annotated, so warnings about
      * uses of them should be suppressed.
@@ -403,6 +436,26 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      */
     private Map<String, String> activeOptions;
 
+    /**
+     * A copy of the result of {@link #getOptions()}, which {@link #hasOption} and {@link
+     * #getOption} read. These are called on hot paths, such as every subtyping check, and {@link
+     * #getOptions()} may compute a new map on each call (for example, to merge the options of
+     * subcheckers). Null until the first of these calls, and again after options are added.
+     *
+     * @see #getOptionSnapshot()
+     */
+    private Map<String, String> optionSnapshot;
+
+    /**
+     * The values of the lint options looked up so far: true or false if the lint option or one of
+     * its parents was given, or null if none of them was given. Cleared whenever {@link
+     * #activeLints} changes.
+     */
+    private final Map<String, Boolean> lintValues = new HashMap<String, Boolean>();
+
+    /** The result of {@link #getSupportedOptions()}, which never changes. */
+    private Set<String> supportedOptions;
+
     /**
      * The string that separates the checker name from the option name. This string may only consist
      * of valid Java identifier part characters, because it will be used within the key of an
@@ -954,6 +1007,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
         if (p.getCompilationUnit() != currentRoot) {
             currentRoot = p.getCompilationUnit();
+            suppressionIndex = null;
+            elementScopes.clear();
             if (hasOption("filenames")) {
                 message(
                         Kind.NOTE,
@@ -1098,11 +1153,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
         final String defaultFormat = String.format("(%s)", msgKey);
         String fmtString;
-        if (this.processingEnv.getOptions() != null /*nnbug*/
-                && this.processingEnv.getOptions().containsKey("nomsgtext")) {
+        if (hasOption("nomsgtext")) {
             fmtString = defaultFormat;
-        } else if (this.processingEnv.getOptions() != null /*nnbug*/
-                && this.processingEnv.getOptions().containsKey("detailedmsgtext")) {
+        } else if (hasOption("detailedmsgtext")) {
             // The -Adetailedmsgtext command-line option was given, so output
             // a stylized error message for easy parsing by a tool.
 
@@ -1152,7 +1205,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
         } else {
             final String suppressing;
-            if (this.processingEnv.getOptions().containsKey("showSuppressWarningKeys")) {
+            if (hasOption("showSuppressWarningKeys")) {
                 suppressing = String.format("[%s:%s] ", this.getSuppressWarningsKeys(), msgKey);
             } else {
                 suppressing = String.format("[%s] ", msgKey);
@@ -1199,7 +1252,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      */
     protected Object processArg(Object arg) {
         // Check to see if the argument itself is a property to be expanded
-        return messages.getProperty(arg.toString(), arg.toString());
+        String text = arg.toString();
+        return messages.getProperty(text, text);
     }
 
     /**
@@ -1249,11 +1303,11 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     public static final String DETAILS_SEPARATOR = " $$ ";
 
     /**
-     * Determines whether an error (whose error key is {@code errKey}) should be suppressed,
-     * according to the user's explicitly-written SuppressWarnings annotation {@code anno} or the
-     * {@code -AsuppressWarnings} command-line argument.
+     * Returns the keys for warning suppressions specified by the {@code -AsuppressWarnings}
+     * command-line argument.
      *
-     * <p>A @SuppressWarnings value may be of the following pattern:
+     * <p>A @SuppressWarnings value, whether written by the user or given on the command line, may
+     * be of the following pattern:
      *
      * <ol>
      *   <li>{@code "suppress-key"}, where suppress-key is a supported warnings key, as specified by
@@ -1264,27 +1318,13 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      *       would suppress any errors in the Nullness Checker related to generic.argument.
      * </ol>
      *
-     * @param anno the @SuppressWarnings annotation written by the user
-     * @param errKey the error key the checker is emitting
-     * @return true if one of {@code anno}'s keys is returned by {@link
-     *     SourceChecker#getSuppressWarningsKeys}; also accounts for errKey
+     * @return the command-line suppression keys, or null if none were given
      */
-    private boolean checkSuppressWarnings(/*@Nullable*/ SuppressWarnings anno, String errKey) {
-
-        // Don't suppress warnings if this checker provides no key to do so.
-        Collection<String> checkerSwKeys = this.getSuppressWarningsKeys();
-        if (checkerSwKeys.isEmpty()) {
-            return false;
-        }
-
-        String[] userSwKeys = (anno == null ? null : anno.value());
+    private String /*@Nullable*/ [] getCommandLineSuppressWarnings() {
         if (this.suppressWarnings == null) {
             this.suppressWarnings = createSuppressWarnings(getOptions());
         }
-        String[] cmdLineSwKeys = this.suppressWarnings;
-
-        return checkSuppressWarnings(userSwKeys, errKey)
-                || checkSuppressWarnings(cmdLineSwKeys, errKey);
+        return this.suppressWarnings;
     }
 
     /**
@@ -1342,58 +1382,388 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        // trees.getPath might be slow, but this is only used in error reporting
-        // TODO: #1586 this might return null within a cloned finally block and
-        // then a warning that should be suppressed isn't. Fix this when fixing #1586.
+        /*@Nullable*/ SuppressionScope scope = getSuppressionScope(tree);
+        return scope != null && scope.suppresses(errKey);
+    }
+
+    /**
+     * Returns the suppressions that apply to the given tree in the current compilation unit. Trees
+     * of the compilation unit are located by their source span in its {@link SuppressionIndex}.
+     * Other trees, such as trees created by the framework without positions, are located by their
+     * TreePath, which requires a scan of the compilation unit for every call.
+     *
+     * @param tree the tree that might be a source of a warning
+     * @return the suppressions that apply to tree, or null if tree cannot be located
+     */
+    private /*@Nullable*/ SuppressionScope getSuppressionScope(Tree tree) {
+        if (suppressionIndex == null) {
+            suppressionIndex = new SuppressionIndex(currentRoot);
+        }
+        /*@Nullable*/ SuppressionScope scope = suppressionIndex.scopeOf(tree);
+        if (scope != null) {
+            return scope;
+        }
+
         /*@Nullable*/ TreePath path = trees.getPath(this.currentRoot, tree);
         if (path == null) {
-            return false;
+            return null;
         }
+        return computeScope(
+                TreeUtils.enclosingVariable(path),
+                TreeUtils.enclosingMethod(path),
+                TreeUtils.enclosingClass(path));
+    }
 
-        /*@Nullable*/ VariableTree var = TreeUtils.enclosingVariable(path);
-        if (var != null && shouldSuppressWarnings(InternalUtils.symbol(var), errKey)) {
-            return true;
+    /**
+     * Computes the suppressions that apply to code whose innermost enclosing variable, method, and
+     * class declarations are the given ones.
+     *
+     * <p>A warning is suppressed if the variable, the method, or the class, or an element enclosing
+     * one of them, has an appropriate @SuppressWarnings annotation. The search stops at the method
+     * or class if it is @AnnotatedFor this checker: the enclosing elements may not have an
+     * {@literal @}AnnotatedFor. If no @AnnotatedFor is found and unchecked code defaults are used
+     * for source code, then all warnings are suppressed.
+     *
+     * @param var the innermost enclosing variable declaration, or null
+     * @param method the innermost enclosing method declaration, or null
+     * @param cls the innermost enclosing class declaration, or null
+     * @return the suppressions that apply within the given declarations
+     */
+    private SuppressionScope computeScope(
+            /*@Nullable*/ VariableTree var,
+            /*@Nullable*/ MethodTree method,
+            /*@Nullable*/ ClassTree cls) {
+        Set<String> keys = new LinkedHashSet<>();
+        boolean inDeclaration = false;
+
+        /*@Nullable*/ Element varElt = var == null ? null : InternalUtils.symbol(var);
+        if (varElt != null) {
+            inDeclaration = true;
+            Collections.addAll(keys, getElementScope(varElt).userKeys);
+        }
+
+        /*@Nullable*/ Element methodElt = method == null ? null : InternalUtils.symbol(method);
+        /*@Nullable*/ Element clsElt = cls == null ? null : InternalUtils.symbol(cls);
+        for (/*@Nullable*/ Element elt : Arrays.asList(methodElt, clsElt)) {
+            if (elt == null) {
+                continue;
+            }
+            inDeclaration = true;
+            SuppressionScope eltScope = getElementScope(elt);
+            Collections.addAll(keys, eltScope.userKeys);
+            if (eltScope.annotatedFor) {
+                return new SuppressionScope(keys, true, false, false);
+            }
         }
 
-        /*@Nullable*/ MethodTree method = TreeUtils.enclosingMethod(path);
-        if (method != null) {
-            /*@Nullable*/ Element elt = InternalUtils.symbol(method);
+        // If we got this far without hitting an @AnnotatedFor, we DO suppress the warning when
+        // unchecked code defaults are used for source code.
+        return new SuppressionScope(keys, inDeclaration, useUncheckedCodeDefault("source"), false);
+    }
 
-            if (shouldSuppressWarnings(elt, errKey)) {
-                return true;
+    /**
+     * Returns the suppressions that apply to the given element: the @SuppressWarnings values on it
+     * and on its enclosing elements, up to and including the nearest element that is
+     * {@literal @}AnnotatedFor this checker.
+     *
+     * @param elt the element
+     * @return the suppressions that apply to elt
+     */
+    private SuppressionScope getElementScope(Element elt) {
+        /*@Nullable*/ SuppressionScope scope = elementScopes.get(elt);
+        if (scope != null) {
+            return scope;
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        /*@Nullable*/ SuppressWarnings anno = elt.getAnnotation(SuppressWarnings.class);
+        if (anno != null) {
+            Collections.addAll(keys, anno.value());
+        }
+
+        boolean annotatedFor = isAnnotatedForThisCheckerOrUpstreamChecker(elt);
+        /*@Nullable*/ Element enclosing = elt.getEnclosingElement();
+        if (!annotatedFor && enclosing != null) {
+            // Do NOT check for AnnotatedFor in the enclosing elements of an @AnnotatedFor element,
+            // because they may not have an @AnnotatedFor.
+            Collections.addAll(keys, getElementScope(enclosing).userKeys);
+        }
+
+        scope = new SuppressionScope(keys, true, false, annotatedFor);
+        elementScopes.put(elt, scope);
+        return scope;
+    }
+
+    /**
+     * The warning suppressions that apply within a scope: a declaration (for {@link
+     * #getElementScope}) or a region of source code (for {@link #computeScope}). Results are
+     * memoized per error key.
+     */
+    private final class SuppressionScope {
+
+        /** The user-written @SuppressWarnings values that apply within this scope. */
+        private final String[] userKeys;
+
+        /**
+         * Whether this scope is within a declaration, in which case the {@code
+         * -AsuppressWarnings} command-line keys apply as well.
+         */
+        private final boolean inDeclaration;
+
+        /** Whether warnings that none of the suppression keys match are suppressed. */
+        private final boolean suppressOtherwise;
+
+        /** Whether the element of this scope is {@literal @}AnnotatedFor this checker. */
+        private final boolean annotatedFor;
+
+        /** Maps an error key to whether it is suppressed within this scope. */
+        private final Map<String, Boolean> results = new HashMap<>();
+
+        private SuppressionScope(
+                Set<String> userKeys,
+                boolean inDeclaration,
+                boolean suppressOtherwise,
+                boolean annotatedFor) {
+            this.userKeys = userKeys.toArray(new String[userKeys.size()]);
+            this.inDeclaration = inDeclaration;
+            this.suppressOtherwise = suppressOtherwise;
+            this.annotatedFor = annotatedFor;
+        }
+
+        /**
+         * Returns true if warnings with the given key are suppressed within this scope.
+         *
+         * @param errKey the error key the checker is emitting
+         * @return true if errKey is suppressed within this scope
+         */
+        private boolean suppresses(String errKey) {
+            /*@Nullable*/ Boolean result = results.get(errKey);
+            if (result == null) {
+                result =
+                        (inDeclaration
+                                        && (checkSuppressWarnings(userKeys, errKey)
+                                                || checkSuppressWarnings(
+                                                        getCommandLineSuppressWarnings(), errKey)))
+                                || suppressOtherwise;
+                results.put(errKey, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The declarations of a compilation unit that determine which warnings are suppressed, nested
+     * by their source spans, so that locating the scope of a warning does not require computing a
+     * TreePath. A declaration is indexed if its element has a @SuppressWarnings annotation, or if
+     * it is a top-level class, whose package may have one. When unchecked code defaults are used
+     * for source code, every method and class is indexed as well, because whether the innermost
+     * one is @AnnotatedFor this checker decides if the other warnings are suppressed.
+     *
+     * <p>Spans only narrow down where a tree can be. Whether the tree is part of the compilation
+     * unit is confirmed by searching for it, by identity, within the innermost indexed declaration
+     * whose span contains it: trees of other compilation units have positions that are
+     * meaningless in this one.
+     */
+    private final class SuppressionIndex {
+
+        /** The compilation unit. */
+        private final CompilationUnitTree unit;
+
+        /** The compilation unit, whose children are its outermost indexed declarations. */
+        private final Declaration root;
+
+        /** The source positions of the trees of the compilation unit. */
+        private final SourcePositions positions;
+
+        /** Whether every indexed declaration has a known span; otherwise the index is unused. */
+        private boolean hasSpans = true;
+
+        /** Whether every method and class is indexed, for unchecked code defaults. */
+        private final boolean indexAllMethodsAndClasses = useUncheckedCodeDefault("source");
+
+        private SuppressionIndex(CompilationUnitTree root) {
+            this.unit = root;
+            this.positions = trees.getSourcePositions();
+            this.root = new Declaration(root, null, null, null);
+            new DeclarationCollector().scan(root, this.root);
+        }
+
+        /**
+         * Returns the scope of the innermost indexed declaration that encloses the given tree.
+         *
+         * @param tree a tree that might be a source of a warning
+         * @return the suppressions that apply to tree, or null if tree has no source span or is
+         *     not part of the compilation unit
+         */
+        private /*@Nullable*/ SuppressionScope scopeOf(Tree tree) {
+            long start = positions.getStartPosition(unit, tree);
+            long end = positions.getEndPosition(unit, tree);
+            if (!hasSpans || start == Diagnostic.NOPOS || end == Diagnostic.NOPOS) {
+                return null;
             }
 
-            if (isAnnotatedForThisCheckerOrUpstreamChecker(elt)) {
-                // Return false immediately. Do NOT check for AnnotatedFor in
-                // the enclosing elements, because they may not have an
-                // @AnnotatedFor.
-                return false;
+            Declaration decl = root;
+            /*@Nullable*/ Declaration inner = decl.innerContaining(start, end);
+            while (inner != null) {
+                decl = inner;
+                inner = decl.innerContaining(start, end);
+            }
+            if (!Boolean.TRUE.equals(new TreeFinder(tree, start, end).scan(decl.tree, null))) {
+                return null;
             }
+
+            if (decl.scope == null) {
+                decl.scope = computeScope(decl.var, decl.method, decl.cls);
+            }
+            return decl.scope;
         }
 
-        /*@Nullable*/ ClassTree cls = TreeUtils.enclosingClass(path);
-        if (cls != null) {
-            /*@Nullable*/ Element elt = InternalUtils.symbol(cls);
+        /** An indexed declaration, or the compilation unit. */
+        private final class Declaration {
+            /** The declaration. */
+            private final Tree tree;
 
-            if (shouldSuppressWarnings(elt, errKey)) {
-                return true;
+            /** The span of the declaration in the compilation unit. */
+            private final long start, end;
+
+            /** The innermost indexed variable declaration enclosing this one, or this one. */
+            private final /*@Nullable*/ VariableTree var;
+
+            /** The innermost indexed method declaration enclosing this one, or this one. */
+            private final /*@Nullable*/ MethodTree method;
+
+            /** The innermost indexed class declaration enclosing this one, or this one. */
+            private final /*@Nullable*/ ClassTree cls;
+
+            /** The indexed declarations directly within this one, in source order. */
+            private final List<Declaration> children = new ArrayList<>();
+
+            /** The suppressions within this declaration; computed on first use. */
+            private /*@Nullable*/ SuppressionScope scope;
+
+            private Declaration(
+                    Tree tree,
+                    /*@Nullable*/ VariableTree var,
+                    /*@Nullable*/ MethodTree method,
+                    /*@Nullable*/ ClassTree cls) {
+                this.tree = tree;
+                this.start = positions.getStartPosition(unit, tree);
+                this.end = positions.getEndPosition(unit, tree);
+                this.var = var;
+                this.method = method;
+                this.cls = cls;
             }
 
-            if (isAnnotatedForThisCheckerOrUpstreamChecker(elt)) {
-                // Return false immediately. Do NOT check for AnnotatedFor in
-                // the enclosing elements, because they may not have an
-                // @AnnotatedFor.
-                return false;
+            /** Returns the child of this declaration whose span contains the given one, if any. */
+            private /*@Nullable*/ Declaration innerContaining(long start, long end) {
+                for (Declaration child : children) {
+                    if (child.start <= start && end <= child.end) {
+                        return child;
+                    }
+                }
+                return null;
             }
         }
 
-        if (useUncheckedCodeDefault("source")) {
-            // If we got this far without hitting an @AnnotatedFor and returning
-            // false, we DO suppress the warning.
-            return true;
+        /**
+         * Adds the indexed declarations of a compilation unit to the {@link Declaration#children}
+         * of their innermost enclosing indexed declaration, which is the parameter.
+         */
+        private final class DeclarationCollector extends TreeScanner<Void, Declaration> {
+            @Override
+            public Void scan(Tree tree, Declaration enclosing) {
+                if (tree == null) {
+                    return null;
+                }
+                Declaration decl = enclosing;
+                if (isIndexed(tree, enclosing == root)) {
+                    if (tree.getKind() == Tree.Kind.VARIABLE) {
+                        decl =
+                                new Declaration(
+                                        tree, (VariableTree) tree, enclosing.method, enclosing.cls);
+                    } else if (tree.getKind() == Tree.Kind.METHOD) {
+                        decl =
+                                new Declaration(
+                                        tree, enclosing.var, (MethodTree) tree, enclosing.cls);
+                    } else {
+                        decl =
+                                new Declaration(
+                                        tree, enclosing.var, enclosing.method, (ClassTree) tree);
+                    }
+                    if (decl.start == Diagnostic.NOPOS || decl.end == Diagnostic.NOPOS) {
+                        hasSpans = false;
+                    }
+                    enclosing.children.add(decl);
+                }
+                return super.scan(tree, decl);
+            }
+
+            /**
+             * Returns true if the given tree is a declaration that must be indexed.
+             *
+             * @param tree a tree of the compilation unit
+             * @param outermost whether no indexed declaration encloses tree
+             */
+            private boolean isIndexed(Tree tree, boolean outermost) {
+                Tree.Kind kind = tree.getKind();
+                if (TreeUtils.classTreeKinds().contains(kind)) {
+                    if (outermost || indexAllMethodsAndClasses) {
+                        return true;
+                    }
+                } else if (kind == Tree.Kind.METHOD) {
+                    if (indexAllMethodsAndClasses) {
+                        return true;
+                    }
+                } else if (kind != Tree.Kind.VARIABLE
+                        || ((VariableTree) tree).getModifiers().getAnnotations().isEmpty()) {
+                    // Most variables have no annotations; don't look up their elements.
+                    return false;
+                }
+                /*@Nullable*/ Element elt = InternalUtils.symbol(tree);
+                return elt != null && elt.getAnnotation(SuppressWarnings.class) != null;
+            }
         }
 
-        return false;
+        /**
+         * Searches a declaration for a tree, skipping the subtrees whose span does not contain the
+         * span of the tree.
+         */
+        private final class TreeFinder extends TreeScanner<Boolean, Void> {
+            /** The tree to find. */
+            private final Tree target;
+
+            /** The span of {@link #target}. */
+            private final long start, end;
+
+            private TreeFinder(Tree target, long start, long end) {
+                this.target = target;
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            public Boolean scan(Tree tree, Void p) {
+                if (tree == null) {
+                    return false;
+                }
+                if (tree == target) {
+                    return true;
+                }
+                long treeStart = positions.getStartPosition(unit, tree);
+                long treeEnd = positions.getEndPosition(unit, tree);
+                if (treeStart != Diagnostic.NOPOS
+                        && treeEnd != Diagnostic.NOPOS
+                        && (start < treeStart || treeEnd < end)) {
+                    return false;
+                }
+                return super.scan(tree, p);
+            }
+
+            @Override
+            public Boolean reduce(Boolean r1, Boolean r2) {
+                return Boolean.TRUE.equals(r1) || Boolean.TRUE.equals(r2);
+            }
+        }
     }
 
     /**
@@ -1445,17 +1815,12 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        if (checkSuppressWarnings(elt.getAnnotation(SuppressWarnings.class), errKey)) {
-            return true;
-        }
-
-        if (isAnnotatedForThisCheckerOrUpstreamChecker(elt)) {
-            // Return false immediately. Do NOT check for AnnotatedFor in the
-            // enclosing elements, because they may not have an @AnnotatedFor.
+        // Don't suppress warnings if this checker provides no key to do so.
+        if (this.getSuppressWarningsKeys().isEmpty()) {
             return false;
         }
 
-        return shouldSuppressWarnings(elt.getEnclosingElement(), errKey);
+        return getElementScope(elt).suppresses(errKey);
     }
 
     private boolean isAnnotatedForThisCheckerOrUpstreamChecker(/*@Nullable*/ Element elt) {
@@ -1569,6 +1934,21 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return def;
         }
 
+        Boolean value;
+        if (lintValues.containsKey(name)) {
+            value = lintValues.get(name);
+        } else {
+            value = findLintOption(name);
+            lintValues.put(name, value);
+        }
+        return value == null ? def : value;
+    }
+
+    /**
+     * Returns the value of the lint option with the given name in {@link #activeLints}, or null if
+     * neither it nor any of its parents was given.
+     */
+    private /*@Nullable*/ Boolean findLintOption(String name) {
         String tofind = name;
         while (tofind != null) {
             if (activeLints.contains(tofind)) {
@@ -1580,7 +1960,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             tofind = parentOfOption(tofind);
         }
 
-        return def;
+        return null;
     }
 
     /**
@@ -1631,6 +2011,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             newlints.add(String.format("-%s", name));
         }
         activeLints = Collections.unmodifiableSet(newlints);
+        lintValues.clear();
     }
 
     /**
@@ -1704,6 +2085,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         Map<String, String> activeOpts = new HashMap<String, String>(getOptions());
         activeOpts.putAll(moreopts);
         activeOptions = Collections.unmodifiableMap(activeOpts);
+        optionSnapshot = null;
     }
 
     /**
@@ -1719,6 +2101,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /**
      * Return all active options for this checker.
      *
+     * <p>{@link #hasOption} and {@link #getOption} read a copy of the result that is made on first
+     * use, and again after {@link #addOptions}. So an overriding implementation must return the
+     * same options on every call, apart from the options added by {@link #addOptions}.
+     *
      * @return all active options for this checker
      */
     @Override
@@ -1741,7 +2127,16 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     // TODO I would like to rename getLintOption to hasLintOption
     @Override
     public final boolean hasOption(String name) {
-        return getOptions().containsKey(name);
+        return getOptionSnapshot().containsKey(name);
+    }
+
+    /** Returns {@link #optionSnapshot}, which is created from {@link #getOptions()} if needed. */
+    private Map<String, String> getOptionSnapshot() {
+        if (optionSnapshot == null) {
+            optionSnapshot =
+                    Collections.unmodifiableMap(new HashMap<String, String>(getOptions()));
+        }
+        return optionSnapshot;
     }
 
     /**
@@ -1758,16 +2153,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             ErrorReporter.errorAbort("Illegal option: " + name);
         }
 
-        if (activeOptions == null) {
-            activeOptions = createActiveOptions(processingEnv.getOptions());
-        }
-
-        if (activeOptions.isEmpty()) {
-            return def;
-        }
-
-        if (activeOptions.containsKey(name)) {
-            return activeOptions.get(name);
+        Map<String, String> options = getOptionSnapshot();
+        if (options.containsKey(name)) {
+            return options.get(name);
         } else {
             return def;
         }
@@ -1779,6 +2167,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      */
     @Override
     public Set<String> getSupportedOptions() {
+        if (supportedOptions != null) {
+            return supportedOptions;
+        }
         Set<String> options = new HashSet<String>();
 
         // Support all options provided with the standard
@@ -1803,7 +2194,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         } while (clazz != null
                 && !clazz.getName().equals(AbstractTypeProcessor.class.getCanonicalName()));
 
-        return Collections.unmodifiableSet(options);
+        supportedOptions = Collections.unmodifiableSet(options);
+        return supportedOptions;
     }
 
     /**
@@ -304,6 +304,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     /** Size of LRU cache if one isn't specified using the atfCacheSize option. */
     private static final int DEFAULT_CACHE_SIZE = 300;
 
+    /** Size of {@link #bytecodeElementCache} if the atfCacheSize option isn't specified. */
+    private static final int DEFAULT_BYTECODE_CACHE_SIZE = 4000;
+
+    /** Size of {@link #boundTemplateCache} if the atfCacheSize option isn't specified. */
+    private static final int DEFAULT_BOUND_TEMPLATE_CACHE_SIZE = 1000;
+
     /** Mapping from a Tree to its annotated type; implicits have been applied. */
     private final Map<Tree, AnnotatedTypeMirror> classAndMethodTreeCache;
 
@@ -319,9 +325,32 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     private final Map<Element, AnnotatedTypeMirror> elementCache;
 
+    /**
+     * Mapping from an Element that was read from a class file, such as a member of the annotated
+     * JDK, to its annotated type; before implicits are applied. The same library members are
+     * looked up over and over during a compilation, so they are kept separately from {@link
+     * #elementCache}, where they would be evicted by the much more numerous source elements, and
+     * the lookup skips the search for a declaration tree.
+     */
+    private final Map<Element, AnnotatedTypeMirror> bytecodeElementCache;
+
     /** Mapping from an Element to the source Tree of the declaration. */
     private final Map<Element, Tree> elementToTreeCache;
 
+    /**
+     * Mapping from a type parameter to its type variable with initialized, unannotated bounds. The
+     * bounds of other uses of the type parameter are copied from the template by {@link
+     * BoundsInitializer#initializeBounds(AnnotatedTypeVariable)}, so that recursive bounds such as
+     * {@code E extends Enum<E>} are expanded only once. Null if results are not cached.
+     */
+    final Map<TypeParameterElement, AnnotatedTypeVariable> boundTemplateCache;
+
+    /** The number of templates put into {@link #boundTemplateCache}. */
+    int boundTemplatesCreated = 0;
+
+    /** The number of times the bounds of a type variable were copied from a template. */
+    int boundTemplatesCloned = 0;
+
     /**
      * Whether to ignore uninferred type arguments. This is a temporary flag to work around Issue
      * 979.
@@ -362,15 +391,25 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
             int cacheSize = getCacheSize();
+            // The atfCacheSize option sets the size of all caches.
+            boolean defaultCacheSize = checker.getOption("atfCacheSize") == null;
             this.classAndMethodTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.fromTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementCache = CollectionUtils.createLRUCache(cacheSize);
+            this.bytecodeElementCache =
+                    CollectionUtils.createLRUCache(
+                            defaultCacheSize ? DEFAULT_BYTECODE_CACHE_SIZE : cacheSize);
             this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
+            this.boundTemplateCache =
+                    CollectionUtils.createLRUCache(
+                            defaultCacheSize ? DEFAULT_BOUND_TEMPLATE_CACHE_SIZE : cacheSize);
         } else {
             this.classAndMethodTreeCache = null;
             this.fromTreeCache = null;
             this.elementCache = null;
+            this.bytecodeElementCache = null;
             this.elementToTreeCache = null;
+            this.boundTemplateCache = null;
         }
 
         this.typeFormatter = createAnnotatedTypeFormatter();
@@ -379,10 +418,20 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         infer = checker.hasOption("infer");
         if (infer) {
             checkInvalidOptionsInferSignatures();
+            List<String> mergeDirs = new ArrayList<>();
+            String mergeDirsOption = checker.getOption("inferMergeDirs");
+            if (mergeDirsOption != null) {
+                for (String dir : mergeDirsOption.split(File.pathSeparator)) {
+                    if (!dir.isEmpty()) {
+                        mergeDirs.add(dir);
+                    }
+                }
+            }
             wholeProgramInference =
                     new WholeProgramInferenceScenes(
                             !"NullnessAnnotatedTypeFactory"
-                                    .equals(this.getClass().getSimpleName()));
+                                    .equals(this.getClass().getSimpleName()),
+                            mergeDirs);
         }
         ignoreUninferredTypeArguments = !checker.hasOption("conservativeUninferredTypeArguments");
     }
@@ -535,9 +584,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             fromTreeCache.clear();
             classAndMethodTreeCache.clear();
 
-            // There is no need to clear the following cache, it is limited by cache size and it
-            // contents won't change between compilation units.
+            // There is no need to clear the following caches, they are limited by cache size and
+            // their contents won't change between compilation units.
             // elementCache.clear();
+            // bytecodeElementCache.clear();
         }
     }
 
@@ -932,6 +982,26 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         }
     }
 
+    /**
+     * Returns the number of type parameters whose bounds were initialized from scratch and cached
+     * as templates.
+     *
+     * @return the number of bound templates created by this factory
+     */
+    public int getBoundTemplatesCreated() {
+        return boundTemplatesCreated;
+    }
+
+    /**
+     * Returns the number of times the bounds of a type variable were copied from a cached
+     * template instead of being initialized from scratch.
+     *
+     * @return the number of bound templates copied by this factory
+     */
+    public int getBoundTemplatesCloned() {
+        return boundTemplatesCloned;
+    }
+
     /**
      * Returns an AnnotatedTypeMirror representing the annotated type of {@code elt}.
      *
@@ -1032,7 +1102,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             // Write scenes into .jaif files. In order to perform the write
             // operation only once for each .jaif file, the best location to
             // do so is here.
-            wholeProgramInference.saveResults();
+            wholeProgramInference.saveResults(this);
         }
     }
 
@@ -1072,13 +1142,20 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = bytecodeElementCache.get(elt);
+            if (cached == null) {
+                cached = elementCache.get(elt);
+            }
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
         }
         AnnotatedTypeMirror type;
+        boolean fromByteCode = false;
 
         // Because of a bug in Java 8, annotations on type parameters are not stored in elements,
         // so get explicit annotations from the tree. (This bug has been fixed in Java 9.)
@@ -1097,6 +1174,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             if (elt instanceof ExecutableElement || elt instanceof VariableElement) {
                 annotateInheritedFromClass(type);
             }
+            fromByteCode = ElementUtils.isElementFromByteCode(elt);
         } else if (decl instanceof ClassTree) {
             type = fromClass((ClassTree) decl);
         } else if (decl instanceof VariableTree) {
@@ -1118,7 +1196,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // method before the stub files are fully read can return incorrect
         // results.
         if (shouldCache && typesFromStubFiles != null) {
-            elementCache.put(elt, type.deepCopy());
+            if (fromByteCode) {
+                bytecodeElementCache.put(elt, type.deepCopy());
+            } else {
+                elementCache.put(elt, type.deepCopy());
+            }
         }
         return type;
     }
@@ -1,7 +1,10 @@
 package org.checkerframework.framework.type;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
@@ -26,6 +29,7 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.tools.Diagnostic.Kind;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.util.AnnotatedTypes;
+import org.checkerframework.framework.util.QualifierManifestGenerator;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
@@ -44,6 +48,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * <p>To load annotations using this class, their directory structure and package structure must be
  * identical.
  *
+ * <p>If the qual package contains a file named {@value #QUALIFIER_MANIFEST}, as written by {@link
+ * QualifierManifestGenerator}, the annotation class names are read from that file instead of
+ * scanning the jar file or directory that contains the package. A manifest in a directory, as in a
+ * development build, is ignored if it does not list exactly the class files of that directory, so
+ * that a manifest written before a qualifier was added does not hide that qualifier. A manifest in
+ * a jar file is trusted, since the build writes it just before packaging the classes.
+ *
  * <p>Only annotation classes that have the {@link Target} meta-annotation with the value of {@link
  * ElementType#TYPE_USE} (and optionally {@link ElementType#TYPE_PARAMETER}) are loaded. If it has
  * other {@link ElementType} values, it won't be loaded. Other annotation classes must be manually
@@ -75,6 +86,12 @@ public class AnnotationClassLoader {
     // For loading from external directories
     private static final String JAVA_SUFFIX = ".java";
 
+    /**
+     * The name of the file, in a checker's qual package, that lists the fully qualified names of
+     * the classes in that package. Blank lines and lines starting with {@code #} are ignored.
+     */
+    public static final String QUALIFIER_MANIFEST = "qualifiers.txt";
+
     // Constants
     private static final char DOT = '.';
     private static final char SLASH = '/';
@@ -479,11 +496,15 @@ public class AnnotationClassLoader {
                 return loadedAnnotations;
             }
 
-            // retrieve the fully qualified class names of the annotations
-            Set<String> annotationNames = null;
+            // retrieve the fully qualified class names of the annotations,
+            // preferably from the qualifier manifest, which avoids scanning
+            Set<String> annotationNames = getAnnotationNamesFromManifest();
 
-            // see whether the resource URL has a protocol of jar or file
-            if (resourceURL.getProtocol().equals("jar")) {
+            // if there is no manifest, see whether the resource URL has a
+            // protocol of jar or file and scan accordingly
+            if (annotationNames != null) {
+                // the qual package has a manifest, so there is nothing to scan
+            } else if (resourceURL.getProtocol().equals("jar")) {
                 // if the checker class file is contained within a jar, then the
                 // resource URL for the qual directory will have the protocol
                 // "jar". This means the whole checker is loaded as a jar file.
@@ -519,6 +540,80 @@ public class AnnotationClassLoader {
         return loadedAnnotations;
     }
 
+    /**
+     * Returns the URL of the qualifier manifest of the qual package, if the package has one.
+     *
+     * @return the URL of the {@value #QUALIFIER_MANIFEST} file in the qual package, or null if
+     *     there is none
+     */
+    private final /*@Nullable*/ URL getManifestURL() {
+        ClassLoader applicationClassloader = getAppClassLoader();
+        if (applicationClassloader != null) {
+            return applicationClassloader.getResource(
+                    packageNameWithSlashes + SLASH + QUALIFIER_MANIFEST);
+        }
+
+        // resourceURL was found by scanning the classpaths: it refers either
+        // to the root of a jar or to the qual directory itself
+        try {
+            if (resourceURL.getProtocol().equals("jar")) {
+                return new URL(resourceURL, packageNameWithSlashes + SLASH + QUALIFIER_MANIFEST);
+            } else if (resourceURL.getProtocol().equals("file")) {
+                File manifest = new File(resourceURL.getFile(), QUALIFIER_MANIFEST);
+                return manifest.isFile() ? manifest.toURI().toURL() : null;
+            }
+        } catch (MalformedURLException e) {
+            // fall back to scanning
+        }
+        return null;
+    }
+
+    /**
+     * Reads the annotation class names listed in the qualifier manifest of the qual package.
+     *
+     * @return a set of fully qualified class names of the annotations, or null if the qual package
+     *     has no manifest, it cannot be read, or it is out of date
+     */
+    private final /*@Nullable*/ Set<String> getAnnotationNamesFromManifest() {
+        URL manifestURL = getManifestURL();
+        if (manifestURL == null) {
+            return null;
+        }
+
+        Set<String> annos = new LinkedHashSet<String>();
+        try (InputStream in = manifestURL.openStream();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                // ignore entries that are not in the qual package, e.g. from
+                // a manifest copied into the wrong directory
+                if (line.startsWith(packageName)) {
+                    annos.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // a missing or unreadable manifest is not an error: scan instead
+            return null;
+        }
+
+        if (manifestURL.getProtocol().equals("file")) {
+            // classes may have been added to or removed from the directory
+            // since the manifest was written; listing it is cheap
+            File qualDir = new File(manifestURL.getFile()).getParentFile();
+            Set<String> classNames =
+                    getAnnotationNamesFromDirectory(
+                            packageName + DOT, qualDir.getAbsolutePath(), qualDir, CLASS_SUFFIX);
+            if (!classNames.equals(annos)) {
+                return null;
+            }
+        }
+        return annos;
+    }
+
     /**
      * Retrieves the annotation class file names from the qual directory contained inside a jar
      *
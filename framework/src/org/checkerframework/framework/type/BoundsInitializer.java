@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.DeclaredType;
@@ -36,8 +37,13 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
 import org.checkerframework.framework.type.visitor.AnnotatedTypeVisitor;
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.InternalUtils;
 import org.checkerframework.javacutil.TypesUtils;
 
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
 /**
  * BoundsInitializer creates AnnotatedTypeMirrors (without annotations) for the bounds of type
  * variables and wildcards. Its static helper methods are called from AnnotatedTypeMirror. When an
@@ -135,12 +141,60 @@ public class BoundsInitializer {
 
     /**
      * Create the entire lower bound and upper bound, with no missing information, for typeVar. If a
-     * typeVar is recursive the appropriate cycles will be introduced in the type
+     * typeVar is recursive the appropriate cycles will be introduced in the type. If typeVar is the
+     * type variable of a type parameter, its bounds are copied from a template that is initialized
+     * once per type parameter; see {@link #getTemplateKey}.
      *
      * @param typeVar the type variable whose lower bound is being initialized
      */
     public static void initializeBounds(final AnnotatedTypeVariable typeVar) {
-        initializeBounds(typeVar, null);
+        final AnnotatedTypeFactory typeFactory = typeVar.atypeFactory;
+        final TypeParameterElement typeParameter = getTemplateKey(typeVar);
+        if (typeParameter == null) {
+            initializeBounds(typeVar, null);
+            return;
+        }
+
+        final AnnotatedTypeVariable template = typeFactory.boundTemplateCache.get(typeParameter);
+        if (template == null) {
+            initializeBounds(typeVar, null);
+            typeFactory.boundTemplateCache.put(typeParameter, typeVar.deepCopy(false));
+            typeFactory.boundTemplatesCreated++;
+        } else {
+            final Set<AnnotationMirror> annos = saveAnnotations(typeVar);
+            final AnnotatedTypeVariable copy = template.deepCopy(false);
+            typeVar.setUpperBound(copy.getUpperBoundField());
+            typeVar.setLowerBound(copy.getLowerBoundField());
+            restoreAnnotations(typeVar, annos);
+            typeFactory.boundTemplatesCloned++;
+        }
+    }
+
+    /**
+     * Returns the type parameter whose bound template in {@link
+     * AnnotatedTypeFactory#boundTemplateCache} can be copied into {@code typeVar}, or null if the
+     * bounds of {@code typeVar} must be initialized from scratch.
+     *
+     * <p>The bounds created for a type variable depend only on its underlying type, not on its
+     * annotations, so every use of a type parameter gets a structurally identical copy of the same
+     * bounds, even for recursive bounds such as {@code E extends Enum<E>}. Only the declared type
+     * variable of a type parameter is cached: a captured type variable is specific to one
+     * expression, and a substituted type variable has different bounds than its type parameter.
+     */
+    private static /*@Nullable*/ TypeParameterElement getTemplateKey(
+            final AnnotatedTypeVariable typeVar) {
+        if (typeVar.atypeFactory.boundTemplateCache == null) {
+            return null;
+        }
+        final TypeVariable underlyingType = typeVar.getUnderlyingType();
+        if (InternalUtils.isCaptured(underlyingType)) {
+            return null;
+        }
+        final Element element = underlyingType.asElement();
+        if (!(element instanceof TypeParameterElement) || element.asType() != underlyingType) {
+            return null;
+        }
+        return (TypeParameterElement) element;
     }
 
     /**
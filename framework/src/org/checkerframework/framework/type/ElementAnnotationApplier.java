@@ -76,7 +76,7 @@ public class ElementAnnotationApplier {
             TypeVarUseApplier.apply(type, element, typeFactory);
 
         } else if (VariableApplier.accepts(type, element)) {
-            VariableApplier.apply(type, element);
+            VariableApplier.apply(type, element, typeFactory);
 
         } else if (MethodApplier.accepts(type, element)) {
             MethodApplier.apply(type, element, typeFactory);
@@ -118,7 +118,11 @@ public class ElementAnnotationApplier {
      */
     public static void annotateSupers(
             List<AnnotatedDeclaredType> supertypes, TypeElement subtypeElement) {
-        SuperTypeApplier.annotateSupers(supertypes, subtypeElement);
+        if (supertypes.isEmpty()) {
+            return;
+        }
+        SuperTypeApplier.annotateSupers(
+                supertypes, subtypeElement, supertypes.get(0).atypeFactory);
     }
 
     /**
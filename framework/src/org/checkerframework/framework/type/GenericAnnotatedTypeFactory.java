@@ -170,6 +170,15 @@ public abstract class GenericAnnotatedTypeFactory<
     /** An empty store. */
     private Store emptyStore;
 
+    /**
+     * The maximal number of transfer function applications of each analysis, or -1. Set by the
+     * -AflowBudget option.
+     */
+    private final int flowBudget;
+
+    /** The maximal time in milliseconds of each analysis, or -1. Set by the -AflowTimeout option. */
+    private final long flowTimeout;
+
     /**
      * Caches for {@link AnalysisResult#runAnalysisFor(Node, boolean, TransferInput, Map)}. This
      * cache is enabled if {@link #shouldCache} is true. The cache size is derived from {@link
@@ -207,6 +216,9 @@ public abstract class GenericAnnotatedTypeFactory<
 
         this.cfgVisualizer = createCFGVisualizer();
 
+        this.flowBudget = (int) Math.min(getBudgetOption("flowBudget"), Integer.MAX_VALUE);
+        this.flowTimeout = getBudgetOption("flowTimeout");
+
         if (shouldCache) {
             int cacheSize = getCacheSize();
             flowResultAnalysisCaches = CollectionUtils.createLRUCache(cacheSize);
@@ -236,6 +248,27 @@ public abstract class GenericAnnotatedTypeFactory<
         this.parseStubFiles();
     }
 
+    /**
+     * Returns the non-negative integer supplied to the checker via the given option, or -1 if the
+     * option is not given.
+     */
+    private long getBudgetOption(String name) {
+        String option = checker.getOption(name);
+        if (option == null) {
+            return -1;
+        }
+        try {
+            long value = Long.parseLong(option);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        ErrorReporter.errorAbort(name + " was not a non-negative integer: " + option);
+        return -1; // dead code
+    }
+
     /**
      * Preforms flow-sensitive type refinement on {@code classTree} if this type factory is
      * configured to do so.
@@ -499,7 +532,7 @@ public abstract class GenericAnnotatedTypeFactory<
     // See Issue 683
     // https://github.com/typetools/checker-framework/issues/683
     protected final QualifierDefaults createQualifierDefaults() {
-        QualifierDefaults defs = new QualifierDefaults(elements, this);
+        QualifierDefaults defs = new QualifierDefaults(elements, this, getCacheSize());
         addCheckedCodeDefaults(defs);
         addCheckedStandardDefaults(defs);
         addUncheckedCodeDefaults(defs);
@@ -925,6 +958,11 @@ public abstract class GenericAnnotatedTypeFactory<
     /**
      * Perform a org.checkerframework.dataflow analysis over a single class tree and its nested
      * classes.
+     *
+     * <p>Each class is analyzed at most once per compilation unit: the results are keyed by tree
+     * identity and kept until {@link #setRoot} is called with a different compilation unit. They
+     * cannot be reused for a later compilation of an unchanged member, because the abstract values
+     * refer to the types and annotations of the compilation that produced them.
      */
     protected void performFlowAnalysis(ClassTree classTree) {
         if (flowResult == null) {
@@ -1138,6 +1176,7 @@ public abstract class GenericAnnotatedTypeFactory<
         CFGBuilder builder = new CFCFGBuilder(checker, this);
         ControlFlowGraph cfg = builder.run(root, processingEnv, ast);
         FlowAnalysis newAnalysis = createFlowAnalysis(fieldValues);
+        newAnalysis.setBudget(flowBudget, flowTimeout);
         TransferFunction transfer = newAnalysis.getTransferFunction();
         if (emptyStore == null) {
             emptyStore = newAnalysis.createEmptyStore(transfer.usesSequentialSemantics());
@@ -56,7 +56,11 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
  */
 public class AnnotatedTypeScanner<R, P> implements AnnotatedTypeVisitor<R, P> {
 
-    // To prevent infinite loops
+    /**
+     * To prevent infinite loops. Arrays, primitives, and declared types without type arguments are
+     * not recorded, because they cannot be part of a cycle by themselves (see {@link
+     * #cannotBeRecursive}). The map is reused by all scans of this scanner.
+     */
     protected final Map<AnnotatedTypeMirror, R> visitedNodes =
             new IdentityHashMap<AnnotatedTypeMirror, R>();
 
@@ -65,7 +69,48 @@ public class AnnotatedTypeScanner<R, P> implements AnnotatedTypeVisitor<R, P> {
      * to clear their additional state; they must call the super implementation.
      */
     public void reset() {
-        visitedNodes.clear();
+        // IdentityHashMap.clear() overwrites the whole table even if the map is empty, and most
+        // scans record no types.
+        if (!visitedNodes.isEmpty()) {
+            visitedNodes.clear();
+        }
+    }
+
+    /**
+     * Returns true if {@code type} cannot be part of a cycle of types, so that a scanner need not
+     * record that it visited {@code type}: {@code type} is a primitive, null, or no type, a
+     * declared type without type arguments whose enclosing types have no type arguments, or an
+     * array of such a type. A cycle always passes through a type variable, a wildcard, an
+     * intersection, a union, or the type arguments of a declared type.
+     *
+     * @param type the type to check
+     * @return true if {@code type} cannot be part of a cycle of types
+     */
+    static boolean cannotBeRecursive(AnnotatedTypeMirror type) {
+        while (type != null) {
+            switch (type.getKind()) {
+                case ARRAY:
+                    type = ((AnnotatedArrayType) type).getComponentType();
+                    break;
+                case DECLARED:
+                    AnnotatedDeclaredType declared = (AnnotatedDeclaredType) type;
+                    if (!declared.getTypeArguments().isEmpty()) {
+                        return false;
+                    }
+                    type = declared.getEnclosingType();
+                    break;
+                case TYPEVAR:
+                case WILDCARD:
+                case INTERSECTION:
+                case UNION:
+                case EXECUTABLE:
+                    return false;
+                default:
+                    // Primitive, null, and no types have no component types.
+                    return true;
+            }
+        }
+        return true;
     }
 
     /**
@@ -1,7 +1,9 @@
 package org.checkerframework.framework.type.visitor;
 
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
@@ -87,6 +89,15 @@ public abstract class EquivalentAtmComboScanner<RETURN_TYPE, PARAM>
         return reduce(scan(type1, type2, param), r);
     }
 
+    /**
+     * Returns true if the visit of {@code type1} and {@code type2} must be recorded in {@link
+     * #visited} to prevent infinite loops, that is, unless neither type can be part of a cycle.
+     */
+    private static boolean mayBeRecursive(AnnotatedTypeMirror type1, AnnotatedTypeMirror type2) {
+        return !AnnotatedTypeScanner.cannotBeRecursive(type1)
+                || !AnnotatedTypeScanner.cannotBeRecursive(type2);
+    }
+
     protected RETURN_TYPE reduce(RETURN_TYPE r1, RETURN_TYPE r2) {
         if (r1 == null) {
             return r2;
@@ -97,6 +108,9 @@ public abstract class EquivalentAtmComboScanner<RETURN_TYPE, PARAM>
     @Override
     public RETURN_TYPE visitArray_Array(
             AnnotatedArrayType type1, AnnotatedArrayType type2, PARAM param) {
+        if (!mayBeRecursive(type1, type2)) {
+            return scan(type1.getComponentType(), type2.getComponentType(), param);
+        }
         if (visited.contains(type1, type2)) {
             return visited.getResult(type1, type2);
         }
@@ -108,6 +122,9 @@ public abstract class EquivalentAtmComboScanner<RETURN_TYPE, PARAM>
     @Override
     public RETURN_TYPE visitDeclared_Declared(
             AnnotatedDeclaredType type1, AnnotatedDeclaredType type2, PARAM param) {
+        if (!mayBeRecursive(type1, type2)) {
+            return scan(type1.getTypeArguments(), type2.getTypeArguments(), param);
+        }
         if (visited.contains(type1, type2)) {
             return visited.getResult(type1, type2);
         }
@@ -200,12 +217,27 @@ public abstract class EquivalentAtmComboScanner<RETURN_TYPE, PARAM>
         return r;
     }
 
+    /**
+     * The visited pairs of types, by first and second type. This scanner is usually reused for many
+     * scans (for example, by AnnotatedTypeMirror.equals), so the maps of the second types are
+     * pooled rather than allocated anew for each scan.
+     */
     protected class Visited {
 
         private final Map<AnnotatedTypeMirror, Map<AnnotatedTypeMirror, RETURN_TYPE>> visits =
                 new IdentityHashMap<>();
 
+        /** Empty maps of second types, to be reused by {@link #add}. */
+        private final List<Map<AnnotatedTypeMirror, RETURN_TYPE>> pool = new ArrayList<>();
+
         public void clear() {
+            if (visits.isEmpty()) {
+                return;
+            }
+            for (Map<AnnotatedTypeMirror, RETURN_TYPE> recordFor1 : visits.values()) {
+                recordFor1.clear();
+                pool.add(recordFor1);
+            }
             visits.clear();
         }
 
@@ -230,7 +262,12 @@ public abstract class EquivalentAtmComboScanner<RETURN_TYPE, PARAM>
                 final RETURN_TYPE ret) {
             Map<AnnotatedTypeMirror, RETURN_TYPE> recordFor1 = visits.get(type1);
             if (recordFor1 == null) {
-                recordFor1 = new IdentityHashMap<AnnotatedTypeMirror, RETURN_TYPE>();
+                if (pool.isEmpty()) {
+                    // Usually type1 is only visited together with one type.
+                    recordFor1 = new IdentityHashMap<AnnotatedTypeMirror, RETURN_TYPE>(2);
+                } else {
+                    recordFor1 = pool.remove(pool.size() - 1);
+                }
                 visits.put(type1, recordFor1);
             }
 
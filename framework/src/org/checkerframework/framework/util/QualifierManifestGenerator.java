@@ -0,0 +1,139 @@
+package org.checkerframework.framework.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.checkerframework.framework.type.AnnotationClassLoader;
+
+/**
+ * Utility that writes the qualifier manifests read by {@link AnnotationClassLoader}. The {@link
+ * #main} method walks a directory of compiled classes and, in every directory named {@code qual},
+ * writes a file named {@value AnnotationClassLoader#QUALIFIER_MANIFEST} that lists the fully
+ * qualified names of the classes in that directory and its sub-directories, one per line.
+ *
+ * <p>With a manifest in place, the loader does not have to scan the classpath or enumerate the
+ * entries of a jar file to find a checker's qualifiers. The Checker Framework build runs this
+ * utility before creating framework.jar and checker.jar. Checker writers can run it on their own
+ * class output directory before packaging a checker:
+ *
+ * <pre>{@code
+ * java -cp checker.jar org.checkerframework.framework.util.QualifierManifestGenerator build/classes
+ * }</pre>
+ *
+ * A directory without a manifest is still handled by scanning, so running this utility is optional.
+ */
+public class QualifierManifestGenerator {
+
+    /** The name of the directories that contain a checker's qualifiers. */
+    private static final String QUAL_DIRECTORY = "qual";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /** Sorts files by name, in the same order that {@link AnnotationClassLoader} uses. */
+    private static final Comparator<File> BY_NAME =
+            new Comparator<File>() {
+                @Override
+                public int compare(File o1, File o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            };
+
+    /**
+     * Writes a qualifier manifest into every qual directory under each of the given class
+     * directories.
+     *
+     * @param args the root directories of compiled classes, such as {@code build}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println(
+                    "Usage: java "
+                            + QualifierManifestGenerator.class.getName()
+                            + " <class directory> ...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            File root = new File(arg);
+            if (!root.isDirectory()) {
+                System.err.println(arg + " is not a directory");
+                System.exit(1);
+            }
+            writeManifests(root, "");
+        }
+    }
+
+    /**
+     * Recursively descends from {@code dir}, writing a manifest into each qual directory found.
+     *
+     * @param dir the current directory
+     * @param packagePrefix the package that corresponds to {@code dir}, with a trailing dot, or the
+     *     empty string for the root directory
+     */
+    private static void writeManifests(File dir, String packagePrefix) throws IOException {
+        if (dir.getName().equals(QUAL_DIRECTORY) && !packagePrefix.isEmpty()) {
+            writeManifest(dir, packagePrefix);
+        }
+        for (File file : sortedContents(dir)) {
+            if (file.isDirectory()) {
+                writeManifests(file, packagePrefix + file.getName() + '.');
+            }
+        }
+    }
+
+    /**
+     * Writes the manifest for a single qual directory.
+     *
+     * @param qualDir the qual directory
+     * @param packagePrefix the package that corresponds to {@code qualDir}, with a trailing dot
+     */
+    private static void writeManifest(File qualDir, String packagePrefix) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        collectClassNames(qualDir, packagePrefix, classNames);
+
+        File manifest = new File(qualDir, AnnotationClassLoader.QUALIFIER_MANIFEST);
+        try (PrintWriter out =
+                new PrintWriter(
+                        new OutputStreamWriter(new FileOutputStream(manifest), "UTF-8"))) {
+            out.println("# Generated by " + QualifierManifestGenerator.class.getName());
+            for (String className : classNames) {
+                out.println(className);
+            }
+        }
+    }
+
+    /**
+     * Adds the names of all class files in {@code dir} and its sub-directories to {@code result},
+     * in the order in which {@link AnnotationClassLoader} would find them when scanning.
+     */
+    private static void collectClassNames(File dir, String packagePrefix, List<String> result) {
+        for (File file : sortedContents(dir)) {
+            String fileName = file.getName();
+            if (file.isFile()) {
+                if (fileName.endsWith(CLASS_SUFFIX)) {
+                    result.add(
+                            packagePrefix
+                                    + fileName.substring(
+                                            0, fileName.length() - CLASS_SUFFIX.length()));
+                }
+            } else if (file.isDirectory()) {
+                collectClassNames(file, packagePrefix + fileName + '.', result);
+            }
+        }
+    }
+
+    /** Returns the contents of {@code dir}, sorted by name. */
+    private static List<File> sortedContents(File dir) {
+        File[] contents = dir.listFiles();
+        if (contents == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(contents, BY_NAME);
+        return Arrays.asList(contents);
+    }
+}
@@ -1,5 +1,6 @@
 package org.checkerframework.framework.util;
 
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.Tree;
@@ -15,6 +16,7 @@ import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -36,6 +38,7 @@ import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
 import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeVisitor;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypesUtils;
@@ -74,6 +77,15 @@ public class QualifierPolymorphism {
 
     private final AnnotationMirror POLYALL;
 
+    /** The maximum number of signatures kept in {@link #signatures}. */
+    private static final int SIGNATURE_CACHE_SIZE = 300;
+
+    /**
+     * The signatures of the recently invoked methods and constructors, or null if the factory does
+     * not cache.
+     */
+    private final Map<ExecutableElement, PolySignature> signatures;
+
     /**
      * Creates a {@link QualifierPolymorphism} instance that uses the given checker for querying
      * type qualifiers and the given factory for getting annotated types.
@@ -132,6 +144,12 @@ public class QualifierPolymorphism {
 
         this.collector = new PolyCollector();
         this.completer = new Completer();
+        this.polyUseFinder = new PolyUseFinder();
+        if (factory.shouldCache) {
+            this.signatures = CollectionUtils.createLRUCache(SIGNATURE_CACHE_SIZE);
+        } else {
+            this.signatures = null;
+        }
     }
 
     public static AnnotationMirror getPolymorphicQualifier(AnnotationMirror qual) {
@@ -195,18 +213,22 @@ public class QualifierPolymorphism {
         if (TreeUtils.isEnumSuper(tree)) {
             return;
         }
+        PolySignature signature = getSignature(type.getElement());
+        if (!signature.any) {
+            // No polymorphic qualifier to resolve.
+            return;
+        }
         List<AnnotatedTypeMirror> parameters =
                 AnnotatedTypes.expandVarArgs(atypeFactory, type, tree.getArguments());
-        List<AnnotatedTypeMirror> arguments =
-                AnnotatedTypes.getAnnotatedTypes(atypeFactory, parameters, tree.getArguments());
 
         Map<AnnotationMirror, Set<? extends AnnotationMirror>> matchingMapping =
-                collector.visit(arguments, parameters);
+                collect(signature, parameters, tree.getArguments());
 
         // for super() and this() method calls, getReceiverType(tree) does not return the correct
         // type. So, just skip those.  This is consistent with skipping receivers of constructors
         // below.
-        if (type.getReceiverType() != null
+        if (signature.receiver
+                && type.getReceiverType() != null
                 && !TreeUtils.isSuperCall(tree)
                 && !TreeUtils.isThisCall(tree)) {
             matchingMapping =
@@ -227,13 +249,14 @@ public class QualifierPolymorphism {
         if (polyQuals.isEmpty()) {
             return;
         }
+        // Unlike for methods, the polymorphic qualifiers of a constructor are always completed:
+        // the return type also contains the annotations written on the new class tree.
+        PolySignature signature = getSignature(type.getElement());
         List<AnnotatedTypeMirror> requiredArgs =
                 AnnotatedTypes.expandVarArgs(atypeFactory, type, tree.getArguments());
-        List<AnnotatedTypeMirror> arguments =
-                AnnotatedTypes.getAnnotatedTypes(atypeFactory, requiredArgs, tree.getArguments());
 
         Map<AnnotationMirror, Set<? extends AnnotationMirror>> matchingMapping =
-                collector.visit(arguments, requiredArgs);
+                collect(signature, requiredArgs, tree.getArguments());
         // TODO: poly on receiver for constructors?
         // matchingMapping = collector.reduce(matchingMapping,
         //        collector.visit(factory.getReceiverType(tree), type.getReceiverType()));
@@ -282,6 +305,88 @@ public class QualifierPolymorphism {
         }
     }
 
+    /**
+     * Returns the signature of {@code elt}, computing it from the declared type of {@code elt} if
+     * it is not cached.
+     */
+    private PolySignature getSignature(ExecutableElement elt) {
+        PolySignature signature = signatures == null ? null : signatures.get(elt);
+        if (signature == null) {
+            AnnotatedExecutableType declared = atypeFactory.getAnnotatedType(elt);
+            List<AnnotatedTypeMirror> parameterTypes = declared.getParameterTypes();
+            boolean[] parameters = new boolean[parameterTypes.size()];
+            boolean any = false;
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = mayContainPoly(parameterTypes.get(i));
+                any |= parameters[i];
+            }
+            boolean receiver = mayContainPoly(declared.getReceiverType());
+            any |= receiver || mayContainPoly(declared.getReturnType());
+            for (AnnotatedTypeMirror thrownType : declared.getThrownTypes()) {
+                any |= mayContainPoly(thrownType);
+            }
+            for (AnnotatedTypeVariable typeVar : declared.getTypeVariables()) {
+                // The declaration of a type variable is not substituted, but its bounds may be.
+                any |= mayContainPoly(typeVar.getUpperBound());
+                any |= mayContainPoly(typeVar.getLowerBound());
+            }
+            signature = new PolySignature(parameters, receiver, any, elt.isVarArgs());
+            if (signatures != null) {
+                signatures.put(elt, signature);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Returns true if {@code type} contains a polymorphic qualifier or a use of a type variable,
+     * which may be substituted by a type that contains a polymorphic qualifier.
+     */
+    private boolean mayContainPoly(/*@Nullable*/ AnnotatedTypeMirror type) {
+        return type != null && Boolean.TRUE.equals(polyUseFinder.visit(type));
+    }
+
+    /**
+     * Resolves the polymorphic qualifiers from the arguments of an invocation. Only the arguments
+     * whose parameter may contain a polymorphic qualifier (see {@link PolySignature}) are visited;
+     * the types of the other arguments are not computed.
+     *
+     * @param signature the signature of the invoked method or constructor
+     * @param parameters the parameter types of the invocation, with varargs expanded
+     * @param arguments the arguments of the invocation
+     * @return the mapping from polymorphic qualifiers to their resolution
+     */
+    private Map<AnnotationMirror, Set<? extends AnnotationMirror>> collect(
+            PolySignature signature,
+            List<AnnotatedTypeMirror> parameters,
+            List<? extends ExpressionTree> arguments) {
+        assert parameters.size() == arguments.size()
+                : "QualifierPolymorphism.collect: size mismatch! "
+                        + "Parameter types: "
+                        + parameters
+                        + " Arguments: "
+                        + arguments;
+        // The collector resolves PolyAll from any null argument (see PolyCollector.visitNull).
+        boolean hasPolyAll = polyQuals.containsKey(null);
+        List<AnnotatedTypeMirror> collectedParameters = new ArrayList<>();
+        List<ExpressionTree> collectedArguments = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            ExpressionTree argument = arguments.get(i);
+            if (signature.hasParameter(i)
+                    || (hasPolyAll && argument.getKind() == Tree.Kind.NULL_LITERAL)) {
+                collectedParameters.add(parameters.get(i));
+                collectedArguments.add(argument);
+            }
+        }
+        if (collectedArguments.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<AnnotatedTypeMirror> argumentTypes =
+                AnnotatedTypes.getAnnotatedTypes(
+                        atypeFactory, collectedParameters, collectedArguments);
+        return collector.visit(argumentTypes, collectedParameters);
+    }
+
     private final AnnotatedTypeScanner<Void, Map<AnnotationMirror, Set<? extends AnnotationMirror>>>
             replacer =
                     new AnnotatedTypeScanner<
@@ -332,6 +437,75 @@ public class QualifierPolymorphism {
 
     private final PolyCollector collector;
 
+    private final PolyUseFinder polyUseFinder;
+
+    /**
+     * Where polymorphic qualifiers may occur in an invocation of a method or constructor, as
+     * determined from its declared type: a position may contain a polymorphic qualifier after
+     * substitution if its declared type contains a polymorphic qualifier or a use of a type
+     * variable. The arguments at the other positions cannot contribute to the resolution of the
+     * polymorphic qualifiers, and if no position may contain one, there is nothing to resolve.
+     */
+    private static class PolySignature {
+        /** Whether each formal parameter may contain a polymorphic qualifier. */
+        final boolean[] parameters;
+
+        /** Whether the receiver may contain a polymorphic qualifier. */
+        final boolean receiver;
+
+        /** Whether any part of the signature may contain a polymorphic qualifier. */
+        final boolean any;
+
+        /** Whether the method or constructor takes a variable number of arguments. */
+        final boolean varArgs;
+
+        PolySignature(boolean[] parameters, boolean receiver, boolean any, boolean varArgs) {
+            this.parameters = parameters;
+            this.receiver = receiver;
+            this.any = any;
+            this.varArgs = varArgs;
+        }
+
+        /**
+         * Returns true if the parameter of the argument at {@code index} may contain a polymorphic
+         * qualifier. All arguments passed to a varargs parameter share its flag.
+         */
+        boolean hasParameter(int index) {
+            if (varArgs && index >= parameters.length - 1) {
+                return parameters[parameters.length - 1];
+            }
+            // Be conservative if the invocation does not match the declaration.
+            return index >= parameters.length || parameters[index];
+        }
+    }
+
+    /**
+     * Returns true if a type contains a polymorphic qualifier or a use of a type variable. The
+     * bounds of type variables are not visited.
+     */
+    private class PolyUseFinder extends AnnotatedTypeScanner<Boolean, Void> {
+        @Override
+        protected Boolean scan(AnnotatedTypeMirror type, Void p) {
+            if (type == null) {
+                return false;
+            }
+            if (type.getKind() == TypeKind.TYPEVAR) {
+                return true;
+            }
+            for (AnnotationMirror poly : polyQuals.values()) {
+                if (type.hasAnnotation(poly)) {
+                    return true;
+                }
+            }
+            return super.scan(type, p);
+        }
+
+        @Override
+        protected Boolean reduce(Boolean r1, Boolean r2) {
+            return Boolean.TRUE.equals(r1) || Boolean.TRUE.equals(r2);
+        }
+    }
+
     /**
      * A Helper class that tries to resolve the polymorhpic qualifiers with the most restricted
      * qualifier. The mapping is from the polymorhpic qualifier to the substitution for that
@@ -12,6 +12,7 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Type.WildcardType;
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -87,21 +88,28 @@ public class QualifierDefaults {
     private final DefaultSet checkedCodeDefaults = new DefaultSet();
     private final DefaultSet uncheckedCodeDefaults = new DefaultSet();
 
-    /** Mapping from an Element to the source Tree of the declaration. */
-    private static final int CACHE_SIZE = 300;
-
-    protected static final Map<Element, BoundType> elementToBoundType =
-            CollectionUtils.createLRUCache(CACHE_SIZE);
+    /** Size of the caches if one isn't passed to the constructor. */
+    private static final int DEFAULT_CACHE_SIZE = 300;
 
     /**
-     * Defaults that apply for a certain Element. On the one hand this is used for caching (an
-     * earlier name for the field was "qualifierCache"). It can also be used by type systems to set
-     * defaults for certain Elements.
+     * Mapping from a type parameter Element to the BoundType of its declaration. Each instance has
+     * its own cache, which is bounded and may be accessed concurrently.
      */
+    protected final Map<Element, BoundType> elementToBoundType;
+
+    /** Defaults that type systems set for certain Elements via {@link #addElementDefault}. */
     private final Map<Element, DefaultSet> elementDefaults = new IdentityHashMap<>();
 
+    /**
+     * Cache of the defaults that apply within a scope: a package, class, method, or any other
+     * non-variable Element. A variable looks up its enclosing scope here instead of walking every
+     * enclosing element again; variables themselves are not cached, so the cache holds only the
+     * comparatively few scopes. Empty results are cached as well.
+     */
+    private final Map<Element, DefaultSet> scopeDefaults;
+
     /** A mapping of Element &rarr; Whether or not that element is AnnotatedFor this type system. */
-    private final Map<Element, Boolean> elementAnnotatedFors = new IdentityHashMap<>();
+    private final Map<Element, Boolean> elementAnnotatedFors;
 
     /** CLIMB locations whose standard default is top for a given type system. */
     public static final TypeUseLocation[] standardClimbDefaultsTop = {
@@ -158,7 +166,25 @@ public class QualifierDefaults {
      * @param atypeFactory an annotation factory, used to get annotations by name
      */
     public QualifierDefaults(Elements elements, AnnotatedTypeFactory atypeFactory) {
+        this(elements, atypeFactory, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param elements interface to Element data in the current processing environment
+     * @param atypeFactory an annotation factory, used to get annotations by name
+     * @param cacheSize the maximum number of entries in each of the caches of this object
+     */
+    public QualifierDefaults(Elements elements, AnnotatedTypeFactory atypeFactory, int cacheSize) {
         this.elements = elements;
+        this.elementToBoundType =
+                Collections.synchronizedMap(
+                        CollectionUtils.<Element, BoundType>createLRUCache(cacheSize));
+        this.scopeDefaults =
+                Collections.synchronizedMap(
+                        CollectionUtils.<Element, DefaultSet>createLRUCache(cacheSize));
+        this.elementAnnotatedFors =
+                Collections.synchronizedMap(
+                        CollectionUtils.<Element, Boolean>createLRUCache(cacheSize));
         this.atypeFactory = atypeFactory;
         this.upstreamCheckerNames =
                 atypeFactory.getContext().getChecker().getUpstreamCheckerNames();
@@ -306,6 +332,8 @@ public class QualifierDefaults {
         }
         prevset.add(new Default(elementDefaultAnno, location));
         elementDefaults.put(elem, prevset);
+        // Scopes enclosed by elem may have cached the defaults that applied before this call.
+        scopeDefaults.clear();
     }
 
     private void checkIsValidUncheckedCodeLocation(
@@ -541,8 +569,9 @@ public class QualifierDefaults {
             return false;
         }
 
-        if (elementAnnotatedFors.containsKey(elt)) {
-            return elementAnnotatedFors.get(elt);
+        Boolean cached = elementAnnotatedFors.get(elt);
+        if (cached != null) {
+            return cached;
         }
 
         final AnnotationMirror af = atypeFactory.getDeclAnnotation(elt, AnnotatedFor.class);
@@ -591,6 +620,14 @@ public class QualifierDefaults {
             return elementDefaults.get(elt);
         }
 
+        boolean isScope = !isVariable(elt);
+        if (isScope) {
+            DefaultSet cached = scopeDefaults.get(elt);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         DefaultSet qualifiers = null;
 
         {
@@ -635,11 +672,30 @@ public class QualifierDefaults {
             qualifiers.addAll(parentDefaults);
         }
 
-        if (qualifiers != null && !qualifiers.isEmpty()) {
-            elementDefaults.put(elt, qualifiers);
-            return qualifiers;
-        } else {
-            return DefaultSet.EMPTY;
+        if (qualifiers == null || qualifiers.isEmpty()) {
+            qualifiers = DefaultSet.EMPTY;
+        }
+        if (isScope) {
+            scopeDefaults.put(elt, qualifiers);
+        }
+        return qualifiers;
+    }
+
+    /**
+     * Returns true if elt is a variable. The defaults of variables are not cached in {@link
+     * #scopeDefaults}, since there are many variables and each is defaulted only a few times.
+     */
+    private static boolean isVariable(final Element elt) {
+        switch (elt.getKind()) {
+            case FIELD:
+            case ENUM_CONSTANT:
+            case PARAMETER:
+            case LOCAL_VARIABLE:
+            case EXCEPTION_PARAMETER:
+            case RESOURCE_VARIABLE:
+                return true;
+            default:
+                return false;
         }
     }
 
@@ -717,7 +773,7 @@ public class QualifierDefaults {
         }
     }
 
-    public static class DefaultApplierElement {
+    public class DefaultApplierElement {
 
         private final AnnotatedTypeFactory atypeFactory;
         private final Element scope;
@@ -771,7 +827,7 @@ public class QualifierDefaults {
          * @param type type to which qual would be applied
          * @return true if this application should proceed
          */
-        private static boolean shouldBeAnnotated(
+        private boolean shouldBeAnnotated(
                 final AnnotatedTypeMirror type, final boolean applyToTypeVar) {
 
             return !(type == null
@@ -791,7 +847,7 @@ public class QualifierDefaults {
          * @param type type to add qual
          * @param qual annotation to add
          */
-        private static void addAnnotation(AnnotatedTypeMirror type, AnnotationMirror qual) {
+        private void addAnnotation(AnnotatedTypeMirror type, AnnotationMirror qual) {
             // Add the default annotation, but only if no other
             // annotation is present.
             if (!type.isAnnotatedInHierarchy(qual) && type.getKind() != TypeKind.EXECUTABLE) {
@@ -1105,7 +1161,7 @@ public class QualifierDefaults {
      *     AnnotatedTypeVariable.
      * @return the boundType for type
      */
-    private static BoundType getBoundType(
+    private BoundType getBoundType(
             final AnnotatedTypeMirror type, final AnnotatedTypeFactory typeFactory) {
         if (type instanceof AnnotatedTypeVariable) {
             return getTypeVarBoundType((AnnotatedTypeVariable) type, typeFactory);
@@ -1120,7 +1176,7 @@ public class QualifierDefaults {
     }
 
     /** @return the bound type of the input typeVar */
-    private static BoundType getTypeVarBoundType(
+    private BoundType getTypeVarBoundType(
             final AnnotatedTypeVariable typeVar, final AnnotatedTypeFactory typeFactory) {
         return getTypeVarBoundType(
                 (TypeParameterElement) typeVar.getUnderlyingType().asElement(), typeFactory);
@@ -1128,7 +1184,7 @@ public class QualifierDefaults {
 
     /** @return the boundType (UPPER or UNBOUNDED) of the declaration of typeParamElem */
     // Results are cached in {@link elementToBoundType}.
-    private static BoundType getTypeVarBoundType(
+    private BoundType getTypeVarBoundType(
             final TypeParameterElement typeParamElem, final AnnotatedTypeFactory typeFactory) {
         final BoundType prev = elementToBoundType.get(typeParamElem);
         if (prev != null) {
@@ -1182,7 +1238,7 @@ public class QualifierDefaults {
      * @return the BoundType of annotatedWildcard. If it is unbounded, use the type parameter to
      *     which its an argument.
      */
-    public static BoundType getWildcardBoundType(
+    public BoundType getWildcardBoundType(
             final AnnotatedWildcardType annotatedWildcard, final AnnotatedTypeFactory typeFactory) {
 
         final WildcardType wildcard = (WildcardType) annotatedWildcard.getUnderlyingType();
@@ -4,6 +4,7 @@ import com.sun.tools.javac.code.Attribute;
 import java.util.List;
 import java.util.Map;
 import javax.lang.model.element.Element;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 
 /**
@@ -14,8 +15,9 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
  */
 abstract class IndexedElementAnnotationApplier extends TargetedElementAnnotationApplier {
 
-    public IndexedElementAnnotationApplier(AnnotatedTypeMirror type, Element element) {
-        super(type, element);
+    public IndexedElementAnnotationApplier(
+            AnnotatedTypeMirror type, Element element, AnnotatedTypeFactory typeFactory) {
+        super(type, element, typeFactory);
     }
 
     /** The index of element in the list of elements that contains it */
@@ -58,16 +58,13 @@ public class MethodApplier extends TargetedElementAnnotationApplier {
                 && typeMirror instanceof AnnotatedExecutableType;
     }
 
-    private final AnnotatedTypeFactory typeFactory;
-
     /** Method being annotated, this symbol contains all relevant annotations */
     private final Symbol.MethodSymbol methodSymbol;
 
     private final AnnotatedExecutableType methodType;
 
     MethodApplier(AnnotatedTypeMirror type, Element element, AnnotatedTypeFactory typeFactory) {
-        super(type, element);
-        this.typeFactory = typeFactory;
+        super(type, element, typeFactory);
         this.methodSymbol = (Symbol.MethodSymbol) element;
         this.methodType = (AnnotatedExecutableType) type;
     }
@@ -61,7 +61,7 @@ public class ParamApplier extends IndexedElementAnnotationApplier {
     private final LambdaExpressionTree lambdaTree;
 
     ParamApplier(AnnotatedTypeMirror type, Element element, AnnotatedTypeFactory typeFactory) {
-        super(type, element);
+        super(type, element, typeFactory);
         enclosingMethod = getParentMethod(element);
 
         if (enclosingMethod.getKind() != ElementKind.INSTANCE_INIT
@@ -5,6 +5,7 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.TargetType;
 import java.util.List;
 import javax.lang.model.element.TypeElement;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 
 /**
@@ -19,10 +20,12 @@ public class SuperTypeApplier extends IndexedElementAnnotationApplier {
      *
      * @param supertypes supertypes to annotate
      * @param subtypeElement element that may have annotations to apply to supertypes
+     * @param typeFactory the type factory used to create the supertypes
      */
     public static void annotateSupers(
             List<AnnotatedTypeMirror.AnnotatedDeclaredType> supertypes,
-            TypeElement subtypeElement) {
+            TypeElement subtypeElement,
+            AnnotatedTypeFactory typeFactory) {
         for (int i = 0; i < supertypes.size(); i++) {
             final AnnotatedTypeMirror supertype = supertypes.get(i);
             // Offset i by -1 since typeIndex should start from -1.
@@ -31,7 +34,8 @@ public class SuperTypeApplier extends IndexedElementAnnotationApplier {
             // For details see the JSR 308 specification:
             // http://types.cs.washington.edu/jsr308/specification/java-annotation-design.html#class-file%3Aext%3Ari%3Aextends
             final int typeIndex = i - 1;
-            new SuperTypeApplier(supertype, subtypeElement, typeIndex).extractAndApply();
+            new SuperTypeApplier(supertype, subtypeElement, typeIndex, typeFactory)
+                    .extractAndApply();
         }
     }
 
@@ -61,8 +65,9 @@ public class SuperTypeApplier extends IndexedElementAnnotationApplier {
     SuperTypeApplier(
             final AnnotatedTypeMirror supertype,
             final TypeElement subclassElement,
-            final int index) {
-        super(supertype, subclassElement);
+            final int index,
+            final AnnotatedTypeFactory typeFactory) {
+        super(supertype, subclassElement, typeFactory);
         this.subclassSymbol = (Symbol.ClassSymbol) subclassElement;
         this.index = index;
     }
@@ -1,13 +1,14 @@
 package org.checkerframework.framework.util.element;
 
 import com.sun.tools.javac.code.Attribute;
-import com.sun.tools.javac.code.Attribute.TypeCompound;
 import com.sun.tools.javac.code.TargetType;
-import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.lang.model.element.Element;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.javacutil.ErrorReporter;
@@ -40,6 +41,9 @@ abstract class TargetedElementAnnotationApplier {
     /** An Element that type represents. */
     protected final Element element;
 
+    /** The type factory used to create {@link #type}. */
+    protected final AnnotatedTypeFactory typeFactory;
+
     /**
      * @return the TargetTypes that identify annotations we wish to apply with this object. Any
      *     annotations that have these target types will be passed to handleTargeted.
@@ -80,10 +84,15 @@ abstract class TargetedElementAnnotationApplier {
     /**
      * @param type the type to annotate
      * @param element an element identifying type
+     * @param typeFactory the type factory used to create type
      */
-    TargetedElementAnnotationApplier(final AnnotatedTypeMirror type, final Element element) {
+    TargetedElementAnnotationApplier(
+            final AnnotatedTypeMirror type,
+            final Element element,
+            final AnnotatedTypeFactory typeFactory) {
         this.type = type;
         this.element = element;
+        this.typeFactory = typeFactory;
     }
 
     /**
@@ -139,29 +148,30 @@ abstract class TargetedElementAnnotationApplier {
     protected Map<TargetClass, List<Attribute.TypeCompound>> sift(
             final Iterable<Attribute.TypeCompound> typeCompounds) {
 
-        final Map<TargetClass, List<Attribute.TypeCompound>> targetClassToCompound =
-                new EnumMap<>(TargetClass.class);
-        for (TargetClass targetClass : TargetClass.values()) {
-            targetClassToCompound.put(targetClass, new ArrayList<TypeCompound>());
-        }
-
-        for (final Attribute.TypeCompound typeCompound : typeCompounds) {
-            final TargetType typeCompoundTarget = typeCompound.position.type;
-            final List<Attribute.TypeCompound> destList;
+        final TypeAnnotationIndex index = TypeAnnotationIndex.of(typeCompounds, typeFactory);
+        final Set<TargetType> targeted = EnumSet.noneOf(TargetType.class);
+        final Set<TargetType> valid = EnumSet.noneOf(TargetType.class);
+        final Set<TargetType> invalid = EnumSet.noneOf(TargetType.class);
+        final TargetType[] annotatedTargets = annotatedTargets();
+        final TargetType[] validTargets = validTargets();
 
-            if (ElementAnnotationUtil.contains(typeCompoundTarget, annotatedTargets())) {
-                destList = targetClassToCompound.get(TargetClass.TARGETED);
+        for (final TargetType typeCompoundTarget : index.getTargetTypes()) {
+            if (ElementAnnotationUtil.contains(typeCompoundTarget, annotatedTargets)) {
+                targeted.add(typeCompoundTarget);
 
-            } else if (ElementAnnotationUtil.contains(typeCompoundTarget, validTargets())) {
-                destList = targetClassToCompound.get(TargetClass.VALID);
+            } else if (ElementAnnotationUtil.contains(typeCompoundTarget, validTargets)) {
+                valid.add(typeCompoundTarget);
 
             } else {
-                destList = targetClassToCompound.get(TargetClass.INVALID);
+                invalid.add(typeCompoundTarget);
             }
-
-            destList.add(typeCompound);
         }
 
+        final Map<TargetClass, List<Attribute.TypeCompound>> targetClassToCompound =
+                new EnumMap<>(TargetClass.class);
+        targetClassToCompound.put(TargetClass.TARGETED, index.get(targeted));
+        targetClassToCompound.put(TargetClass.VALID, index.get(valid));
+        targetClassToCompound.put(TargetClass.INVALID, index.get(invalid));
         return targetClassToCompound;
     }
 
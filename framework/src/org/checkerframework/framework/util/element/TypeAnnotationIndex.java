@@ -0,0 +1,191 @@
+package org.checkerframework.framework.util.element;
+
+import com.sun.tools.javac.code.Attribute.TypeCompound;
+import com.sun.tools.javac.code.TargetType;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.javacutil.CollectionUtils;
+
+/**
+ * The type annotations of a symbol (see {@code Symbol.getRawTypeAttributes()}), grouped by the
+ * TargetType of their positions and, for formal parameters, by parameter index. Within a group,
+ * annotations keep their original order; the appliers route each annotation by its target type, so
+ * the order of annotations with different target types does not matter.
+ *
+ * <p>The annotations of a method or class are read once for the method or class itself and once
+ * more for each of its parameters and type parameters (see {@link ParamApplier} and {@link
+ * TypeParamElementAnnotationApplier}); each of these appliers picks out the annotations with a few
+ * target types. With an index, each applier looks up its target types directly instead of
+ * scanning all annotations of the method or class.
+ *
+ * <p>javac never modifies the list of type annotations of a symbol; it replaces the list when
+ * annotations are added (for example by {@link
+ * org.checkerframework.framework.type.TypesIntoElements}). Indexes are therefore cached by the
+ * identity of the list they were built from, so that an index is never stale. The cache belongs to
+ * one compilation, and is shared by the type factories of all checkers in it. Like the compiler's
+ * own data structures, it is only used by the thread that runs the compilation; an index is not
+ * modified after it is built.
+ */
+class TypeAnnotationIndex {
+
+    /** The maximum number of indexes kept in the cache of a compilation. */
+    private static final int CACHE_SIZE = 1000;
+
+    /** The key under which the cache of a compilation is stored in the compiler context. */
+    private static final Context.Key<Map<ListKey, TypeAnnotationIndex>> CACHE_KEY =
+            new Context.Key<Map<ListKey, TypeAnnotationIndex>>();
+
+    /** The index of an empty list of annotations. */
+    private static final TypeAnnotationIndex EMPTY =
+            new TypeAnnotationIndex(Collections.<TypeCompound>emptyList());
+
+    /** The annotations with each target type, in their original order. */
+    private final Map<TargetType, List<TypeCompound>> byTarget = new EnumMap<>(TargetType.class);
+
+    /** The METHOD_FORMAL_PARAMETER annotations on each formal parameter, by parameter index. */
+    private final Map<Integer, List<TypeCompound>> byParameter = new HashMap<>();
+
+    private TypeAnnotationIndex(List<TypeCompound> annotations) {
+        for (TypeCompound anno : annotations) {
+            add(byTarget, anno.position.type, anno);
+            if (anno.position.type == TargetType.METHOD_FORMAL_PARAMETER) {
+                add(byParameter, anno.position.parameter_index, anno);
+            }
+        }
+    }
+
+    /** Adds {@code anno} to the list of {@code key} in {@code map}. */
+    private static <K> void add(Map<K, List<TypeCompound>> map, K key, TypeCompound anno) {
+        List<TypeCompound> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            map.put(key, list);
+        }
+        list.add(anno);
+    }
+
+    /**
+     * Returns the index of {@code typeCompounds}, which is usually the result of {@code
+     * getRawTypeAttributes()} on a symbol.
+     *
+     * @param typeCompounds type annotations of a symbol
+     * @param typeFactory the type factory whose compilation caches the index
+     * @return an index of {@code typeCompounds}
+     */
+    static TypeAnnotationIndex of(
+            Iterable<TypeCompound> typeCompounds, AnnotatedTypeFactory typeFactory) {
+        if (!(typeCompounds instanceof com.sun.tools.javac.util.List)) {
+            // Not known to be immutable, so don't cache.
+            List<TypeCompound> copy = new ArrayList<>();
+            for (TypeCompound anno : typeCompounds) {
+                copy.add(anno);
+            }
+            return new TypeAnnotationIndex(copy);
+        }
+        com.sun.tools.javac.util.List<TypeCompound> list =
+                (com.sun.tools.javac.util.List<TypeCompound>) typeCompounds;
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        Map<ListKey, TypeAnnotationIndex> cache = getCache(typeFactory.getProcessingEnv());
+        ListKey key = new ListKey(list);
+        TypeAnnotationIndex index = cache.get(key);
+        if (index == null) {
+            index = new TypeAnnotationIndex(list);
+            cache.put(key, index);
+        }
+        return index;
+    }
+
+    /** Returns the cache of the compilation that {@code env} belongs to. */
+    private static Map<ListKey, TypeAnnotationIndex> getCache(ProcessingEnvironment env) {
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        Map<ListKey, TypeAnnotationIndex> cache = context.get(CACHE_KEY);
+        if (cache == null) {
+            cache = CollectionUtils.createLRUCache(CACHE_SIZE);
+            context.put(CACHE_KEY, cache);
+        }
+        return cache;
+    }
+
+    /** Returns the target types of the indexed annotations. */
+    Set<TargetType> getTargetTypes() {
+        return byTarget.keySet();
+    }
+
+    /**
+     * Returns the indexed annotations whose target type is one of {@code targetTypes}, grouped by
+     * target type. The result may be modified.
+     *
+     * @param targetTypes the target types to look up
+     * @return the annotations with these target types
+     */
+    List<TypeCompound> get(TargetType... targetTypes) {
+        List<TypeCompound> result = new ArrayList<>();
+        for (TargetType targetType : targetTypes) {
+            List<TypeCompound> list = byTarget.get(targetType);
+            if (list != null) {
+                result.addAll(list);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed annotations whose target type is in {@code targetTypes}, grouped by
+     * target type. The result may be modified.
+     *
+     * @param targetTypes the target types to look up
+     * @return the annotations with these target types
+     */
+    List<TypeCompound> get(Set<TargetType> targetTypes) {
+        List<TypeCompound> result = new ArrayList<>();
+        for (TargetType targetType : targetTypes) {
+            List<TypeCompound> list = byTarget.get(targetType);
+            if (list != null) {
+                result.addAll(list);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed METHOD_FORMAL_PARAMETER annotations on the formal parameter with the
+     * given index, in their original order. The result may be modified.
+     *
+     * @param parameterIndex the index of a formal parameter
+     * @return the annotations on that formal parameter
+     */
+    List<TypeCompound> getParameterAnnotations(int parameterIndex) {
+        List<TypeCompound> list = byParameter.get(parameterIndex);
+        return list == null ? new ArrayList<TypeCompound>() : new ArrayList<>(list);
+    }
+
+    /** A key of the cache that compares lists of annotations by identity. */
+    private static class ListKey {
+        private final List<TypeCompound> list;
+
+        ListKey(List<TypeCompound> list) {
+            this.list = list;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ListKey && ((ListKey) obj).list == list;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(list);
+        }
+    }
+}
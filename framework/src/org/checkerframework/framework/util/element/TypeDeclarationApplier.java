@@ -46,7 +46,6 @@ public class TypeDeclarationApplier extends TargetedElementAnnotationApplier {
         return type instanceof AnnotatedDeclaredType && element instanceof Symbol.ClassSymbol;
     }
 
-    private final AnnotatedTypeFactory typeFactory;
     private final Symbol.ClassSymbol typeSymbol;
     private final AnnotatedDeclaredType declaredType;
 
@@ -54,8 +53,7 @@ public class TypeDeclarationApplier extends TargetedElementAnnotationApplier {
             final AnnotatedTypeMirror type,
             final Element element,
             final AnnotatedTypeFactory typeFactory) {
-        super(type, element);
-        this.typeFactory = typeFactory;
+        super(type, element, typeFactory);
         this.typeSymbol = (Symbol.ClassSymbol) element;
         this.declaredType = (AnnotatedDeclaredType) type;
     }
@@ -33,7 +33,6 @@ abstract class TypeParamElementAnnotationApplier extends IndexedElementAnnotatio
     }
 
     protected final AnnotatedTypeVariable typeParam;
-    protected final AnnotatedTypeFactory typeFactory;
 
     /** @return target type that represents the location of the lower bound of element */
     protected abstract TargetType lowerBoundTarget();
@@ -45,9 +44,8 @@ abstract class TypeParamElementAnnotationApplier extends IndexedElementAnnotatio
             final AnnotatedTypeVariable type,
             final Element element,
             final AnnotatedTypeFactory typeFactory) {
-        super(type, element);
+        super(type, element, typeFactory);
         this.typeParam = type;
-        this.typeFactory = typeFactory;
     }
 
     /** @return the lower bound and upper bound targets */
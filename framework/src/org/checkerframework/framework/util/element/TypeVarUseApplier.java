@@ -9,7 +9,6 @@ import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.TargetType;
-import com.sun.tools.javac.code.TypeAnnotationPosition;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -185,7 +184,7 @@ public class TypeVarUseApplier {
      * be stored with different annotation positions. getAnnotations finds the correct annotations
      * by annotation position and element kind and returns them
      */
-    private static List<Attribute.TypeCompound> getAnnotations(
+    private List<Attribute.TypeCompound> getAnnotations(
             final Element useElem, final Element declarationElem) {
         final List<Attribute.TypeCompound> annotations;
         switch (useElem.getKind()) {
@@ -221,26 +220,14 @@ public class TypeVarUseApplier {
     }
 
     /** @return annotations on an element that apply to variable declarations */
-    private static List<Attribute.TypeCompound> getVariableAnnos(final Element variableElem) {
+    private List<Attribute.TypeCompound> getVariableAnnos(final Element variableElem) {
         final VarSymbol varSymbol = (VarSymbol) variableElem;
-        final List<Attribute.TypeCompound> annotations = new ArrayList<Attribute.TypeCompound>();
-
-        for (Attribute.TypeCompound anno : varSymbol.getRawTypeAttributes()) {
-
-            TypeAnnotationPosition pos = anno.position;
-            switch (pos.type) {
-                case FIELD:
-                case LOCAL_VARIABLE:
-                case RESOURCE_VARIABLE:
-                case EXCEPTION_PARAMETER:
-                    annotations.add(anno);
-                    break;
-
-                default:
-            }
-        }
-
-        return annotations;
+        return TypeAnnotationIndex.of(varSymbol.getRawTypeAttributes(), typeFactory)
+                .get(
+                        TargetType.FIELD,
+                        TargetType.LOCAL_VARIABLE,
+                        TargetType.RESOURCE_VARIABLE,
+                        TargetType.EXCEPTION_PARAMETER);
     }
 
     /**
@@ -252,7 +239,7 @@ public class TypeVarUseApplier {
      * @return a list of annotations that were found on METHOD_FORMAL_PARAMETERS that match the
      *     parameter index of the input element in the parent methods formal parameter list
      */
-    private static List<Attribute.TypeCompound> getParameterAnnos(final Element paramElem) {
+    private List<Attribute.TypeCompound> getParameterAnnos(final Element paramElem) {
         final Element enclosingElement = paramElem.getEnclosingElement();
         if (!(enclosingElement instanceof ExecutableElement)) {
             ErrorReporter.errorAbort(
@@ -265,23 +252,13 @@ public class TypeVarUseApplier {
 
         final MethodSymbol enclosingMethod = (MethodSymbol) paramElem.getEnclosingElement();
 
-        final List<Attribute.TypeCompound> annotations = enclosingMethod.getRawTypeAttributes();
         final int paramIndex = enclosingMethod.getParameters().indexOf(paramElem);
-
-        final List<Attribute.TypeCompound> result = new ArrayList<Attribute.TypeCompound>();
-        for (final Attribute.TypeCompound typeAnno : annotations) {
-            if (typeAnno.position.type == TargetType.METHOD_FORMAL_PARAMETER) {
-                if (typeAnno.position.parameter_index == paramIndex) {
-                    result.add(typeAnno);
-                }
-            }
-        }
-
-        return result;
+        return TypeAnnotationIndex.of(enclosingMethod.getRawTypeAttributes(), typeFactory)
+                .getParameterAnnotations(paramIndex);
     }
 
     /** @return the annotations on the return type of the input ExecutableElement */
-    private static List<Attribute.TypeCompound> getReturnAnnos(final Element methodElem) {
+    private List<Attribute.TypeCompound> getReturnAnnos(final Element methodElem) {
         if (!(methodElem instanceof ExecutableElement)) {
             ErrorReporter.errorAbort(
                     "Bad element passed to TypeVarUseApplier.getReturnAnnos:" + methodElem);
@@ -289,14 +266,7 @@ public class TypeVarUseApplier {
 
         final MethodSymbol enclosingMethod = (MethodSymbol) methodElem;
 
-        final List<Attribute.TypeCompound> annotations = enclosingMethod.getRawTypeAttributes();
-        final List<Attribute.TypeCompound> result = new ArrayList<Attribute.TypeCompound>();
-        for (final Attribute.TypeCompound typeAnno : annotations) {
-            if (typeAnno.position.type == TargetType.METHOD_RETURN) {
-                result.add(typeAnno);
-            }
-        }
-
-        return result;
+        return TypeAnnotationIndex.of(enclosingMethod.getRawTypeAttributes(), typeFactory)
+                .get(TargetType.METHOD_RETURN);
     }
 }
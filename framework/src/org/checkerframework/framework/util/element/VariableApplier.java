@@ -24,6 +24,7 @@ import java.util.List;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.type.TypeKind;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.javacutil.ErrorReporter;
 
@@ -32,8 +33,11 @@ import org.checkerframework.javacutil.ErrorReporter;
  */
 public class VariableApplier extends TargetedElementAnnotationApplier {
 
-    public static void apply(final AnnotatedTypeMirror type, final Element element) {
-        new VariableApplier(type, element).extractAndApply();
+    public static void apply(
+            final AnnotatedTypeMirror type,
+            final Element element,
+            final AnnotatedTypeFactory typeFactory) {
+        new VariableApplier(type, element, typeFactory).extractAndApply();
     }
 
     private static final ElementKind[] acceptedKinds = {
@@ -47,8 +51,11 @@ public class VariableApplier extends TargetedElementAnnotationApplier {
 
     private final Symbol.VarSymbol varSymbol;
 
-    VariableApplier(final AnnotatedTypeMirror type, final Element element) {
-        super(type, element);
+    VariableApplier(
+            final AnnotatedTypeMirror type,
+            final Element element,
+            final AnnotatedTypeFactory typeFactory) {
+        super(type, element, typeFactory);
         varSymbol = (Symbol.VarSymbol) element;
 
         if (type.getKind() == TypeKind.UNION
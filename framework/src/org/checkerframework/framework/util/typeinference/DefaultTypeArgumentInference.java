@@ -12,6 +12,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -51,6 +52,7 @@ import org.checkerframework.framework.util.typeinference.solver.InferredValue;
 import org.checkerframework.framework.util.typeinference.solver.InferredValue.InferredType;
 import org.checkerframework.framework.util.typeinference.solver.SubtypesSolver;
 import org.checkerframework.framework.util.typeinference.solver.SupertypesSolver;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
@@ -103,9 +105,77 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
 
     private final boolean showInferenceSteps;
 
+    /** Size of {@link #inferenceCache}. */
+    private static final int INFERENCE_CACHE_SIZE = 300;
+
+    /**
+     * Results of previous inferences, or null if the type factory does not cache. The methodFromUse
+     * of a single invocation is requested by the visitor, by dataflow, and by assignment checks, so
+     * the same inference would otherwise be solved repeatedly.
+     *
+     * <p>The key includes the annotated argument types, which are computed from the current
+     * dataflow results. When dataflow refines the type of an argument the key changes, so a stale
+     * result is never returned.
+     */
+    private final Map<InferenceKey, Map<TypeVariable, AnnotatedTypeMirror>> inferenceCache;
+
+    /** Number of calls to {@link #inferTypeArgs}. */
+    private int inferenceCount = 0;
+
+    /** Number of calls to {@link #inferTypeArgs} that were answered by {@link #inferenceCache}. */
+    private int cacheHitCount = 0;
+
+    /** Number of argument constraints that were reduced to irreducible form and solved. */
+    private long argumentConstraintCount = 0;
+
+    /** Number of constraints taken off the work queue by {@link #reduceAfConstraints}. */
+    private long reductionStepCount = 0;
+
     public DefaultTypeArgumentInference(AnnotatedTypeFactory typeFactory) {
         this.showInferenceSteps =
                 typeFactory.getContext().getChecker().hasOption("showInferenceSteps");
+        if (typeFactory.shouldCache) {
+            this.inferenceCache = CollectionUtils.createLRUCache(INFERENCE_CACHE_SIZE);
+        } else {
+            this.inferenceCache = null;
+        }
+    }
+
+    /**
+     * Returns the number of method type argument inferences that were requested.
+     *
+     * @return the number of calls to {@link #inferTypeArgs}
+     */
+    public int getInferenceCount() {
+        return inferenceCount;
+    }
+
+    /**
+     * Returns the number of inferences whose result was reused from an earlier, identical request.
+     *
+     * @return the number of inference cache hits
+     */
+    public int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Returns the total number of irreducible argument constraints passed to the solvers.
+     *
+     * @return the number of solved argument constraints
+     */
+    public long getArgumentConstraintCount() {
+        return argumentConstraintCount;
+    }
+
+    /**
+     * Returns the total number of constraints processed while reducing AFConstraints. A large value
+     * relative to {@link #getInferenceCount()} indicates deeply nested generic invocations.
+     *
+     * @return the number of reduction steps
+     */
+    public long getReductionStepCount() {
+        return reductionStepCount;
     }
 
     @Override
@@ -122,6 +192,8 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
             return new HashMap<>();
         }
 
+        inferenceCount++;
+
         final List<AnnotatedTypeMirror> argTypes =
                 TypeArgInferenceUtil.getArgumentTypes(expressionTree, typeFactory);
         final TreePath pathToExpression = typeFactory.getPath(expressionTree);
@@ -130,6 +202,50 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
 
         SourceChecker checker = typeFactory.getContext().getChecker();
 
+        InferenceKey key = null;
+        if (inferenceCache != null) {
+            key = new InferenceKey(expressionTree, methodType, argTypes, assignedTo);
+            Map<TypeVariable, AnnotatedTypeMirror> cached = inferenceCache.get(key);
+            if (cached != null) {
+                cacheHitCount++;
+                return copyInferredArgs(cached);
+            }
+        }
+
+        Map<TypeVariable, AnnotatedTypeMirror> inferredArgs =
+                inferTypeArgsUncached(
+                        typeFactory,
+                        expressionTree,
+                        methodElem,
+                        methodType,
+                        argTypes,
+                        pathToExpression,
+                        assignedTo,
+                        checker);
+
+        if (key != null) {
+            inferenceCache.put(key.deepCopy(), copyInferredArgs(inferredArgs));
+        }
+        return inferredArgs;
+    }
+
+    /**
+     * Infers the type arguments of the given invocation without consulting {@link
+     * #inferenceCache}. The parameters are those of {@link #inferTypeArgs} plus the values that
+     * method has already computed from them.
+     */
+    private Map<TypeVariable, AnnotatedTypeMirror> inferTypeArgsUncached(
+            AnnotatedTypeFactory typeFactory,
+            ExpressionTree expressionTree,
+            ExecutableElement methodElem,
+            AnnotatedExecutableType methodType,
+            List<AnnotatedTypeMirror> argTypes,
+            TreePath pathToExpression,
+            AnnotatedTypeMirror assignedTo,
+            SourceChecker checker) {
+        final long reductionStepsBefore = reductionStepCount;
+        final long argumentConstraintsBefore = argumentConstraintCount;
+
         if (showInferenceSteps) {
             checker.message(
                     Kind.NOTE,
@@ -186,11 +302,95 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
 
         if (showInferenceSteps) {
             checker.message(Kind.NOTE, "  results: %s\n", inferredArgs);
+            checker.message(
+                    Kind.NOTE,
+                    "  statistics: %d argument constraints, %d reduction steps\n",
+                    argumentConstraintCount - argumentConstraintsBefore,
+                    reductionStepCount - reductionStepsBefore);
         }
 
         return inferredArgs;
     }
 
+    /**
+     * Returns a copy of the given inference result whose types may be side-effected by the caller
+     * without affecting {@link #inferenceCache}.
+     */
+    private static Map<TypeVariable, AnnotatedTypeMirror> copyInferredArgs(
+            Map<TypeVariable, AnnotatedTypeMirror> inferredArgs) {
+        Map<TypeVariable, AnnotatedTypeMirror> copy = new LinkedHashMap<>();
+        for (Map.Entry<TypeVariable, AnnotatedTypeMirror> entry : inferredArgs.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().deepCopy());
+        }
+        return copy;
+    }
+
+    /**
+     * The key of {@link #inferenceCache}: an invocation together with every annotated type that
+     * inference reads. The invocation tree is compared by identity, the types structurally.
+     */
+    private static final class InferenceKey {
+        private final ExpressionTree invocation;
+        private final AnnotatedExecutableType methodType;
+        private final List<AnnotatedTypeMirror> argTypes;
+        private final AnnotatedTypeMirror assignedTo;
+        private final int hashCode;
+
+        InferenceKey(
+                ExpressionTree invocation,
+                AnnotatedExecutableType methodType,
+                List<AnnotatedTypeMirror> argTypes,
+                AnnotatedTypeMirror assignedTo) {
+            this.invocation = invocation;
+            this.methodType = methodType;
+            this.argTypes = argTypes;
+            this.assignedTo = assignedTo;
+            this.hashCode =
+                    Objects.hash(
+                            System.identityHashCode(invocation),
+                            methodType,
+                            argTypes,
+                            assignedTo);
+        }
+
+        /**
+         * Returns a key whose types are copies, so that later side effects on the types used for
+         * this lookup do not corrupt the cache.
+         */
+        InferenceKey deepCopy() {
+            List<AnnotatedTypeMirror> argTypesCopy = new ArrayList<>(argTypes.size());
+            for (AnnotatedTypeMirror argType : argTypes) {
+                argTypesCopy.add(argType.deepCopy());
+            }
+            return new InferenceKey(
+                    invocation,
+                    methodType.deepCopy(),
+                    argTypesCopy,
+                    assignedTo == null ? null : assignedTo.deepCopy());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InferenceKey)) {
+                return false;
+            }
+            InferenceKey other = (InferenceKey) o;
+            return invocation == other.invocation
+                    && hashCode == other.hashCode
+                    && methodType.equals(other.methodType)
+                    && argTypes.equals(other.argTypes)
+                    && Objects.equals(assignedTo, other.assignedTo);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * If one of the inferredArgs are NullType, then re-run inference ignoring null method
      * arguments. Then lub the result of the second inference with the NullType and put the new
@@ -339,6 +539,7 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
         Set<AFConstraint> afArgumentConstraints =
                 createArgumentAFConstraints(
                         typeFactory, argumentTypes, methodType, targets, useNullArguments);
+        argumentConstraintCount += afArgumentConstraints.size();
 
         // 2. Step 2 - Solve the constraints.
         Pair<InferenceResult, InferenceResult> argInference =
@@ -773,6 +974,7 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
         while (!toProcess.isEmpty()) {
             newConstraints.clear();
             AFConstraint constraint = toProcess.remove();
+            reductionStepCount++;
 
             if (!visited.contains(constraint)) {
                 if (constraint.isIrreducible(targets)) {
@@ -0,0 +1,70 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import testlib.util.Odd;
+
+// Each type parameter is used several times, so that the bounds of most uses are copied from the
+// bound template of the type parameter. They must equal the bounds initialized from scratch.
+
+class Recursive<E extends Recursive<E>> {
+    E self;
+
+    E self() {
+        return self;
+    }
+
+    <F extends Recursive<F>> F other(F f, E e) {
+        return f.self();
+    }
+}
+
+class MutuallyRecursive<A extends List<B>, B extends List<A>> {
+    A a;
+    B b;
+
+    A getA(B b) {
+        return a;
+    }
+}
+
+class Annotated<@Odd T extends @Odd Object, U extends @Odd String> {
+    T t;
+    U u;
+
+    <V extends T> V narrow(V v) {
+        return v;
+    }
+
+    List<? extends T> list;
+    Map<? super U, ? extends T> map;
+}
+
+class Intersection<T extends Comparable<? super T> & Cloneable> {
+    T max(Collection<? extends T> values) {
+        T result = Collections.max(values);
+        return result;
+    }
+}
+
+enum Letter {
+    A,
+    B;
+
+    int compare(Letter other) {
+        return compareTo(other) + A.compareTo(B);
+    }
+}
+
+class Uses {
+    <E extends Recursive<E>> void recursive(Recursive<E> r, E e) {
+        r.other(e, e);
+        r.self();
+    }
+
+    void annotated(Annotated<@Odd String, @Odd String> a) {
+        a.narrow(a.t);
+        Letter.A.compare(Letter.B);
+        Collections.<String>emptyList();
+    }
+}
@@ -0,0 +1,54 @@
+import testlib.util.Odd;
+
+// The analysis of chain exceeds its budget in the first loop, which needs one iteration per
+// variable to reach a fix-point. The remaining merges then go to the top store, so the analysis
+// stops soon, and the refinement of s in the second loop is lost.
+class Budget {
+    // :: warning: (flow.budget.exceeded)
+    void chain(@Odd String odd, String top, boolean b) {
+        String s1 = odd;
+        String s2 = odd;
+        String s3 = odd;
+        String s4 = odd;
+        String s5 = odd;
+        String s6 = odd;
+        String s7 = odd;
+        String s8 = odd;
+        String s9 = odd;
+        String s10 = odd;
+        String s11 = odd;
+        String s12 = odd;
+        while (b) {
+            s1 = s2;
+            s2 = s3;
+            s3 = s4;
+            s4 = s5;
+            s5 = s6;
+            s6 = s7;
+            s7 = s8;
+            s8 = s9;
+            s9 = s10;
+            s10 = s11;
+            s11 = s12;
+            s12 = top;
+        }
+        // :: error: (assignment.type.incompatible)
+        @Odd String t = s1;
+
+        String s = odd;
+        while (b) {
+            s = odd;
+        }
+        // :: error: (assignment.type.incompatible)
+        @Odd String u = s;
+    }
+
+    // Within the budget, the refinement of s is kept.
+    void small(@Odd String odd, boolean b) {
+        String s = odd;
+        while (b) {
+            s = odd;
+        }
+        @Odd String u = s;
+    }
+}
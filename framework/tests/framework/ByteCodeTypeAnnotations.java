@@ -0,0 +1,37 @@
+import testlib.lib.TypeAnnotatedByteCode;
+import testlib.util.*;
+
+// Type annotations on the parameters, receivers, and return types of methods, read from bytecode.
+class ByteCodeTypeAnnotations {
+
+    void parameters(TypeAnnotatedByteCode lib, String s, @Odd String odd) {
+        lib.oddSecondParameter(s, odd, s);
+        // :: error: (argument.type.incompatible)
+        lib.oddSecondParameter(odd, s, odd);
+
+        lib.oddParameters(odd, s, odd);
+        // :: error: (argument.type.incompatible)
+        lib.oddParameters(s, s, odd);
+        // :: error: (argument.type.incompatible)
+        lib.<String>oddParameters(odd, odd, s);
+    }
+
+    void receivers(@Odd TypeAnnotatedByteCode odd, TypeAnnotatedByteCode plain, @Odd String s) {
+        odd.oddReceiver();
+        // :: error: (method.invocation.invalid)
+        plain.oddReceiver();
+
+        odd.oddReceiverAndParameter(s);
+        // :: error: (method.invocation.invalid)
+        plain.oddReceiverAndParameter(s);
+        // :: error: (argument.type.incompatible)
+        odd.oddReceiverAndParameter("");
+    }
+
+    void returns(TypeAnnotatedByteCode lib, @Odd String odd) {
+        @Odd String s1 = lib.oddReturn("");
+        @Odd String s2 = lib.oddTypeVariableReturn("");
+        // :: error: (assignment.type.incompatible)
+        @Odd String s3 = lib.plainReturn(odd);
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Comparator;
+
+// The override checks of the first class that overrides a library method are performed and
+// memoized; further classes with the same signature reuse them.
+
+class FirstImplementation implements Comparator<String> {
+    public int compare(String s1, String s2) {
+        return 0;
+    }
+
+    public String toString() {
+        return "first";
+    }
+}
+
+class SecondImplementation implements Comparator<String> {
+    // :: warning: (override.memoized)
+    public int compare(String s1, String s2) {
+        return 1;
+    }
+
+    // :: warning: (override.memoized)
+    public String toString() {
+        return "second";
+    }
+}
+
+class OtherSignature implements Comparator<Integer> {
+    public int compare(Integer i1, Integer i2) {
+        return 0;
+    }
+}
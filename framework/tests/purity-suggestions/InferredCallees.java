@@ -0,0 +1,89 @@
+import org.checkerframework.dataflow.qual.Pure;
+
+// Tests for suggestions that depend on the inferred purity of unannotated callees: the callees
+// that need an annotation for the suggested annotation to verify are reported as well.
+
+// This warning is for the implicit constructor of class InferredCallees
+// :: warning: (purity.more.sideeffectfree)
+class InferredCallees {
+
+    String f;
+
+    // A class with a constructor that is inferred to be side-effect-free.
+    private static class Box {
+        // :: warning: (purity.more.sideeffectfree)
+        Box(int v) {}
+    }
+
+    // :: warning: (purity.more.pure)
+    private static int helper(int i) {
+        return i + 1;
+    }
+
+    // :: warning: (purity.more.pure) :: warning: (purity.more.pure.callees)
+    int usesHelper() {
+        return helper(1);
+    }
+
+    @Pure
+    int annotatedUsesHelper() {
+        // :: error: (purity.not.deterministic.not.sideeffectfree.call)
+        return helper(1);
+    }
+
+    // :: warning: (purity.more.sideeffectfree) :: warning: (purity.more.pure.callees)
+    Object makeBox() {
+        return new Box(1);
+    }
+
+    // The callee is not inferred, because it may be overridden.
+    // :: warning: (purity.more.pure)
+    int overridable() {
+        return 1;
+    }
+
+    int usesOverridable() {
+        return overridable();
+    }
+
+    // A recursive method depends on no other callee.
+    // :: warning: (purity.more.pure)
+    private static int factorial(int n) {
+        return n <= 1 ? 1 : n * factorial(n - 1);
+    }
+
+    // Mutually recursive pure methods each depend on the other.
+    // :: warning: (purity.more.pure) :: warning: (purity.more.pure.callees)
+    private static boolean isEven(int n) {
+        return n == 0 || isOdd(n - 1);
+    }
+
+    // :: warning: (purity.more.pure) :: warning: (purity.more.pure.callees)
+    private static boolean isOdd(int n) {
+        return n != 0 && isEven(n - 1);
+    }
+
+    // Mutually recursive methods, one of which assigns a field, are both impure.
+    private void assignAndRecurse(int n) {
+        if (n > 0) {
+            f = "";
+            recurse(n - 1);
+        }
+    }
+
+    private void recurse(int n) {
+        assignAndRecurse(n);
+    }
+
+    // A caller of the impure component is impure as well.
+    int usesImpureComponent() {
+        recurse(1);
+        return 1;
+    }
+
+    // A caller of the pure component depends on one method of the component.
+    // :: warning: (purity.more.pure) :: warning: (purity.more.pure.callees)
+    boolean usesPureComponent() {
+        return isEven(4);
+    }
+}
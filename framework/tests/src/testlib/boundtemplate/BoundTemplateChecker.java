@@ -0,0 +1,11 @@
+package testlib.boundtemplate;
+
+import testlib.util.CacheComparisonChecker;
+
+/**
+ * A checker used for testing that the bounds of type variables copied from the bound templates of
+ * a type factory equal the bounds initialized from scratch.
+ *
+ * <p>This checker should only be used for testing the framework.
+ */
+public final class BoundTemplateChecker extends CacheComparisonChecker {}
@@ -0,0 +1,77 @@
+package testlib.flowbudget;
+
+import java.util.List;
+import javax.lang.model.element.VariableElement;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.RegularBlock;
+import org.checkerframework.framework.flow.CFAnalysis;
+import org.checkerframework.framework.flow.CFValue;
+import org.checkerframework.framework.source.Result;
+import org.checkerframework.javacutil.Pair;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * A checker used for testing that a dataflow analysis that exceeds its budget (see the {@code
+ * -AflowBudget} option) stops iterating. It uses the type system of {@link
+ * testlib.util.FlowTestChecker}, whose qualifier hierarchy does not widen, and reports an error at
+ * each method whose analysis exceeded the budget and then applied the transfer function more than
+ * {@link #MAX_APPLICATIONS_PER_NODE} times per node of the control flow graph.
+ *
+ * <p>This checker should only be used for testing the framework.
+ */
+public final class FlowBudgetChecker extends BaseTypeChecker {
+
+    /** Number of transfer function applications per node allowed after the budget is exceeded. */
+    static final int MAX_APPLICATIONS_PER_NODE = 3;
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new BaseTypeVisitor<FlowTestAnnotatedTypeFactory>(this) {
+            @Override
+            protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+                return new FlowBudgetAnnotatedTypeFactory(checker);
+            }
+        };
+    }
+}
+
+class FlowBudgetAnnotatedTypeFactory extends FlowTestAnnotatedTypeFactory {
+
+    public FlowBudgetAnnotatedTypeFactory(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected CFAnalysis createFlowAnalysis(List<Pair<VariableElement, CFValue>> fieldValues) {
+        return new CFAnalysis(checker, this, fieldValues) {
+            @Override
+            public void performAnalysis(ControlFlowGraph cfg) {
+                int budget = maxTransferApplications;
+                super.performAnalysis(cfg);
+                UnderlyingAST ast = cfg.getUnderlyingAST();
+                if (!isBudgetExceeded() || ast.getKind() != UnderlyingAST.Kind.METHOD) {
+                    return;
+                }
+                int nodes = 0;
+                for (Block block : cfg.getAllBlocks()) {
+                    if (block.getType() == Block.BlockType.REGULAR_BLOCK) {
+                        nodes += ((RegularBlock) block).getContents().size();
+                    } else {
+                        nodes++;
+                    }
+                }
+                int extraApplications = getTransferApplications() - budget;
+                if (extraApplications > FlowBudgetChecker.MAX_APPLICATIONS_PER_NODE * nodes) {
+                    checker.report(
+                            Result.failure("flow.budget.overrun", extraApplications, nodes),
+                            ((CFGMethod) ast).getMethod());
+                }
+            }
+        };
+    }
+}
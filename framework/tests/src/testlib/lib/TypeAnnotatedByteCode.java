@@ -0,0 +1,29 @@
+package testlib.lib;
+
+import testlib.util.Odd;
+
+/**
+ * Used by framework/tests/framework/ByteCodeTypeAnnotations.java. The type annotations of these
+ * methods are read from bytecode.
+ */
+public class TypeAnnotatedByteCode {
+    public void oddSecondParameter(String first, @Odd String second, String third) {}
+
+    public <T> void oddParameters(@Odd String first, T second, @Odd T third) {}
+
+    public void oddReceiver(@Odd TypeAnnotatedByteCode this) {}
+
+    public void oddReceiverAndParameter(@Odd TypeAnnotatedByteCode this, @Odd String param) {}
+
+    public @Odd String oddReturn(String param) {
+        return null;
+    }
+
+    public <T> @Odd T oddTypeVariableReturn(T param) {
+        return null;
+    }
+
+    public String plainReturn(@Odd String param) {
+        return param;
+    }
+}
@@ -0,0 +1,43 @@
+package testlib.overridememo;
+
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.source.Result;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * A checker used for testing that the outcome of an override check of a library method is reused
+ * by other classes that override the method with the same signature. It uses the type system of
+ * {@link testlib.util.FlowTestChecker} and warns at each method whose override check was skipped.
+ *
+ * <p>This checker should only be used for testing the framework.
+ */
+public final class OverrideMemoChecker extends BaseTypeChecker {
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new OverrideMemoVisitor(this);
+    }
+}
+
+class OverrideMemoVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    public OverrideMemoVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void p) {
+        int hits = getOverrideCheckCacheHits();
+        Void result = super.visitMethod(node, p);
+        if (getOverrideCheckCacheHits() > hits) {
+            checker.report(Result.warning("override.memoized"), node);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package testlib.suppression;
+
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import java.util.HashMap;
+import java.util.Map;
+import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.source.Result;
+import org.checkerframework.javacutil.TreeUtils;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * A checker used for testing which trees are in the scope of a {@code
+ * SuppressWarnings("suppression")} annotation. It uses the type system of {@link
+ * testlib.util.FlowTestChecker}. It warns at every lambda expression, and at every invocation of a
+ * method whose declaration it considers suppressed, even if the declaration is in a compilation
+ * unit that was checked before.
+ *
+ * <p>This checker should only be used for testing the framework.
+ */
+public final class SuppressionChecker extends BaseTypeChecker {
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new SuppressionVisitor(this);
+    }
+}
+
+class SuppressionVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** The method declarations of all compilation units checked so far. */
+    private final Map<ExecutableElement, MethodTree> declarations = new HashMap<>();
+
+    public SuppressionVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitLambdaExpression(LambdaExpressionTree node, Void p) {
+        checker.report(Result.warning("lambda"), node);
+        return super.visitLambdaExpression(node, p);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void p) {
+        declarations.put(TreeUtils.elementFromDeclaration(node), node);
+        return super.visitMethod(node, p);
+    }
+
+    @Override
+    public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+        ExecutableElement method = TreeUtils.elementFromUse(node);
+        Tree declaration = declarations.get(method);
+        if (declaration == null) {
+            // A method of the current compilation unit that has not been visited yet.
+            declaration = trees.getTree(method);
+        }
+        if (declaration != null
+                && checker.shouldSuppressWarnings(declaration, "declaration.suppressed")) {
+            checker.report(Result.warning("declaration.suppressed"), node);
+        }
+        return super.visitMethodInvocation(node, p);
+    }
+}
@@ -0,0 +1,122 @@
+package testlib.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TypeParameterTree;
+import com.sun.source.tree.VariableTree;
+import java.util.HashMap;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.source.Result;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * A checker used for testing that the caches of a type factory do not change the types it
+ * computes. It uses the type system of {@link FlowTestChecker} and reports an error at each
+ * declaration or method invocation whose element has a different type in a second type factory
+ * that is created with the {@code -AatfDoNotCache} option, and therefore computes all types from
+ * scratch.
+ *
+ * <p>Each test of a cache subclasses this checker, so that it has its own test directory.
+ *
+ * <p>This checker should only be used for testing the framework.
+ */
+public class CacheComparisonChecker extends BaseTypeChecker {
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new CacheComparisonVisitor(this);
+    }
+
+    /**
+     * Returns a type factory that does not cache types. It belongs to a second instance of the
+     * class of this checker, whose options add {@code -AatfDoNotCache} to the options of this
+     * checker.
+     */
+    FlowTestAnnotatedTypeFactory createUncachedTypeFactory() {
+        CacheComparisonChecker uncached = null;
+        try {
+            uncached = getClass().newInstance();
+        } catch (ReflectiveOperationException e) {
+            ErrorReporter.errorAbort("cannot instantiate " + getClass(), e);
+        }
+        uncached.setProcessingEnvironment(processingEnv);
+        Map<String, String> options = new HashMap<String, String>(getOptions());
+        options.put("atfDoNotCache", null);
+        uncached.addOptions(options);
+        return new FlowTestAnnotatedTypeFactory(uncached);
+    }
+}
+
+class CacheComparisonVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+    /** A type factory that computes all types from scratch. */
+    private final FlowTestAnnotatedTypeFactory uncachedFactory;
+
+    public CacheComparisonVisitor(CacheComparisonChecker checker) {
+        super(checker);
+        uncachedFactory = checker.createUncachedTypeFactory();
+    }
+
+    @Override
+    protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+        return new FlowTestAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public void setRoot(CompilationUnitTree root) {
+        super.setRoot(root);
+        uncachedFactory.setRoot(root);
+    }
+
+    /** Reports an error if the type of {@code elt} differs in the two type factories. */
+    private void compare(Element elt, Tree tree) {
+        if (elt == null) {
+            return;
+        }
+        // Compare the verbose strings, because AnnotatedTypeMirror.equals never considers two
+        // wildcards the same.
+        String cached = atypeFactory.getAnnotatedType(elt).toString(true);
+        String uncached = uncachedFactory.getAnnotatedType(elt).toString(true);
+        if (!cached.equals(uncached)) {
+            checker.report(Result.failure("cache.mismatch", cached, uncached), tree);
+        }
+    }
+
+    @Override
+    public void processClassTree(ClassTree classTree) {
+        compare(TreeUtils.elementFromDeclaration(classTree), classTree);
+        super.processClassTree(classTree);
+    }
+
+    @Override
+    public Void visitTypeParameter(TypeParameterTree node, Void p) {
+        compare(InternalUtils.symbol(node), node);
+        return super.visitTypeParameter(node, p);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void p) {
+        compare(TreeUtils.elementFromDeclaration(node), node);
+        return super.visitMethod(node, p);
+    }
+
+    @Override
+    public Void visitVariable(VariableTree node, Void p) {
+        compare(TreeUtils.elementFromDeclaration(node), node);
+        return super.visitVariable(node, p);
+    }
+
+    @Override
+    public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+        compare(TreeUtils.elementFromUse(node), node);
+        return super.visitMethodInvocation(node, p);
+    }
+}
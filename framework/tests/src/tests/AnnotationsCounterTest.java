@@ -0,0 +1,187 @@
+package tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.util.count.AnnotationsCounter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests the CSV output of {@link AnnotationsCounter} and the merging of shards by its main. */
+public class AnnotationsCounterTest {
+    private File dir;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = File.createTempFile("AnnotationsCounterTest", "");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+    }
+
+    @After
+    public void deleteDir() {
+        delete(dir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /** Writes {@code lines} into a new file named {@code name} in the temporary directory. */
+    private File write(String name, String... lines) throws IOException {
+        File file = new File(dir, name);
+        file.getParentFile().mkdirs();
+        Writer out = new FileWriter(file);
+        try {
+            for (String line : lines) {
+                out.write(line + "\n");
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /** Runs {@link AnnotationsCounter#main} on {@code files} and returns what it printed. */
+    private static String merge(File... files) throws IOException {
+        String[] args = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            args[i] = files[i].getPath();
+        }
+        PrintStream oldOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            AnnotationsCounter.main(args);
+        } finally {
+            System.setOut(oldOut);
+        }
+        return out.toString();
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void sumsEqualRowsOfShards() throws IOException {
+        File shard1 =
+                write(
+                        "shard1.csv",
+                        "kind,scope,annotation,count",
+                        "file,A.java,p.Nullable,2",
+                        "package,p,p.Nullable,2",
+                        "annotation,,p.Nullable,2");
+        File shard2 =
+                write(
+                        "shard2.csv",
+                        "kind,scope,annotation,count",
+                        "file,B.java,p.Nullable,3",
+                        "file,B.java,p.NonNull,1",
+                        "package,p,p.NonNull,1",
+                        "package,p,p.Nullable,3",
+                        "",
+                        "annotation,,p.NonNull,1",
+                        "annotation,,p.Nullable,3");
+
+        Assert.assertEquals(
+                lines(
+                        "kind,scope,annotation,count",
+                        "annotation,,p.NonNull,1",
+                        "annotation,,p.Nullable,5",
+                        "file,A.java,p.Nullable,2",
+                        "file,B.java,p.NonNull,1",
+                        "file,B.java,p.Nullable,3",
+                        "package,p,p.NonNull,1",
+                        "package,p,p.Nullable,5"),
+                merge(shard1, shard2));
+    }
+
+    @Test
+    public void keepsQuotedFields() throws IOException {
+        File shard1 = write("shard1.csv", "file,\"a,b.java\",p.Nullable,1");
+        File shard2 =
+                write(
+                        "shard2.csv",
+                        "file,\"a,b.java\",p.Nullable,2",
+                        "file,\"say \"\"hi\"\".java\",p.Nullable,4");
+
+        Assert.assertEquals(
+                lines(
+                        "kind,scope,annotation,count",
+                        "file,\"a,b.java\",p.Nullable,3",
+                        "file,\"say \"\"hi\"\".java\",p.Nullable,4"),
+                merge(shard1, shard2));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedRows() throws IOException {
+        merge(write("shard.csv", "file,a,b.java,p.Nullable,1"));
+    }
+
+    @Test
+    public void quotesFileNamesInProcessorOutput() throws IOException {
+        File source =
+                write(
+                        "a,b/C.java",
+                        "class C {",
+                        "    @Deprecated void m() {}",
+                        "    @SuppressWarnings(\"x\") void n() {}",
+                        "}");
+        File shard = new File(dir, "shard.csv");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(source);
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(
+                        null,
+                        fileManager,
+                        null,
+                        Arrays.asList("-proc:only", "-AannotationsCsv"),
+                        null,
+                        units);
+        task.setProcessors(Arrays.asList(new AnnotationsCounter()));
+        PrintStream oldOut = System.out;
+        PrintStream out = new PrintStream(shard);
+        System.setOut(out);
+        try {
+            Assert.assertTrue(task.call());
+        } finally {
+            System.setOut(oldOut);
+            out.close();
+            fileManager.close();
+        }
+
+        String scope = "\"" + source.getPath().replace("\"", "\"\"") + "\"";
+        Assert.assertEquals(
+                lines(
+                        "kind,scope,annotation,count",
+                        "annotation,,java.lang.Deprecated,1",
+                        "annotation,,java.lang.SuppressWarnings,1",
+                        "file," + scope + ",java.lang.Deprecated,1",
+                        "file," + scope + ",java.lang.SuppressWarnings,1",
+                        "package,,java.lang.Deprecated,1",
+                        "package,,java.lang.SuppressWarnings,1"),
+                merge(shard));
+    }
+}
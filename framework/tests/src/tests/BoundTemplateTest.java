@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.boundtemplate.BoundTemplateChecker;
+
+/** Tests that bounds copied from bound templates equal the bounds initialized from scratch. */
+public class BoundTemplateTest extends CheckerFrameworkPerDirectoryTest {
+
+    public BoundTemplateTest(List<File> testFiles) {
+        super(testFiles, BoundTemplateChecker.class, "boundtemplate", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"boundtemplate"};
+    }
+}
@@ -0,0 +1,168 @@
+package tests;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.BlockImpl;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the exceptional successors of the blocks of control flow graphs. */
+public class ExceptionalSuccessorsTest {
+
+    /**
+     * The read call may throw an IOException, which the first catch clause catches if it is a
+     * FileNotFoundException, and which leaves the method otherwise.
+     */
+    private static final String SOURCE =
+            "import java.io.*;\n"
+                    + "class Test {\n"
+                    + "    int read(InputStream in, boolean b) throws IOException {\n"
+                    + "        try {\n"
+                    + "            return b ? in.read() : 0;\n"
+                    + "        } catch (FileNotFoundException e) {\n"
+                    + "            return -1;\n"
+                    + "        } catch (RuntimeException e) {\n"
+                    + "            return -2;\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}\n";
+
+    /** Builds the control flow graph of the only method of {@link #SOURCE}. */
+    private static ControlFlowGraph buildCFG() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject source =
+                new SimpleJavaFileObject(
+                        URI.create("string:///Test.java"), JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return SOURCE;
+                    }
+                };
+        JavacTask task =
+                (JavacTask)
+                        compiler.getTask(
+                                null,
+                                null,
+                                null,
+                                Arrays.asList("-proc:none"),
+                                null,
+                                Arrays.asList(source));
+        CompilationUnitTree root = task.parse().iterator().next();
+        task.analyze();
+        ProcessingEnvironment env =
+                JavacProcessingEnvironment.instance(((BasicJavacTask) task).getContext());
+
+        ClassTree classTree = (ClassTree) root.getTypeDecls().get(0);
+        for (Tree member : classTree.getMembers()) {
+            if (member instanceof MethodTree
+                    && ((MethodTree) member).getName().contentEquals("read")) {
+                return CFGBuilder.build(root, env, (MethodTree) member, classTree);
+            }
+        }
+        throw new AssertionError("no method read in " + SOURCE);
+    }
+
+    /** Returns the blocks that follow {@code block}, including its exceptional successors. */
+    private static List<Block> successors(Block block) {
+        List<Block> result = new ArrayList<>();
+        if (block instanceof SingleSuccessorBlock) {
+            Block successor = ((SingleSuccessorBlock) block).getSuccessor();
+            if (successor != null) {
+                result.add(successor);
+            }
+        }
+        if (block instanceof ConditionalBlock) {
+            result.add(((ConditionalBlock) block).getThenSuccessor());
+            result.add(((ConditionalBlock) block).getElseSuccessor());
+        }
+        if (block instanceof ExceptionBlock) {
+            for (Set<Block> blocks : ((ExceptionBlock) block).getExceptionalSuccessors().values()) {
+                result.addAll(blocks);
+            }
+        }
+        return result;
+    }
+
+    /** Returns the exception blocks of {@code cfg}, found by walking it from its entry block. */
+    private static List<ExceptionBlock> walk(ControlFlowGraph cfg) {
+        Set<Block> visited = new HashSet<>();
+        Deque<Block> worklist = new ArrayDeque<>();
+        List<ExceptionBlock> result = new ArrayList<>();
+        worklist.add(cfg.getEntryBlock());
+        visited.add(cfg.getEntryBlock());
+        while (!worklist.isEmpty()) {
+            Block block = worklist.remove();
+            if (block instanceof ExceptionBlock) {
+                result.add((ExceptionBlock) block);
+            }
+            for (Block successor : successors(block)) {
+                if (visited.add(successor)) {
+                    worklist.add(successor);
+                }
+            }
+        }
+        Assert.assertEquals(cfg.getAllBlocks(), visited);
+        Assert.assertTrue(visited.contains(cfg.getExceptionalExitBlock()));
+        return result;
+    }
+
+    @Test
+    public void exceptionalSuccessorsArePredecessorsOfTheirTargets() throws IOException {
+        for (ExceptionBlock block : walk(buildCFG())) {
+            for (Set<Block> successors : block.getExceptionalSuccessors().values()) {
+                Assert.assertFalse(successors.isEmpty());
+                for (Block successor : successors) {
+                    Assert.assertTrue(((BlockImpl) successor).getPredecessors().contains(block));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSuccessorSetsAreEqual() throws IOException {
+        Set<String> causesWithSeveralSuccessors = new HashSet<>();
+        for (ExceptionBlock block : walk(buildCFG())) {
+            for (Map.Entry<TypeMirror, Set<Block>> entry :
+                    block.getExceptionalSuccessors().entrySet()) {
+                Set<Block> successors = entry.getValue();
+                Set<Block> copy = new HashSet<>(successors);
+                Assert.assertEquals(copy, successors);
+                Assert.assertEquals(successors, copy);
+                Assert.assertEquals(copy.hashCode(), successors.hashCode());
+                Assert.assertTrue(successors.containsAll(copy));
+                if (successors.size() > 1) {
+                    causesWithSeveralSuccessors.add(entry.getKey().toString());
+                }
+            }
+        }
+        // The catch clause for FileNotFoundException and the exceptional exit.
+        Assert.assertTrue(causesWithSeveralSuccessors.contains("java.io.IOException"));
+    }
+}
@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.flowbudget.FlowBudgetChecker;
+
+/** Tests that a dataflow analysis that exceeds its budget stops iterating. */
+public class FlowBudgetTest extends CheckerFrameworkPerDirectoryTest {
+
+    public FlowBudgetTest(List<File> testFiles) {
+        super(testFiles, FlowBudgetChecker.class, "flowbudget", "-Anomsgtext", "-AflowBudget=60");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"flowbudget"};
+    }
+}
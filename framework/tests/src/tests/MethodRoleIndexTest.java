@@ -0,0 +1,99 @@
+package tests;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.util.EnumSet;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.javacutil.MethodRoleIndex;
+import org.checkerframework.javacutil.TreeUtils;
+import org.checkerframework.javacutil.trees.TreeParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests that {@link MethodRoleIndex} finds the roles of registered and overriding methods. */
+public class MethodRoleIndexTest {
+
+    private enum Role {
+        COLLECTION_SIZE,
+        LIST_SIZE,
+        STRING_LENGTH
+    }
+
+    private final ProcessingEnvironment env;
+    private final MethodRoleIndex<Role> index;
+
+    public MethodRoleIndexTest() {
+        env = JavacProcessingEnvironment.instance(new Context());
+        index = new MethodRoleIndex<>(Role.class, env);
+        index.add(Role.COLLECTION_SIZE, method("java.util.Collection", "size", 0));
+        index.add(Role.STRING_LENGTH, method("java.lang.String", "length", 0));
+    }
+
+    private ExecutableElement method(String typeName, String methodName, int params) {
+        return TreeUtils.getMethod(typeName, methodName, params, env);
+    }
+
+    @Test
+    public void findsRegisteredMethod() {
+        Assert.assertEquals(
+                EnumSet.of(Role.COLLECTION_SIZE),
+                index.getRoles(method("java.util.Collection", "size", 0)));
+        Assert.assertTrue(
+                index.hasRole(method("java.lang.String", "length", 0), Role.STRING_LENGTH));
+    }
+
+    @Test
+    public void findsOverridingMethod() {
+        Assert.assertTrue(
+                index.hasRole(method("java.util.ArrayList", "size", 0), Role.COLLECTION_SIZE));
+    }
+
+    @Test
+    public void rejectsMethodWithSameNameThatDoesNotOverride() {
+        // BitSet is not a Collection.
+        Assert.assertTrue(index.getRoles(method("java.util.BitSet", "size", 0)).isEmpty());
+        Assert.assertFalse(
+                index.hasRole(method("java.lang.String", "length", 0), Role.COLLECTION_SIZE));
+    }
+
+    @Test
+    public void rejectsMethodWithOtherName() {
+        Assert.assertTrue(index.getRoles(method("java.util.ArrayList", "isEmpty", 0)).isEmpty());
+    }
+
+    @Test
+    public void findsSeveralRoles() {
+        index.add(Role.LIST_SIZE, method("java.util.List", "size", 0));
+        Assert.assertEquals(
+                EnumSet.of(Role.COLLECTION_SIZE, Role.LIST_SIZE),
+                index.getRoles(method("java.util.ArrayList", "size", 0)));
+        Assert.assertEquals(
+                EnumSet.of(Role.COLLECTION_SIZE),
+                index.getRoles(method("java.util.HashSet", "size", 0)));
+    }
+
+    @Test
+    public void addingForgetsRolesLookedUpBefore() {
+        ExecutableElement arrayListSize = method("java.util.ArrayList", "size", 0);
+        Assert.assertFalse(index.hasRole(arrayListSize, Role.LIST_SIZE));
+        index.add(Role.LIST_SIZE, method("java.util.List", "size", 0));
+        Assert.assertTrue(index.hasRole(arrayListSize, Role.LIST_SIZE));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rolesAreUnmodifiable() {
+        Set<Role> roles = index.getRoles(method("java.util.ArrayList", "size", 0));
+        roles.add(Role.STRING_LENGTH);
+    }
+
+    @Test
+    public void treesThatAreNoInvocationsHaveNoRoles() {
+        ExpressionTree identifier = new TreeParser(env).parseTree("size");
+        Assert.assertTrue(index.getRoles(identifier).isEmpty());
+        Assert.assertFalse(index.isInvocation(identifier, Role.COLLECTION_SIZE));
+        Assert.assertFalse(index.isInvocation(null, Role.COLLECTION_SIZE));
+    }
+}
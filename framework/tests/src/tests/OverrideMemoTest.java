@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.overridememo.OverrideMemoChecker;
+
+/** Tests that override checks of library methods are reused across classes. */
+public class OverrideMemoTest extends CheckerFrameworkPerDirectoryTest {
+
+    public OverrideMemoTest(List<File> testFiles) {
+        super(testFiles, OverrideMemoChecker.class, "overridememo", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"overridememo"};
+    }
+}
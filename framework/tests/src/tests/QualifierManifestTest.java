@@ -0,0 +1,132 @@
+package tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.type.AnnotationClassLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link AnnotationClassLoader} does not trust a qualifier manifest in a directory that
+ * no longer lists all the qualifiers in that directory.
+ *
+ * <p>The test compiles a checker with the qualifiers {@code @A} and its subtype {@code @B} into a
+ * temporary directory, writes a manifest that lists only {@code @A}, as if {@code @B} had been
+ * added after the manifest was written, and runs the checker from that directory.
+ */
+public class QualifierManifestTest {
+
+    private static final String CHECKER =
+            "package stale;\n"
+                    + "import org.checkerframework.common.basetype.BaseTypeChecker;\n"
+                    + "public class StaleChecker extends BaseTypeChecker {}\n";
+
+    private static final String A =
+            "package stale.qual;\n"
+                    + "import java.lang.annotation.*;\n"
+                    + "import org.checkerframework.framework.qual.*;\n"
+                    + "@DefaultQualifierInHierarchy\n"
+                    + "@SubtypeOf({})\n"
+                    + "@Target({ElementType.TYPE_USE, ElementType.TYPE_PARAMETER})\n"
+                    + "public @interface A {}\n";
+
+    private static final String B =
+            "package stale.qual;\n"
+                    + "import java.lang.annotation.*;\n"
+                    + "import org.checkerframework.framework.qual.*;\n"
+                    + "@SubtypeOf(A.class)\n"
+                    + "@Target({ElementType.TYPE_USE, ElementType.TYPE_PARAMETER})\n"
+                    + "public @interface B {}\n";
+
+    /** Assigning an {@code @A} value to a {@code @B} variable is only an error if B is loaded. */
+    private static final String USE =
+            "import stale.qual.*;\n"
+                    + "class Use {\n"
+                    + "    void m(@A Object a) {\n"
+                    + "        @B Object b = a;\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static File write(File dir, String path, String content) throws IOException {
+        File file = new File(dir, path);
+        Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Compiles {@code sources} with {@code options} and returns the diagnostics.
+     *
+     * @param processor the annotation processor to run, or null
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> compile(
+            Processor processor, List<String> options, File... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            JavaCompiler.CompilationTask task =
+                    compiler.getTask(
+                            null,
+                            fileManager,
+                            diagnostics,
+                            options,
+                            null,
+                            fileManager.getJavaFileObjects(sources));
+            if (processor != null) {
+                task.setProcessors(Arrays.asList(processor));
+            }
+            task.call();
+        } finally {
+            fileManager.close();
+        }
+        return diagnostics.getDiagnostics();
+    }
+
+    @Test
+    public void findsQualifiersMissingFromManifest() throws Exception {
+        File dir = Files.createTempDirectory("QualifierManifestTest").toFile();
+        String classpath =
+                dir.getPath() + File.pathSeparator + System.getProperty("java.class.path");
+        List<Diagnostic<? extends JavaFileObject>> diagnostics =
+                compile(
+                        null,
+                        Arrays.asList("-proc:none", "-classpath", classpath, "-d", dir.getPath()),
+                        write(dir, "stale/StaleChecker.java", CHECKER),
+                        write(dir, "stale/qual/A.java", A),
+                        write(dir, "stale/qual/B.java", B));
+        Assert.assertTrue(diagnostics.toString(), diagnostics.isEmpty());
+        write(dir, "stale/qual/" + AnnotationClassLoader.QUALIFIER_MANIFEST, "stale.qual.A\n");
+
+        URLClassLoader loader =
+                new URLClassLoader(new URL[] {dir.toURI().toURL()}, getClass().getClassLoader());
+        Processor checker =
+                (Processor) loader.loadClass("stale.StaleChecker").getConstructor().newInstance();
+        diagnostics =
+                compile(
+                        checker,
+                        Arrays.asList("-proc:only", "-classpath", classpath, "-Anomsgtext"),
+                        write(dir, "Use.java", USE));
+        loader.close();
+
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            messages.add(diagnostic.getMessage(null));
+        }
+        Assert.assertEquals(Arrays.asList("(assignment.type.incompatible)"), messages);
+    }
+}
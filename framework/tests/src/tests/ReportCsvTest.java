@@ -0,0 +1,131 @@
+package tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.util.report.ReportChecker;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests the CSV output of {@link ReportChecker} with the reportCsv option. */
+public class ReportCsvTest {
+    private File dir;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = File.createTempFile("ReportCsvTest", "");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+    }
+
+    @After
+    public void deleteDir() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /** Writes {@code lines} into a new file named {@code name} in the temporary directory. */
+    private File write(String name, String... lines) throws IOException {
+        File file = new File(dir, name);
+        Writer out = new FileWriter(file);
+        try {
+            for (String line : lines) {
+                out.write(line + "\n");
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /** Runs {@link ReportChecker} on {@code sources} and returns what it printed. */
+    private static String runChecker(File... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sources);
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(
+                        null,
+                        fileManager,
+                        null,
+                        Arrays.asList(
+                                "-proc:only",
+                                "-classpath",
+                                System.getProperty("java.class.path"),
+                                "-processor",
+                                ReportChecker.class.getName(),
+                                "-AreportCsv",
+                                "-AreportTreeKinds=do_while_loop,while_loop"),
+                        null,
+                        units);
+        PrintStream oldOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            // The matches are counted, not reported as errors.
+            Assert.assertTrue(task.call());
+        } finally {
+            System.setOut(oldOut);
+            fileManager.close();
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void countsMatchesPerFilePackageAndKey() throws IOException {
+        File a =
+                write(
+                        "A.java",
+                        "package p;",
+                        "class A {",
+                        "    void m(boolean b) {",
+                        "        do {} while (b);",
+                        "        while (b) {}",
+                        "    }",
+                        "    @SuppressWarnings(\"Tree.Kind.DO_WHILE_LOOP\")",
+                        "    void suppressed(boolean b) {",
+                        "        do {} while (b);",
+                        "    }",
+                        "}");
+        File b =
+                write(
+                        "B.java",
+                        "package p;",
+                        "class B {",
+                        "    void m(boolean b) {",
+                        "        do {} while (b);",
+                        "    }",
+                        "}");
+
+        Assert.assertEquals(
+                lines(
+                        "kind,scope,key,count",
+                        "file," + a.getPath() + ",Tree.Kind.DO_WHILE_LOOP,1",
+                        "file," + a.getPath() + ",Tree.Kind.WHILE_LOOP,1",
+                        "file," + b.getPath() + ",Tree.Kind.DO_WHILE_LOOP,1",
+                        "package,p,Tree.Kind.DO_WHILE_LOOP,2",
+                        "package,p,Tree.Kind.WHILE_LOOP,1",
+                        "key,,Tree.Kind.DO_WHILE_LOOP,2",
+                        "key,,Tree.Kind.WHILE_LOOP,1"),
+                runChecker(a, b));
+    }
+}
@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.suppression.SuppressionChecker;
+
+/** Tests which trees are in the scope of a SuppressWarnings annotation. */
+public class SuppressionTest extends CheckerFrameworkPerDirectoryTest {
+
+    public SuppressionTest(List<File> testFiles) {
+        super(testFiles, SuppressionChecker.class, "suppression", "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"suppression"};
+    }
+}
@@ -0,0 +1,156 @@
+package tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.wholeprograminference.WholeProgramInferenceScenesHelper;
+import org.junit.Assert;
+import org.junit.Test;
+import scenelib.annotations.Annotation;
+import scenelib.annotations.el.AScene;
+import scenelib.annotations.io.IndexFileParser;
+import testlib.wholeprograminference.WholeProgramInferenceTestChecker;
+
+/**
+ * Tests that whole-program inference merges the .jaif files that other shards of a program wrote,
+ * as given by the {@code -AinferMergeDirs} option, and that the result does not depend on the
+ * order of the shards.
+ *
+ * <p>Each shard runs {@link WholeProgramInferenceTestChecker} on its own version of one class: the
+ * field of the class is assigned a {@code @Sibling1} value in the first shard, a {@code @Sibling2}
+ * value in the second shard, and nothing in the shards that merge the first two.
+ */
+public class WholeProgramInferenceMergeTest {
+
+    private static final String CLASS_NAME = "ShardMergeTest";
+
+    /** The .jaif file that each shard writes for {@link #CLASS_NAME}. */
+    private static final File OUTPUT =
+            new File(WholeProgramInferenceScenesHelper.jaifFilesPath + CLASS_NAME + ".jaif");
+
+    /** Returns the source of {@link #CLASS_NAME} whose method {@code m} contains {@code body}. */
+    private static String source(String body) {
+        return "import testlib.wholeprograminference.qual.*;\n"
+                + "public class "
+                + CLASS_NAME
+                + " {\n"
+                + "    int f;\n"
+                + "    void m() {\n"
+                + "        "
+                + body
+                + "\n"
+                + "    }\n"
+                + "    static @Sibling1 int getSibling1() {\n"
+                + "        return 0;\n"
+                + "    }\n"
+                + "    static @Sibling2 int getSibling2() {\n"
+                + "        return 0;\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    /**
+     * Runs the checker on {@link #source(String) source(body)} in the directory {@code dir}, merging
+     * the .jaif files in {@code mergeDirs}, and copies the written .jaif file into {@code dir}.
+     *
+     * @return the copy of the written .jaif file
+     */
+    private static File runShard(File dir, String body, List<File> mergeDirs)
+            throws IOException {
+        Assert.assertTrue(dir.mkdirs());
+        File sourceFile = new File(dir, CLASS_NAME + ".java");
+        Files.write(sourceFile.toPath(), source(body).getBytes(StandardCharsets.UTF_8));
+
+        List<String> options = new ArrayList<>();
+        options.addAll(
+                Arrays.asList(
+                        "-proc:only",
+                        "-classpath",
+                        System.getProperty("java.class.path"),
+                        "-processor",
+                        WholeProgramInferenceTestChecker.class.getName(),
+                        "-Anomsgtext",
+                        "-Ainfer"));
+        if (!mergeDirs.isEmpty()) {
+            StringBuilder mergeDirsOption = new StringBuilder("-AinferMergeDirs=");
+            for (int i = 0; i < mergeDirs.size(); i++) {
+                if (i > 0) {
+                    mergeDirsOption.append(File.pathSeparator);
+                }
+                mergeDirsOption.append(mergeDirs.get(i).getPath());
+            }
+            options.add(mergeDirsOption.toString());
+        }
+
+        // Otherwise the .jaif file of an earlier shard would be read as the initial Scene.
+        Files.deleteIfExists(OUTPUT.toPath());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            boolean success =
+                    compiler.getTask(
+                                    null,
+                                    fileManager,
+                                    diagnostics,
+                                    options,
+                                    null,
+                                    fileManager.getJavaFileObjects(sourceFile))
+                            .call();
+            Assert.assertTrue(diagnostics.getDiagnostics().toString(), success);
+        } finally {
+            fileManager.close();
+        }
+
+        Assert.assertTrue("no .jaif file was written by " + dir, OUTPUT.exists());
+        File result = new File(dir, CLASS_NAME + ".jaif");
+        Files.copy(OUTPUT.toPath(), result.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(OUTPUT.toPath());
+        return result;
+    }
+
+    /** Returns the names of the annotations on the type of field {@code f} in {@code jaifFile}. */
+    private static Set<String> fieldAnnotations(File jaifFile) throws IOException {
+        AScene scene = new AScene();
+        IndexFileParser.parseFile(jaifFile.getPath(), scene);
+        Set<String> result = new HashSet<>();
+        for (Annotation anno :
+                scene.classes.vivify(CLASS_NAME).fields.vivify("f").type.tlAnnotationsHere) {
+            result.add(anno.def().name);
+        }
+        return result;
+    }
+
+    @Test
+    public void mergesShardsInAnyOrder() throws IOException {
+        File tmp = Files.createTempDirectory("wpi-merge").toFile();
+        File shard1 = new File(tmp, "shard1");
+        File shard2 = new File(tmp, "shard2");
+        runShard(shard1, "f = getSibling1();", Collections.<File>emptyList());
+        runShard(shard2, "f = getSibling2();", Collections.<File>emptyList());
+
+        File merged12 = runShard(new File(tmp, "merged12"), "", Arrays.asList(shard1, shard2));
+        File merged21 = runShard(new File(tmp, "merged21"), "", Arrays.asList(shard2, shard1));
+
+        // The LUB of @Sibling1 and @Sibling2 is @Parent.
+        Assert.assertEquals(
+                Collections.singleton("testlib.wholeprograminference.qual.Parent"),
+                fieldAnnotations(merged12));
+        Assert.assertEquals(
+                new String(Files.readAllBytes(merged12.toPath()), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(merged21.toPath()), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+import testlib.util.*;
+
+// Polymorphic qualifiers are resolved only from the arguments whose parameters can contain one.
+class PolySignatures {
+
+    void test(@Encrypted String s, String t) {
+        @Encrypted String a1 = second(t, s); // valid
+        // :: error: (assignment.type.incompatible)
+        @Encrypted String a2 = second(s, t); // error
+
+        @Encrypted String b1 = varargs(t, s, s); // valid
+        // :: error: (assignment.type.incompatible)
+        @Encrypted String b2 = varargs(s, s, t); // error
+
+        @Encrypted String c1 = pick(s, t); // valid
+        // :: error: (assignment.type.incompatible)
+        @Encrypted String c2 = pick(t, s); // error
+
+        // :: error: (assignment.type.incompatible)
+        @Encrypted String d1 = returnOnly(s); // error
+        String d2 = returnOnly(s); // valid
+
+        // :: error: (argument.type.incompatible)
+        second(t, s, t); // error
+    }
+
+    @PolyEncrypted String second(String ignored, @PolyEncrypted String s) {
+        return s;
+    }
+
+    void second(String ignored, @PolyEncrypted String s, @Encrypted String encrypted) {}
+
+    @PolyEncrypted String varargs(String ignored, @PolyEncrypted String... s) {
+        return s[0];
+    }
+
+    <T> T pick(T first, String ignored) {
+        return first;
+    }
+
+    @PolyEncrypted String returnOnly(String s) {
+        return encrypt(s);
+    }
+
+    @SuppressWarnings("encrypted")
+    static @Encrypted String encrypt(String s) {
+        return (@Encrypted String) s;
+    }
+}
@@ -0,0 +1,26 @@
+// The declaration of callee is in a different compilation unit than its invocation, at an offset
+// that lies within the declaration suppressed of the invoking compilation unit. Offsets in one
+// compilation unit say nothing about the declarations of another, so the declaration of callee
+// is not suppressed. See also ForeignB.java, which is laid out the other way around.
+
+class ForeignA {
+    static void callee() {}
+
+    void caller() {
+        ForeignB.callee();
+        // :: warning: (declaration.suppressed)
+        suppressed();
+    }
+
+    @SuppressWarnings("suppression")
+    void suppressed() {
+        int a = 1;
+        int b = 2;
+        int c = 3;
+        int d = 4;
+        int e = 5;
+        int f = 6;
+        int g = 7;
+        int h = 8;
+    }
+}
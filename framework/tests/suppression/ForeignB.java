@@ -0,0 +1,33 @@
+// See ForeignA.java.
+
+class ForeignB {
+    @SuppressWarnings("suppression")
+    void suppressed() {
+        int a = 1;
+        int b = 2;
+        int c = 3;
+        int d = 4;
+        int e = 5;
+        int f = 6;
+        int g = 7;
+        int h = 8;
+        int i = 9;
+        int j = 10;
+        int k = 11;
+        int l = 12;
+        int m = 13;
+        int n = 14;
+        int o = 15;
+        int p = 16;
+        int q = 17;
+        int r = 18;
+    }
+
+    void caller() {
+        ForeignA.callee();
+        // :: warning: (declaration.suppressed)
+        suppressed();
+    }
+
+    static void callee() {}
+}
@@ -0,0 +1,29 @@
+import java.util.Comparator;
+import java.util.function.Function;
+
+// An implicitly typed lambda parameter starts at the same position as its lambda. A warning at the
+// lambda is governed by the declarations that enclose the lambda, not by the parameter.
+
+class SuppressedLambda {
+    @SuppressWarnings("suppression")
+    Function<String, String> f = x -> x;
+
+    @SuppressWarnings("suppression")
+    Function<String, Function<String, String>> nested = x -> y -> y;
+
+    // :: warning: (lambda)
+    Function<String, String> g = x -> x;
+
+    @SuppressWarnings("suppression")
+    void method() {
+        Comparator<String> c = (s1, s2) -> 0;
+        Function<String, String> h = x -> x;
+    }
+
+    void unsuppressed() {
+        // :: warning: (lambda)
+        Function<String, String> h = x -> x;
+        @SuppressWarnings("suppression")
+        Function<String, String> i = x -> x;
+    }
+}
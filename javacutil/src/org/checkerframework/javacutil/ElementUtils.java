@@ -492,6 +492,10 @@ public class ElementUtils {
     /** Returns true if the given element is, or overrides, method. */
     public static boolean isMethod(
             ExecutableElement questioned, ExecutableElement method, ProcessingEnvironment env) {
+        if (!questioned.getSimpleName().equals(method.getSimpleName())) {
+            // An overriding method has the same name; this avoids the expensive override check.
+            return false;
+        }
         TypeElement enclosing = (TypeElement) questioned.getEnclosingElement();
         return questioned.equals(method)
                 || env.getElementUtils().overrides(questioned, method, enclosing);
@@ -0,0 +1,132 @@
+package org.checkerframework.javacutil;
+
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+
+/**
+ * Identifies invocations of methods that a checker handles specially, such as {@code
+ * String.length()} or {@code Collection.toArray()}.
+ *
+ * <p>Each special method is registered together with a <em>role</em>, a constant of an enum that
+ * the client defines. An invoked method plays a role if it is, or overrides, a method registered
+ * for that role (see {@link ElementUtils#isMethod}). The roles of each invoked method are computed
+ * once and then looked up by identity, so a client that asks about several roles for every
+ * invocation does not repeat the override checks.
+ *
+ * @param <R> the enum of roles
+ */
+public class MethodRoleIndex<R extends Enum<R>> {
+
+    private final ProcessingEnvironment env;
+
+    /** The empty set of roles, returned for methods that play no role. */
+    private final Set<R> noRoles;
+
+    /**
+     * The registered methods and their roles, by simple name. An overriding method has the same
+     * name as the method it overrides, so methods with other names are rejected without override
+     * checks.
+     */
+    private final Map<Name, List<Pair<ExecutableElement, R>>> candidates = new HashMap<>();
+
+    /** The roles of the invoked methods looked up so far that have the name of a candidate. */
+    private final Map<ExecutableElement, Set<R>> roles = new HashMap<>();
+
+    public MethodRoleIndex(Class<R> roleClass, ProcessingEnvironment env) {
+        this.env = env;
+        this.noRoles = Collections.unmodifiableSet(EnumSet.noneOf(roleClass));
+    }
+
+    /**
+     * Registers {@code method} for {@code role}.
+     *
+     * @param role the role of {@code method} and of the methods that override it
+     * @param method a method, usually obtained with {@link TreeUtils#getMethod}
+     */
+    public void add(R role, ExecutableElement method) {
+        List<Pair<ExecutableElement, R>> list = candidates.get(method.getSimpleName());
+        if (list == null) {
+            list = new ArrayList<>(1);
+            candidates.put(method.getSimpleName(), list);
+        }
+        list.add(Pair.of(method, role));
+        roles.clear();
+    }
+
+    /**
+     * Registers each of {@code methods} for {@code role}.
+     *
+     * @param role the role of {@code methods} and of the methods that override them
+     * @param methods methods, usually obtained with {@link TreeUtils#getMethodList}
+     */
+    public void addAll(R role, Collection<ExecutableElement> methods) {
+        for (ExecutableElement method : methods) {
+            add(role, method);
+        }
+    }
+
+    /**
+     * Returns the roles that {@code invoked} plays. The result must not be modified.
+     *
+     * @param invoked a method
+     * @return the roles of the registered methods that {@code invoked} is or overrides
+     */
+    public Set<R> getRoles(ExecutableElement invoked) {
+        List<Pair<ExecutableElement, R>> list = candidates.get(invoked.getSimpleName());
+        if (list == null) {
+            return noRoles;
+        }
+        Set<R> result = roles.get(invoked);
+        if (result == null) {
+            EnumSet<R> found = null;
+            for (Pair<ExecutableElement, R> candidate : list) {
+                if (ElementUtils.isMethod(invoked, candidate.first, env)) {
+                    if (found == null) {
+                        found = EnumSet.of(candidate.second);
+                    } else {
+                        found.add(candidate.second);
+                    }
+                }
+            }
+            result = found == null ? noRoles : Collections.unmodifiableSet(found);
+            roles.put(invoked, result);
+        }
+        return result;
+    }
+
+    /** Returns true if {@code invoked} plays {@code role}. */
+    public boolean hasRole(ExecutableElement invoked, R role) {
+        return getRoles(invoked).contains(role);
+    }
+
+    /**
+     * Returns the roles that the method invoked by {@code tree} plays, or no roles if {@code tree}
+     * is not a method invocation. The result must not be modified.
+     */
+    public Set<R> getRoles(Tree tree) {
+        if (!(tree instanceof MethodInvocationTree)) {
+            return noRoles;
+        }
+        return getRoles(TreeUtils.elementFromUse((MethodInvocationTree) tree));
+    }
+
+    /**
+     * Returns true if {@code tree} is an invocation of a method that plays {@code role}.
+     *
+     * @see TreeUtils#isMethodInvocation
+     */
+    public boolean isInvocation(Tree tree, R role) {
+        return getRoles(tree).contains(role);
+    }
+}